@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -12,4 +14,10 @@ public class OpenQuestionScoreRequest {
     private String studentAnswer;
     private String modelAnswer;
     private int maxPoints;
+    // Expected keywords of the question, used by the local keyword scorer
+    private List<String> keywords;
+
+    public OpenQuestionScoreRequest(int questionId, String studentAnswer, String modelAnswer, int maxPoints) {
+        this(questionId, studentAnswer, modelAnswer, maxPoints, List.of());
+    }
 }
@@ -13,4 +13,6 @@ public class TestSessionReq {
     private List<String> emailCandidate;
     private LocalDateTime dateExpiration ;
     private int testId ;
+    // Language of the invitation mails, "en" when missing or unsupported
+    private String locale ;
 }
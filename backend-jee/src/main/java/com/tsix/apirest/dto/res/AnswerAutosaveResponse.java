@@ -0,0 +1,6 @@
+package com.tsix.apirest.dto.res;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record AnswerAutosaveResponse(List<Integer> savedQuestionIds, LocalDateTime savedAt) {}
@@ -0,0 +1,15 @@
+package com.tsix.apirest.dto.res;
+
+public record AnswerBufferStatsResponse(int buffered,
+                                        int capacity,
+                                        int sessions,
+                                        long offered,
+                                        long coalesced,
+                                        long rejected,
+                                        long flushes,
+                                        long flushedRows,
+                                        long discardedRows,
+                                        long failedFlushes,
+                                        long oldestPendingMillis,
+                                        long lastFlushLagMillis,
+                                        long maxFlushLagMillis) {}
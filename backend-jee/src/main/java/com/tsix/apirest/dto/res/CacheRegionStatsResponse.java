@@ -0,0 +1,10 @@
+package com.tsix.apirest.dto.res;
+
+public record CacheRegionStatsResponse(String region,
+                                       long hits,
+                                       long misses,
+                                       float hitPercentage,
+                                       long puts,
+                                       long removals,
+                                       long evictions,
+                                       float averageGetMicros) {}
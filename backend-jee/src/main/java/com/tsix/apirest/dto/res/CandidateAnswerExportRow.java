@@ -0,0 +1,15 @@
+package com.tsix.apirest.dto.res;
+
+import com.tsix.apirest.entity.test.ScoringStatus;
+
+/**
+ * One graded answer as exported with its session, read with a JPQL constructor expression.
+ */
+public record CandidateAnswerExportRow(Long testSessionId,
+                                       int questionId,
+                                       String questionLabel,
+                                       String selectedAnswer,
+                                       String openAnswerText,
+                                       Double pointsEarned,
+                                       Boolean isCorrect,
+                                       ScoringStatus scoringStatus) {}
@@ -0,0 +1,12 @@
+package com.tsix.apirest.dto.res;
+
+public record HttpClientStatsResponse(int maxConnections,
+                                      int inFlight,
+                                      int peakInFlight,
+                                      int waitingForConnection,
+                                      long totalRequests,
+                                      long failedRequests,
+                                      long timedOutRequests,
+                                      double averageLatencyMillis,
+                                      long connectTimeoutMillis,
+                                      long readTimeoutMillis) {}
@@ -0,0 +1,13 @@
+package com.tsix.apirest.dto.res;
+
+public record MailStatsResponse(long pending,
+                                long failedPermanently,
+                                long sent,
+                                long failed,
+                                long rateLimited,
+                                long connectionsOpened,
+                                long reconnects,
+                                int idleConnections,
+                                double sentLastMinutePerSecond,
+                                double averageLatencyMillis,
+                                double maxLatencyMillis) {}
@@ -0,0 +1,9 @@
+package com.tsix.apirest.dto.res;
+
+import java.util.List;
+
+/**
+ * One page of the question bank. {@code nextCursor} is the id to pass as {@code cursor}
+ * to get the following page, null on the last page.
+ */
+public record QuestionPageResponse(List<QuestionResponse> items, Integer nextCursor, boolean hasMore) {}
@@ -19,4 +19,5 @@ public class QuestionResultResponse {
     private String scoreFraction; // e.g., "5/5" or "8/10"
     private double pointsEarned;
     private double maxPoints;
+    private String scoringStatus; // SCORED, PENDING_SCORING or MANUAL_REVIEW
 }
@@ -0,0 +1,9 @@
+package com.tsix.apirest.dto.res;
+
+import com.tsix.apirest.entity.test.QuestionType;
+
+/**
+ * Scalar columns of a question, selected with a JPQL constructor expression so that no
+ * Question entity is hydrated or tracked when listing the question bank.
+ */
+public record QuestionSummary(int id, String label, String hint, QuestionType questionType, double points) {}
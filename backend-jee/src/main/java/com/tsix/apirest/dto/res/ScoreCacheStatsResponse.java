@@ -0,0 +1,10 @@
+package com.tsix.apirest.dto.res;
+
+public record ScoreCacheStatsResponse(int memoryEntries,
+                                      int memoryCapacity,
+                                      long memoryHits,
+                                      long memoryMisses,
+                                      long memoryEvictions,
+                                      long persistentHits,
+                                      long persistentMisses,
+                                      long stores) {}
@@ -0,0 +1,11 @@
+package com.tsix.apirest.dto.res;
+
+public record ScoringResilienceStatsResponse(String circuitState,
+                                             long circuitOpenedCount,
+                                             long rejectedByCircuit,
+                                             double availableRateTokens,
+                                             long rateLimited,
+                                             int bulkheadAvailable,
+                                             long bulkheadRejected,
+                                             long retries,
+                                             long retryBudgetExhausted) {}
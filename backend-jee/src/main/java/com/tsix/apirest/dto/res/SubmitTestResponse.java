@@ -22,5 +22,7 @@ public class SubmitTestResponse {
     private String status;
     private String message;
     private List<QuestionResultResponse> questionResults;
+    private String scoringStatus; // COMPLETE or PENDING_SCORING
+    private int pendingAnswers;
 }
 
@@ -0,0 +1,30 @@
+package com.tsix.apirest.dto.res;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record TestStatisticsResponse(int testId,
+                                     long gradedSessions,
+                                     double meanScore,
+                                     double scoreStandardDeviation,
+                                     Double minScore,
+                                     Double maxScore,
+                                     Double medianPercent,
+                                     Double p90Percent,
+                                     List<ScoreBucket> histogram,
+                                     List<QuestionStatistics> questions,
+                                     LocalDateTime updatedAt) {
+
+    /**
+     * Sessions scoring from {@code fromPercent} (included) to {@code toPercent} of the total points.
+     */
+    public record ScoreBucket(int fromPercent, int toPercent, long sessions) {}
+
+    public record QuestionStatistics(int questionId,
+                                     String questionLabel,
+                                     long answers,
+                                     long correct,
+                                     double successRate,
+                                     double meanPoints,
+                                     double pointsStandardDeviation) {}
+}
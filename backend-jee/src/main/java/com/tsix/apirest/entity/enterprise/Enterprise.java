@@ -6,6 +6,7 @@ import jakarta.persistence.*;
 import java.util.UUID;
 
 @Entity
+@Cacheable
 public class Enterprise {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -0,0 +1,7 @@
+package com.tsix.apirest.entity.mail;
+
+public enum MailStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
@@ -10,14 +10,26 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "candidate_answer")
+@NamedEntityGraph(
+        // Result page: each answered question with the chosen answer; correct labels come from the AnswerKey.
+        // openAnswers is an inverse one-to-one that is always fetched, joined here rather than per question
+        name = CandidateAnswer.RESULTS_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode(value = "question", subgraph = "question"),
+                @NamedAttributeNode("selectedAnswer")
+        },
+        subgraphs = @NamedSubgraph(name = "question", attributeNodes = @NamedAttributeNode("openAnswers"))
+)
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
 @Setter
 public class CandidateAnswer {
+    public static final String RESULTS_GRAPH = "CandidateAnswer.results";
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "candidate_answer_seq")
+    @SequenceGenerator(name = "candidate_answer_seq", sequenceName = "candidate_answer_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -41,6 +53,10 @@ public class CandidateAnswer {
     @Column(name = "points_earned")
     private Double pointsEarned;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "scoring_status")
+    private ScoringStatus scoringStatus;
+
     @Column(name = "submitted_at", nullable = false)
     private LocalDateTime submittedAt = LocalDateTime.now();
 }
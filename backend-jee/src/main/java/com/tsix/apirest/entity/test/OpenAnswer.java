@@ -10,6 +10,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@Cacheable
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
@@ -29,7 +30,7 @@ public class OpenAnswer {
             mappedBy = "openAnswer",
             cascade = CascadeType.ALL,
             orphanRemoval = true,
-            fetch = FetchType.EAGER
+            fetch = FetchType.LAZY
     )
     private Set<KeyWords> keyWords = new HashSet<>() ;
 }
@@ -8,11 +8,23 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@Cacheable
+@NamedEntityGraph(
+        // Admin question bank: everything the QuestionMapper shows
+        name = Question.BANK_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode("answers"),
+                @NamedAttributeNode(value = "openAnswers", subgraph = "openAnswers")
+        },
+        subgraphs = @NamedSubgraph(name = "openAnswers", attributeNodes = @NamedAttributeNode("keyWords"))
+)
 @AllArgsConstructor
 @Getter
 @Setter
 @NoArgsConstructor
 public class Question {
+    public static final String BANK_GRAPH = "Question.bank";
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "question_seq")
     @SequenceGenerator(name = "question_seq", sequenceName = "question_seq", allocationSize = 50)
@@ -34,7 +46,7 @@ public class Question {
         mappedBy = "question",
         cascade = CascadeType.ALL,
         orphanRemoval = true,
-            fetch = FetchType.EAGER
+            fetch = FetchType.LAZY
     )
     private Set<Answer> answers = new HashSet<>();
 
@@ -42,14 +54,14 @@ public class Question {
             mappedBy = "question",
             cascade = CascadeType.ALL,
             orphanRemoval = true,
-            fetch = FetchType.EAGER
+            fetch = FetchType.LAZY
     )
     private OpenAnswer openAnswers ;
 
     @OneToMany(mappedBy = "question")
     private Set<TestQuestions> testQuestions ;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "enterprise_id")
     private Enterprise enterprise ;
 
@@ -0,0 +1,34 @@
+package com.tsix.apirest.entity.test;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "score_cache")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class ScoreCacheEntry {
+
+    @Id
+    @Column(name = "cache_key", length = 64)
+    private String cacheKey;
+
+    @Column(name = "question_id", nullable = false)
+    private int questionId;
+
+    @Column(name = "score", nullable = false)
+    private int score;
+
+    @Column(name = "feedback", columnDefinition = "TEXT")
+    private String feedback;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
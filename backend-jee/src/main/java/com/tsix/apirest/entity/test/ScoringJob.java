@@ -0,0 +1,56 @@
+package com.tsix.apirest.entity.test;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Durable work item for an open answer waiting to be scored by the AI backend.
+ * Rows are claimed with a lease by the background worker and deleted once scored.
+ */
+@Entity
+@Table(name = "scoring_job")
+@NoArgsConstructor
+@Getter
+@Setter
+public class ScoringJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "scoring_job_seq")
+    @SequenceGenerator(name = "scoring_job_seq", sequenceName = "scoring_job_seq", allocationSize = 50)
+    private Long id;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "candidate_answer_id", nullable = false, unique = true)
+    private CandidateAnswer candidateAnswer;
+
+    @Column(name = "test_session_id", nullable = false)
+    private Long testSessionId;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts = 0;
+
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt = LocalDateTime.now();
+
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public ScoringJob(CandidateAnswer candidateAnswer) {
+        this(candidateAnswer, candidateAnswer.getTestSession().getId());
+    }
+
+    public ScoringJob(CandidateAnswer candidateAnswer, Long testSessionId) {
+        this.candidateAnswer = candidateAnswer;
+        this.testSessionId = testSessionId;
+    }
+}
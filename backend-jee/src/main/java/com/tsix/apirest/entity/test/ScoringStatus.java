@@ -0,0 +1,7 @@
+package com.tsix.apirest.entity.test;
+
+public enum ScoringStatus {
+    SCORED,
+    PENDING_SCORING,
+    MANUAL_REVIEW
+}
@@ -12,12 +12,42 @@ import java.util.Set;
 import java.util.UUID;
 
 @Entity
+@Cacheable
+@NamedEntityGraph(
+        // Candidate paper: questions with their choices. The inverse one-to-one openAnswers
+        // cannot be proxied, so it is joined here rather than selected once per question.
+        name = Test.PAPER_GRAPH,
+        attributeNodes = @NamedAttributeNode(value = "testQuestions", subgraph = "testQuestions"),
+        subgraphs = {
+                @NamedSubgraph(name = "testQuestions", attributeNodes = @NamedAttributeNode(value = "question", subgraph = "question")),
+                @NamedSubgraph(name = "question", attributeNodes = {
+                        @NamedAttributeNode("answers"),
+                        @NamedAttributeNode("openAnswers")
+                })
+        }
+)
+@NamedEntityGraph(
+        // Admin view of a test: questions with answers, expected answer and keywords
+        name = Test.QUESTION_BANK_GRAPH,
+        attributeNodes = @NamedAttributeNode(value = "testQuestions", subgraph = "testQuestions"),
+        subgraphs = {
+                @NamedSubgraph(name = "testQuestions", attributeNodes = @NamedAttributeNode(value = "question", subgraph = "question")),
+                @NamedSubgraph(name = "question", attributeNodes = {
+                        @NamedAttributeNode("answers"),
+                        @NamedAttributeNode(value = "openAnswers", subgraph = "openAnswers")
+                }),
+                @NamedSubgraph(name = "openAnswers", attributeNodes = @NamedAttributeNode("keyWords"))
+        }
+)
 @AllArgsConstructor
 @NoArgsConstructor
 @Setter
 @Getter
 
 public class Test {
+    public static final String PAPER_GRAPH = "Test.paper";
+    public static final String QUESTION_BANK_GRAPH = "Test.questionBank";
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE)
     private int id ;
@@ -42,6 +72,13 @@ public class Test {
     @Column(columnDefinition = "boolean default false")
     private Boolean isPublic ;
 
+    // Kept in step with testQuestions when the test is saved, so results and login need not load them
+    @Column(name = "question_count", nullable = false)
+    private int questionCount ;
+
+    @Column(name = "total_points", nullable = false)
+    private double totalPoints ;
+
     @OneToMany(mappedBy = "test" , cascade = CascadeType.ALL , orphanRemoval = true)
     private Set<TestQuestions> testQuestions = new HashSet<>() ;
 
@@ -0,0 +1,51 @@
+package com.tsix.apirest.entity.test;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * Running totals of the graded answers to one question of a test.
+ */
+@Entity
+@Table(name = "test_question_stats")
+@IdClass(TestQuestionStats.Key.class)
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class TestQuestionStats {
+
+    @Id
+    @Column(name = "test_id")
+    private int testId;
+
+    @Id
+    @Column(name = "question_id")
+    private int questionId;
+
+    @Column(name = "answers", nullable = false)
+    private long answers;
+
+    @Column(name = "correct", nullable = false)
+    private long correct;
+
+    @Column(name = "points_sum", nullable = false)
+    private double pointsSum;
+
+    @Column(name = "points_square_sum", nullable = false)
+    private double pointsSquareSum;
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private int testId;
+        private int questionId;
+    }
+}
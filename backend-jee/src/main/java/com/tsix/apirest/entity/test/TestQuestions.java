@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
+@Cacheable
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
@@ -0,0 +1,44 @@
+package com.tsix.apirest.entity.test;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * Graded sessions of a test whose score falls in a tenth of the total points:
+ * bucket 0 holds [0%, 10%), bucket 9 holds [90%, 100%].
+ */
+@Entity
+@Table(name = "test_score_bucket")
+@IdClass(TestScoreBucket.Key.class)
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class TestScoreBucket {
+    public static final int BUCKETS = 10;
+
+    @Id
+    @Column(name = "test_id")
+    private int testId;
+
+    @Id
+    @Column(name = "bucket")
+    private int bucket;
+
+    @Column(name = "sessions", nullable = false)
+    private long sessions;
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private int testId;
+        private int bucket;
+    }
+}
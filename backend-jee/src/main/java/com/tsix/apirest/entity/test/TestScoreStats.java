@@ -0,0 +1,43 @@
+package com.tsix.apirest.entity.test;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running score totals of the graded sessions of a test, written by TestStatsRepo.
+ */
+@Entity
+@Table(name = "test_score_stats")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class TestScoreStats {
+
+    @Id
+    @Column(name = "test_id")
+    private int testId;
+
+    @Column(name = "sessions", nullable = false)
+    private long sessions;
+
+    @Column(name = "score_sum", nullable = false)
+    private double scoreSum;
+
+    @Column(name = "score_square_sum", nullable = false)
+    private double scoreSquareSum;
+
+    @Column(name = "min_score", nullable = false)
+    private double minScore;
+
+    @Column(name = "max_score", nullable = false)
+    private double maxScore;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
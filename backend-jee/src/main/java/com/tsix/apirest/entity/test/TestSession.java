@@ -14,13 +14,14 @@ import java.time.LocalDateTime;
 public class TestSession {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "test_session_seq")
+    @SequenceGenerator(name = "test_session_seq", sequenceName = "test_session_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "candidateemail", nullable = false)
     private String emailCandidate;
     
-    @Column(name = "token", nullable = false)
+    @Column(name = "token", nullable = false, unique = true)
     private String codeSession;
     
     @Column(name = "starttime", nullable = false)
@@ -0,0 +1,17 @@
+package com.tsix.apirest.exceptions.userExceptions;
+
+import jakarta.ws.rs.core.Response;
+
+/**
+ * The answer cannot be scored automatically under the current scoring mode and is left to the admin.
+ */
+public class ManualReviewRequiredException extends UserException {
+    public ManualReviewRequiredException(String message) {
+        super(message);
+    }
+
+    @Override
+    public Response.Status getStatus() {
+        return Response.Status.BAD_REQUEST;
+    }
+}
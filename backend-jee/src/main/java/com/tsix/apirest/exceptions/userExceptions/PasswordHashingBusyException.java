@@ -0,0 +1,10 @@
+package com.tsix.apirest.exceptions.userExceptions;
+
+import java.time.Duration;
+
+public class PasswordHashingBusyException extends RetryLaterException {
+
+    public PasswordHashingBusyException(String message, Duration retryAfter) {
+        super(message, retryAfter);
+    }
+}
@@ -0,0 +1,30 @@
+package com.tsix.apirest.exceptions.userExceptions;
+
+import jakarta.ejb.ApplicationException;
+import jakarta.ws.rs.core.Response;
+
+import java.time.Duration;
+
+/**
+ * A request refused because a resource is temporarily saturated or unavailable; it can be
+ * retried as is after {@link #getRetryAfter()}, which is sent back as a Retry-After header.
+ * Unlike other user errors it rolls back the transaction, so the retry starts from scratch.
+ */
+@ApplicationException(rollback = true)
+public abstract class RetryLaterException extends UserException {
+    private final Duration retryAfter;
+
+    protected RetryLaterException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    @Override
+    public Response.Status getStatus() {
+        return Response.Status.SERVICE_UNAVAILABLE;
+    }
+}
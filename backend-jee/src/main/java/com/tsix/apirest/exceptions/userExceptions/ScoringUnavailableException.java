@@ -0,0 +1,10 @@
+package com.tsix.apirest.exceptions.userExceptions;
+
+import java.time.Duration;
+
+public class ScoringUnavailableException extends RetryLaterException {
+
+    public ScoringUnavailableException(String message, Duration retryAfter) {
+        super(message, retryAfter);
+    }
+}
@@ -9,9 +9,12 @@ public class UserExceptionMapper implements ExceptionMapper<UserException> {
 
     @Override
     public Response toResponse(UserException e) {
-        return Response
+        Response.ResponseBuilder response = Response
                 .status(e.getStatus())
-                .entity(e.getMessage())
-                .build();
+                .entity(e.getMessage());
+        if (e instanceof RetryLaterException retryLater) {
+            response.header("Retry-After", Math.max(1, retryLater.getRetryAfter().toSeconds()));
+        }
+        return response.build();
     }
 }
@@ -3,7 +3,6 @@ package com.tsix.apirest.mapper;
 import com.tsix.apirest.dto.req.TestSessionReq;
 import com.tsix.apirest.entity.test.Test;
 import com.tsix.apirest.entity.test.TestSession;
-import com.tsix.apirest.service.MailService;
 import com.tsix.apirest.utils.AccessCodeGenerator;
 
 import java.util.ArrayList;
@@ -8,7 +8,7 @@ import java.util.Optional;
 
 @ApplicationScoped
 public class AdminAccountRepo extends CrudRepo<AdminAccount>{
-    AdminAccountRepo(EntityManager entityManager) {
+    public AdminAccountRepo(EntityManager entityManager) {
         super(entityManager);
     }
 
@@ -1,13 +1,25 @@
 package com.tsix.apirest.repository;
 
+import com.tsix.apirest.dto.req.SubmitAnswerRequest;
+import com.tsix.apirest.dto.res.CandidateAnswerExportRow;
 import com.tsix.apirest.entity.test.CandidateAnswer;
+import com.tsix.apirest.entity.test.ScoringStatus;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class CandidateAnswerRepo extends CrudRepo<CandidateAnswer> {
+    private static final int UPSERT_CHUNK = 100;
 
     public CandidateAnswerRepo() {
         super();
@@ -25,6 +37,168 @@ public class CandidateAnswerRepo extends CrudRepo<CandidateAnswer> {
                 .getResultList();
     }
 
+    public List<CandidateAnswer> findByTestSessionIdForResults(Long testSessionId) {
+        return entityManager.createQuery(
+                "SELECT DISTINCT ca FROM CandidateAnswer ca WHERE ca.testSession.id = :testSessionId ORDER BY ca.id",
+                CandidateAnswer.class)
+                .setParameter("testSessionId", testSessionId)
+                .setHint(FETCH_GRAPH, entityGraph(CandidateAnswer.RESULTS_GRAPH))
+                .getResultList();
+    }
+
+    /**
+     * Answers of every session of the test, ordered by session then answer id, streamed
+     * {@code fetchSize} rows at a time as scalar rows.
+     */
+    public Stream<CandidateAnswerExportRow> streamExportRowsByTestId(int testId, int fetchSize) {
+        return entityManager.createQuery(
+                "SELECT new com.tsix.apirest.dto.res.CandidateAnswerExportRow(" +
+                "ca.testSession.id, q.id, q.label, sa.label, ca.openAnswerText, ca.pointsEarned, ca.isCorrect, ca.scoringStatus) " +
+                "FROM CandidateAnswer ca JOIN ca.question q LEFT JOIN ca.selectedAnswer sa " +
+                "WHERE ca.testSession.test.id = :testId ORDER BY ca.testSession.id, ca.id",
+                CandidateAnswerExportRow.class)
+                .setParameter("testId", testId)
+                .setHint(FETCH_SIZE, fetchSize)
+                .getResultStream();
+    }
+
+    /**
+     * Grade computed for a stored answer.
+     */
+    public record Grade(long candidateAnswerId, double pointsEarned, Boolean isCorrect, ScoringStatus scoringStatus) {}
+
+    /**
+     * Ungraded (autosaved) answers of the session as (id, question id, selected answer id,
+     * whether an open answer was typed) rows; no entity is loaded.
+     */
+    public List<Object[]> findDraftRows(Long testSessionId) {
+        return entityManager.createQuery(
+                "SELECT ca.id, ca.question.id, sa.id, " +
+                "CASE WHEN LENGTH(TRIM(ca.openAnswerText)) > 0 THEN true ELSE false END " +
+                "FROM CandidateAnswer ca LEFT JOIN ca.selectedAnswer sa " +
+                "WHERE ca.testSession.id = :testSessionId AND ca.scoringStatus IS NULL ORDER BY ca.id",
+                Object[].class)
+                .setParameter("testSessionId", testSessionId)
+                .getResultList();
+    }
+
+    /**
+     * Writes the grades of ungraded answers, up to 100 answers per statement.
+     */
+    public void saveGrades(List<Grade> grades, LocalDateTime submittedAt) {
+        for (int from = 0; from < grades.size(); from += UPSERT_CHUNK) {
+            List<Grade> chunk = grades.subList(from, Math.min(from + UPSERT_CHUNK, grades.size()));
+            StringBuilder values = new StringBuilder();
+            for (int i = 0; i < chunk.size(); i++) {
+                values.append(i == 0 ? "" : ", ")
+                        .append("(CAST(:i").append(i).append(" AS bigint), CAST(:p").append(i)
+                        .append(" AS double precision), CAST(:c").append(i).append(" AS boolean), CAST(:s")
+                        .append(i).append(" AS varchar))");
+            }
+            Query query = entityManager.createNativeQuery(
+                    "UPDATE candidate_answer ca SET points_earned = v.points, is_correct = v.correct, " +
+                    "scoring_status = v.status, submitted_at = :submittedAt " +
+                    "FROM (VALUES " + values + ") AS v (id, points, correct, status) " +
+                    "WHERE ca.id = v.id AND ca.scoring_status IS NULL")
+                    .setParameter("submittedAt", submittedAt)
+                    .setHint(NATIVE_SPACES, "candidate_answer");
+            for (int i = 0; i < chunk.size(); i++) {
+                Grade grade = chunk.get(i);
+                query.setParameter("i" + i, grade.candidateAnswerId())
+                        .setParameter("p" + i, grade.pointsEarned())
+                        .setParameter("c" + i, grade.isCorrect())
+                        .setParameter("s" + i, grade.scoringStatus().name());
+            }
+            query.executeUpdate();
+        }
+    }
+
+    /**
+     * Reference to an answer known to exist, without loading it.
+     */
+    public CandidateAnswer reference(Long id) {
+        return entityManager.getReference(CandidateAnswer.class, id);
+    }
+
+    /**
+     * Inserts or replaces ungraded answers of one session, see {@link #upsertDrafts(Map)}.
+     * Returns the ids of the questions saved.
+     */
+    public List<Integer> upsertDrafts(Long testSessionId, List<SubmitAnswerRequest> answers) {
+        List<Integer> saved = new ArrayList<>();
+        for (Object[] row : upsertDrafts(Map.of(testSessionId, answers))) {
+            saved.add(((Number) row[1]).intValue());
+        }
+        return saved;
+    }
+
+    /**
+     * Inserts or replaces ungraded answers, relying on the (test_session_id, question_id)
+     * unique constraint so that saving the same question twice is idempotent.
+     * Rows are only written while their session is open and not expired, for questions of the
+     * session's test; a choice belonging to another question is stored as no choice, and
+     * answers already graded are left untouched. Session rows are share-locked so that
+     * a concurrent submit waits for the save, and a save after the submit writes nothing.
+     * When a question appears more than once for a session the last answer wins.
+     * Answers of several sessions share statements of up to 100 rows.
+     * Returns the (test_session_id, question_id) of the rows written.
+     */
+    public List<Object[]> upsertDrafts(Map<Long, ? extends Collection<SubmitAnswerRequest>> answersBySession) {
+        List<Long> sessionIds = new ArrayList<>();
+        List<SubmitAnswerRequest> rows = new ArrayList<>();
+        answersBySession.forEach((testSessionId, answers) -> {
+            Map<Integer, SubmitAnswerRequest> byQuestion = new LinkedHashMap<>();
+            answers.forEach(answer -> byQuestion.put(answer.getQuestionId(), answer));
+            byQuestion.values().forEach(answer -> {
+                sessionIds.add(testSessionId);
+                rows.add(answer);
+            });
+        });
+        List<Object[]> saved = new ArrayList<>();
+        for (int from = 0; from < rows.size(); from += UPSERT_CHUNK) {
+            int to = Math.min(from + UPSERT_CHUNK, rows.size());
+            saved.addAll(upsertChunk(sessionIds.subList(from, to), rows.subList(from, to)));
+        }
+        return saved;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> upsertChunk(List<Long> sessionIds, List<SubmitAnswerRequest> answers) {
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < answers.size(); i++) {
+            values.append(i == 0 ? "" : ", ")
+                    .append("(CAST(:s").append(i).append(" AS bigint), CAST(:q").append(i)
+                    .append(" AS integer), CAST(:a").append(i).append(" AS integer), CAST(:t").append(i).append(" AS text))");
+        }
+        Query query = entityManager.createNativeQuery(
+                "WITH s AS (" +
+                "    SELECT id, test_id FROM test_session " +
+                "    WHERE id IN (:testSessionIds) AND status <> 'FINISHED' " +
+                "    AND (tokenexpiresat IS NULL OR tokenexpiresat > now()) FOR SHARE" +
+                ") " +
+                "INSERT INTO candidate_answer (id, test_session_id, question_id, selected_answer_id, open_answer_text, submitted_at) " +
+                "SELECT nextval('candidate_answer_seq'), s.id, v.question_id, a.id, v.open_answer_text, now() " +
+                "FROM (VALUES " + values + ") AS v (test_session_id, question_id, answer_id, open_answer_text) " +
+                "JOIN s ON s.id = v.test_session_id " +
+                "JOIN test_questions tq ON tq.test_id = s.test_id AND tq.question_id = v.question_id " +
+                "LEFT JOIN answer a ON a.id = v.answer_id AND a.question_id = v.question_id " +
+                "ON CONFLICT (test_session_id, question_id) DO UPDATE SET " +
+                "selected_answer_id = EXCLUDED.selected_answer_id, " +
+                "open_answer_text = EXCLUDED.open_answer_text, submitted_at = EXCLUDED.submitted_at " +
+                "WHERE candidate_answer.scoring_status IS NULL " +
+                "RETURNING test_session_id, question_id")
+                .setParameter("testSessionIds", new HashSet<>(sessionIds))
+                .setHint(NATIVE_SPACES, "candidate_answer");
+        for (int i = 0; i < answers.size(); i++) {
+            SubmitAnswerRequest answer = answers.get(i);
+            query.setParameter("s" + i, sessionIds.get(i))
+                    .setParameter("q" + i, answer.getQuestionId())
+                    .setParameter("a" + i, answer.getSelectedAnswerId())
+                    .setParameter("t" + i, answer.getOpenAnswerText());
+        }
+        return (List<Object[]>) query.getResultList();
+    }
+
     public boolean existsByTestSessionAndQuestion(Long testSessionId, int questionId) {
         Long count = entityManager.createQuery(
                 "SELECT COUNT(ca) FROM CandidateAnswer ca " +
@@ -35,5 +209,22 @@ public class CandidateAnswerRepo extends CrudRepo<CandidateAnswer> {
                 .getSingleResult();
         return count > 0;
     }
-}
 
+    public double sumPointsEarned(Long testSessionId) {
+        return entityManager.createQuery(
+                "SELECT COALESCE(SUM(ca.pointsEarned), 0.0) FROM CandidateAnswer ca WHERE ca.testSession.id = :testSessionId",
+                Double.class)
+                .setParameter("testSessionId", testSessionId)
+                .getSingleResult();
+    }
+
+    public long countByTestSessionIdAndScoringStatus(Long testSessionId, ScoringStatus scoringStatus) {
+        return entityManager.createQuery(
+                "SELECT COUNT(ca) FROM CandidateAnswer ca " +
+                "WHERE ca.testSession.id = :testSessionId AND ca.scoringStatus = :scoringStatus",
+                Long.class)
+                .setParameter("testSessionId", testSessionId)
+                .setParameter("scoringStatus", scoringStatus)
+                .getSingleResult();
+    }
+}
@@ -1,13 +1,26 @@
 package com.tsix.apirest.repository;
 
+import jakarta.persistence.EntityGraph;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 
 public abstract class CrudRepo<T>{
+    // Attributes outside the graph are not fetched by the query
+    protected static final String FETCH_GRAPH = "jakarta.persistence.fetchgraph";
+    // Rows fetched per round trip when a result is streamed instead of loaded as a list
+    protected static final String FETCH_SIZE = "org.hibernate.fetchSize";
+    // Loaded entities are not snapshotted for dirty checking, nor ever flushed
+    protected static final String READ_ONLY = "org.hibernate.readOnly";
+    // Results are kept in the query cache until a table they read from changes
+    protected static final String CACHEABLE = "org.hibernate.cacheable";
+    // Tables a native statement writes to; without it Hibernate drops every second-level cache region
+    protected static final String NATIVE_SPACES = "org.hibernate.query.native.spaces";
+
     @PersistenceContext
     EntityManager entityManager ;
 
@@ -38,6 +51,16 @@ public abstract class CrudRepo<T>{
                         .find(clazz, id));
     }
 
+    public Optional<T> findById(Class<T> clazz, Object id, String graphName){
+        return Optional
+                .ofNullable(entityManager
+                        .find(clazz, id, Map.of(FETCH_GRAPH, entityGraph(graphName))));
+    }
+
+    protected EntityGraph<?> entityGraph(String graphName){
+        return entityManager.getEntityGraph(graphName);
+    }
+
     public T update(T entity){
         return entityManager.merge(entity);
     }
@@ -45,4 +68,15 @@ public abstract class CrudRepo<T>{
     public void delete(T entity){
         entityManager.remove(entity);
     }
+
+    public void flush(){
+        entityManager.flush();
+    }
+
+    /**
+     * Detaches every managed entity, so that a long streamed read does not grow the persistence context.
+     */
+    public void clear(){
+        entityManager.clear();
+    }
 }
@@ -3,6 +3,9 @@ package com.tsix.apirest.repository;
 import com.tsix.apirest.entity.enterprise.Domain;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.EntityManager;
+
+import java.util.List;
+
 @ApplicationScoped
 public class DomainRepo extends CrudRepo<Domain>{
 
@@ -13,4 +16,11 @@ public class DomainRepo extends CrudRepo<Domain>{
     public DomainRepo() {
         super();
     }
+
+    @Override
+    public List<Domain> findAll(Class<Domain> clazz){
+        return entityManager.createQuery("SELECT d FROM Domain d ORDER BY d.id", Domain.class)
+                .setHint(CACHEABLE, true)
+                .getResultList();
+    }
 }
@@ -0,0 +1,100 @@
+package com.tsix.apirest.repository;
+
+import com.tsix.apirest.entity.mail.MailOutbox;
+import com.tsix.apirest.entity.mail.MailStatus;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@NoArgsConstructor
+@ApplicationScoped
+public class MailOutboxRepo extends CrudRepo<MailOutbox> {
+    public MailOutboxRepo(EntityManager e){super(e);}
+
+    /**
+     * Leases up to {@code limit} pending mails, skipping rows already leased by another dispatcher.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Long> claimBatch(int limit, int leaseSeconds){
+        List<Number> ids = entityManager.createNativeQuery(
+                "UPDATE mail_outbox SET locked_until = now() + make_interval(secs => :lease), attempts = attempts + 1 " +
+                "WHERE id IN (" +
+                "    SELECT id FROM mail_outbox " +
+                "    WHERE status = 'PENDING' AND available_at <= now() AND (locked_until IS NULL OR locked_until < now()) " +
+                "    ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED" +
+                ") RETURNING id")
+                .setParameter("lease", leaseSeconds)
+                .setParameter("limit", limit)
+                .getResultList();
+        return ids.stream().map(Number::longValue).toList();
+    }
+
+    public List<MailOutbox> findByIds(Collection<Long> ids){
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createQuery("SELECT m FROM MailOutbox m WHERE m.id IN :ids ORDER BY m.id", MailOutbox.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    public void markSent(Collection<Long> ids){
+        if (ids.isEmpty()) {
+            return;
+        }
+        entityManager.createQuery("UPDATE MailOutbox m SET m.status = :status, m.sentAt = :sentAt, m.lockedUntil = NULL, " +
+                        "m.lastError = NULL WHERE m.id IN :ids")
+                .setParameter("status", MailStatus.SENT)
+                .setParameter("sentAt", LocalDateTime.now())
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    public void reschedule(Long id, LocalDateTime availableAt, String error){
+        entityManager.createQuery("UPDATE MailOutbox m SET m.availableAt = :availableAt, m.lockedUntil = NULL, " +
+                        "m.lastError = :error WHERE m.id = :id")
+                .setParameter("availableAt", availableAt)
+                .setParameter("error", error)
+                .setParameter("id", id)
+                .executeUpdate();
+    }
+
+    /**
+     * Puts a claimed mail back without counting the claim as an attempt.
+     */
+    public void defer(Long id, LocalDateTime availableAt, String reason){
+        entityManager.createQuery("UPDATE MailOutbox m SET m.availableAt = :availableAt, m.lockedUntil = NULL, " +
+                        "m.attempts = m.attempts - 1, m.lastError = :reason WHERE m.id = :id")
+                .setParameter("availableAt", availableAt)
+                .setParameter("reason", reason)
+                .setParameter("id", id)
+                .executeUpdate();
+    }
+
+    public void markFailed(Long id, String error){
+        entityManager.createQuery("UPDATE MailOutbox m SET m.status = :status, m.lockedUntil = NULL, m.lastError = :error " +
+                        "WHERE m.id = :id")
+                .setParameter("status", MailStatus.FAILED)
+                .setParameter("error", error)
+                .setParameter("id", id)
+                .executeUpdate();
+    }
+
+    /**
+     * Counts the enterprise's mails in the given status, through the test session they were sent for.
+     */
+    public long countByStatus(MailStatus status, UUID enterpriseId){
+        return entityManager.createQuery(
+                        "SELECT COUNT(m) FROM MailOutbox m, TestSession s " +
+                        "WHERE m.testSessionId = s.id AND s.test.enterprise.id = :enterpriseId AND m.status = :status",
+                        Long.class)
+                .setParameter("status", status)
+                .setParameter("enterpriseId", enterpriseId)
+                .getSingleResult();
+    }
+}
@@ -1,11 +1,19 @@
 package com.tsix.apirest.repository;
 
+import com.tsix.apirest.dto.res.QuestionSummary;
 import com.tsix.apirest.entity.test.Question;
+import com.tsix.apirest.entity.test.QuestionType;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
 import lombok.NoArgsConstructor;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
 
 @ApplicationScoped
@@ -20,6 +28,93 @@ public class QuestionRepo extends CrudRepo<Question>{
         return entityManager.createQuery(
                         "SELECT DISTINCT q FROM Question q WHERE q.enterprise.id = :enterpriseId", Question.class)
                 .setParameter("enterpriseId", enterpriseId)
+                .setHint(FETCH_GRAPH, entityGraph(Question.BANK_GRAPH))
                 .getResultList();
     }
+
+    public List<Question> findAllForBank(){
+        return entityManager.createQuery("SELECT DISTINCT q FROM Question q", Question.class)
+                .setHint(FETCH_GRAPH, entityGraph(Question.BANK_GRAPH))
+                .getResultList();
+    }
+
+    /**
+     * Keyset page of the enterprise's questions with id greater than {@code afterId}, ordered by id.
+     * The type and label prefix filters are optional.
+     */
+    public List<QuestionSummary> findPageByEnterpriseId(UUID enterpriseId, int afterId, QuestionType type,
+                                                        String labelPrefix, int limit){
+        StringBuilder jpql = new StringBuilder(
+                "SELECT new com.tsix.apirest.dto.res.QuestionSummary(q.id, q.label, q.hint, q.questionType, q.points) " +
+                "FROM Question q WHERE q.enterprise.id = :enterpriseId AND q.id > :afterId");
+        if (type != null) {
+            jpql.append(" AND q.questionType = :type");
+        }
+        if (labelPrefix != null) {
+            jpql.append(" AND LOWER(q.label) LIKE :labelPrefix ESCAPE '\\'");
+        }
+        jpql.append(" ORDER BY q.id");
+        TypedQuery<QuestionSummary> query = entityManager.createQuery(jpql.toString(), QuestionSummary.class)
+                .setParameter("enterpriseId", enterpriseId)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit);
+        if (type != null) {
+            query.setParameter("type", type);
+        }
+        if (labelPrefix != null) {
+            query.setParameter("labelPrefix", escapeLike(labelPrefix.toLowerCase(Locale.ROOT)) + "%");
+        }
+        return query.getResultList();
+    }
+
+    /**
+     * Choices of the given questions, as tuples (questionId, id, label, correct).
+     */
+    public List<Tuple> findAnswerRowsByQuestionIds(Collection<Integer> questionIds){
+        if (questionIds.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createQuery(
+                        "SELECT a.question.id AS questionId, a.id AS id, a.label AS label, a.correct AS correct " +
+                        "FROM Answer a WHERE a.question.id IN :ids ORDER BY a.id", Tuple.class)
+                .setParameter("ids", questionIds)
+                .getResultList();
+    }
+
+    /**
+     * Expected answers and keywords of the given questions, as tuples
+     * (questionId, id, expectedAnswer, keywordId, keyword); the keyword columns are null
+     * for an open answer without keywords.
+     */
+    public List<Tuple> findOpenAnswerRowsByQuestionIds(Collection<Integer> questionIds){
+        if (questionIds.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createQuery(
+                        "SELECT oa.question.id AS questionId, oa.id AS id, oa.expectedAnswer AS expectedAnswer, " +
+                        "k.id AS keywordId, k.keyword AS keyword " +
+                        "FROM OpenAnswer oa LEFT JOIN oa.keyWords k WHERE oa.question.id IN :ids ORDER BY oa.id, k.id", Tuple.class)
+                .setParameter("ids", questionIds)
+                .getResultList();
+    }
+
+    private static String escapeLike(String value){
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Points of each of the given questions, by question id.
+     */
+    public Map<Integer, Double> findPointsByIds(Collection<Integer> ids){
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Map<Integer, Double> points = new HashMap<>();
+        entityManager.createQuery(
+                        "SELECT q.id, q.points FROM Question q WHERE q.id IN :ids", Object[].class)
+                .setParameter("ids", ids)
+                .getResultList()
+                .forEach(row -> points.put((Integer) row[0], (Double) row[1]));
+        return points;
+    }
 }
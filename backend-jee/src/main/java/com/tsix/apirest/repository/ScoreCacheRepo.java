@@ -0,0 +1,44 @@
+package com.tsix.apirest.repository;
+
+import com.tsix.apirest.entity.test.ScoreCacheEntry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@NoArgsConstructor
+@ApplicationScoped
+public class ScoreCacheRepo extends CrudRepo<ScoreCacheEntry> {
+    public ScoreCacheRepo(EntityManager e){super(e);}
+
+    public Optional<ScoreCacheEntry> findFreshByKey(String cacheKey, LocalDateTime notBefore){
+        return entityManager.createQuery(
+                "SELECT s FROM ScoreCacheEntry s WHERE s.cacheKey = :cacheKey AND s.createdAt >= :notBefore",
+                ScoreCacheEntry.class)
+                .setParameter("cacheKey", cacheKey)
+                .setParameter("notBefore", notBefore)
+                .getResultList()
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Inserts or refreshes an entry; concurrent writers of the same key do not fail.
+     */
+    public void upsert(ScoreCacheEntry entry){
+        entityManager.createNativeQuery(
+                "INSERT INTO score_cache (cache_key, question_id, score, feedback, created_at) " +
+                "VALUES (:cacheKey, :questionId, :score, :feedback, :createdAt) " +
+                "ON CONFLICT (cache_key) DO UPDATE SET score = EXCLUDED.score, " +
+                "feedback = EXCLUDED.feedback, created_at = EXCLUDED.created_at")
+                .setParameter("cacheKey", entry.getCacheKey())
+                .setParameter("questionId", entry.getQuestionId())
+                .setParameter("score", entry.getScore())
+                .setParameter("feedback", entry.getFeedback())
+                .setParameter("createdAt", entry.getCreatedAt())
+                .setHint(NATIVE_SPACES, "score_cache")
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,82 @@
+package com.tsix.apirest.repository;
+
+import com.tsix.apirest.entity.test.ScoringJob;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@NoArgsConstructor
+@ApplicationScoped
+public class ScoringJobRepo extends CrudRepo<ScoringJob> {
+    public ScoringJobRepo(EntityManager e){super(e);}
+
+    /**
+     * Leases up to {@code limit} due jobs. SKIP LOCKED lets several workers drain the
+     * queue concurrently without picking the same rows; an expired lease makes the job
+     * claimable again if a worker died while scoring it.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Long> claimBatch(int limit, int leaseSeconds){
+        List<Number> ids = entityManager.createNativeQuery(
+                "UPDATE scoring_job SET locked_until = now() + make_interval(secs => :lease), attempts = attempts + 1 " +
+                "WHERE id IN (" +
+                "    SELECT id FROM scoring_job " +
+                "    WHERE available_at <= now() AND (locked_until IS NULL OR locked_until < now()) " +
+                "    ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED" +
+                ") RETURNING id")
+                .setParameter("lease", leaseSeconds)
+                .setParameter("limit", limit)
+                .getResultList();
+        return ids.stream().map(Number::longValue).toList();
+    }
+
+    public List<ScoringJob> findByIdsWithAnswers(List<Long> ids){
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createQuery(
+                "SELECT DISTINCT j FROM ScoringJob j " +
+                "JOIN FETCH j.candidateAnswer ca " +
+                "JOIN FETCH ca.question q " +
+                "LEFT JOIN FETCH q.openAnswers oa " +
+                "LEFT JOIN FETCH oa.keyWords " +
+                "WHERE j.id IN :ids ORDER BY j.id", ScoringJob.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    public void reschedule(Long id, LocalDateTime availableAt, String error){
+        entityManager.createQuery("UPDATE ScoringJob j SET j.availableAt = :availableAt, j.lockedUntil = NULL, j.lastError = :error WHERE j.id = :id")
+                .setParameter("availableAt", availableAt)
+                .setParameter("error", error)
+                .setParameter("id", id)
+                .executeUpdate();
+    }
+
+    /**
+     * Puts a claimed job back without counting the claim as an attempt.
+     */
+    public void defer(Long id, LocalDateTime availableAt, String reason){
+        entityManager.createQuery("UPDATE ScoringJob j SET j.availableAt = :availableAt, j.lockedUntil = NULL, " +
+                        "j.attempts = j.attempts - 1, j.lastError = :reason WHERE j.id = :id")
+                .setParameter("availableAt", availableAt)
+                .setParameter("reason", reason)
+                .setParameter("id", id)
+                .executeUpdate();
+    }
+
+    public void deleteById(Long id){
+        entityManager.createQuery("DELETE FROM ScoringJob j WHERE j.id = :id")
+                .setParameter("id", id)
+                .executeUpdate();
+    }
+
+    public long countByTestSessionId(Long testSessionId){
+        return entityManager.createQuery("SELECT COUNT(j) FROM ScoringJob j WHERE j.testSessionId = :testSessionId", Long.class)
+                .setParameter("testSessionId", testSessionId)
+                .getSingleResult();
+    }
+}
@@ -30,4 +30,15 @@ public class TestRepo extends CrudRepo<Test>{
                 .getResultList();
         return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0));
     }
+
+    public Optional<Test> findByIdAndEnterpriseIdWithQuestions(int testId, UUID enterpriseId) {
+        List<Test> results = entityManager.createQuery(
+                "SELECT DISTINCT t FROM Test t WHERE t.id = :testId AND t.enterprise.id = :enterpriseId",
+                Test.class)
+                .setParameter("testId", testId)
+                .setParameter("enterpriseId", enterpriseId)
+                .setHint(FETCH_GRAPH, entityGraph(Test.QUESTION_BANK_GRAPH))
+                .getResultList();
+        return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0));
+    }
 }
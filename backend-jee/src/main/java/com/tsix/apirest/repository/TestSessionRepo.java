@@ -4,29 +4,76 @@ import com.tsix.apirest.entity.TestSessionStatus;
 import com.tsix.apirest.entity.test.TestSession;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @NoArgsConstructor
 @ApplicationScoped
 public class TestSessionRepo extends CrudRepo<TestSession>{
+    private static final int CODE_LOOKUP_CHUNK = 1000;
+
     public TestSessionRepo(EntityManager e){super(e);}
 
-    public Optional<TestSession> findByCodeSession(String codeSession){
-        return entityManager.createQuery("SELECT t FROM TestSession t WHERE t.codeSession = :codeSession", TestSession.class)
-                .setParameter("codeSession" , codeSession)
-                .getResultList()
-                .stream()
-                .findFirst();
+    /**
+     * The codes among {@code codes} already given to a session.
+     */
+    public List<String> findExistingCodes(Collection<String> codes){
+        List<String> existing = new ArrayList<>();
+        List<String> all = new ArrayList<>(codes);
+        for (int from = 0; from < all.size(); from += CODE_LOOKUP_CHUNK) {
+            existing.addAll(entityManager.createQuery("SELECT t.codeSession FROM TestSession t WHERE t.codeSession IN :codes", String.class)
+                    .setParameter("codes", all.subList(from, Math.min(all.size(), from + CODE_LOOKUP_CHUNK)))
+                    .getResultList());
+        }
+        return existing;
+    }
+
+    /**
+     * Marks the session of this code and email as used and active in one statement, only if it
+     * has not been used yet and has not expired. Returns the session id and test id of the
+     * claimed session, or empty when nothing matched, so two concurrent logins cannot both win.
+     */
+    @SuppressWarnings("unchecked")
+    public Optional<Object[]> claimByCode(String codeSession, String email){
+        List<Object[]> rows = entityManager.createNativeQuery(
+                "UPDATE test_session SET tokenused = true, status = 'ACTIVE' " +
+                "WHERE token = :code AND candidateemail = :email AND tokenused = false " +
+                "AND (tokenexpiresat IS NULL OR tokenexpiresat > now()) " +
+                "RETURNING id, test_id")
+                .setParameter("code", codeSession)
+                .setParameter("email", email)
+                .getResultList();
+        return rows.stream().findFirst();
+    }
+
+    public Optional<TestSession> findByIdForUpdate(Long id){
+        return Optional.ofNullable(entityManager.find(TestSession.class, id, LockModeType.PESSIMISTIC_WRITE));
     }
 
-    public java.util.List<TestSession> findByTestId(int testId){
+    public List<TestSession> findByTestId(int testId){
         return entityManager.createQuery("SELECT t FROM TestSession t WHERE t.test.id = :testId ORDER BY t.dateCreation DESC", TestSession.class)
                 .setParameter("testId", testId)
                 .getResultList();
     }
 
+    /**
+     * Sessions of the test in id order, read through a server-side cursor {@code fetchSize} rows at a time.
+     */
+    public Stream<TestSession> streamByTestId(int testId, int fetchSize){
+        return entityManager.createQuery("SELECT t FROM TestSession t WHERE t.test.id = :testId ORDER BY t.id", TestSession.class)
+                .setParameter("testId", testId)
+                .setHint(FETCH_SIZE, fetchSize)
+                .setHint(READ_ONLY, true)
+                .getResultStream();
+    }
+
     public void updateTestSessionIsUsed(Long id , boolean status){
         entityManager.createQuery("UPDATE TestSession t SET t.isUsed = :status WHERE t.id = :id")
                 .setParameter("status" , status)
@@ -48,13 +95,37 @@ public class TestSessionRepo extends CrudRepo<TestSession>{
                 .executeUpdate();
     }
 
-    public void automaticUpdate(){
-        entityManager.createQuery("UPDATE TestSession t " +
-                "SET t.status = 'FINISHED' " +
-                "WHERE (t.status = 'PLANNED' OR t.status = 'SCHEDULED' OR t.status = 'ACTIVE') " +
-                "AND t.dateExpiration < CURRENT_TIMESTAMP")
-                .executeUpdate();
-        System.out.println("Automatic update started");
+    /**
+     * Tries to take the transaction-scoped advisory lock {@code key}; false when another
+     * transaction, possibly on another node, holds it. Released at commit or rollback.
+     */
+    public boolean tryAdvisoryXactLock(long key){
+        Object locked = entityManager.createNativeQuery("SELECT pg_try_advisory_xact_lock(:key)")
+                .setParameter("key", key)
+                .getSingleResult();
+        return Boolean.TRUE.equals(locked);
+    }
+
+    /**
+     * Finishes up to {@code limit} expired PLANNED, SCHEDULED or ACTIVE sessions, taking them in
+     * (tokenexpiresat, id) order after the given keyset position. Rows locked by a running
+     * submission are skipped and picked up by a later sweep. Returns the (tokenexpiresat, id)
+     * of each finished session.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Object[]> expireBatch(LocalDateTime afterExpiresAt, long afterId, int limit){
+        return entityManager.createNativeQuery(
+                "UPDATE test_session SET status = 'FINISHED' " +
+                "WHERE id IN (" +
+                "    SELECT id FROM test_session " +
+                "    WHERE status IN ('PLANNED', 'SCHEDULED', 'ACTIVE') AND tokenexpiresat < now() " +
+                "    AND (tokenexpiresat, id) > (:afterExpiresAt, :afterId) " +
+                "    ORDER BY tokenexpiresat, id LIMIT :limit FOR UPDATE SKIP LOCKED" +
+                ") RETURNING tokenexpiresat, id")
+                .setParameter("afterExpiresAt", afterExpiresAt)
+                .setParameter("afterId", afterId)
+                .setParameter("limit", limit)
+                .getResultList();
     }
 
     public void migrateOldStatusValues() {
@@ -62,16 +133,19 @@ public class TestSessionRepo extends CrudRepo<TestSession>{
             // Migrate IN_PROGRESS to ACTIVE
             int inProgressUpdated = entityManager.createNativeQuery(
                     "UPDATE test_session SET status = 'ACTIVE' WHERE status = 'IN_PROGRESS'")
+                    .setHint(NATIVE_SPACES, "test_session")
                     .executeUpdate();
 
             // Migrate COMPLETED to FINISHED
             int completedUpdated = entityManager.createNativeQuery(
                     "UPDATE test_session SET status = 'FINISHED' WHERE status = 'COMPLETED'")
+                    .setHint(NATIVE_SPACES, "test_session")
                     .executeUpdate();
 
             // Migrate PLANNING to PLANNED (if any)
             int planningUpdated = entityManager.createNativeQuery(
                     "UPDATE test_session SET status = 'PLANNED' WHERE status = 'PLANNING'")
+                    .setHint(NATIVE_SPACES, "test_session")
                     .executeUpdate();
 
             if (inProgressUpdated > 0 || completedUpdated > 0 || planningUpdated > 0) {
@@ -0,0 +1,113 @@
+package com.tsix.apirest.repository;
+
+import com.tsix.apirest.entity.test.TestQuestionStats;
+import com.tsix.apirest.entity.test.TestScoreBucket;
+import com.tsix.apirest.entity.test.TestScoreStats;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Aggregates of graded sessions, maintained by increments when a session is graded so that
+ * reading the statistics of a test never scans its sessions or answers.
+ */
+@ApplicationScoped
+public class TestStatsRepo extends CrudRepo<TestScoreStats> {
+
+    public TestStatsRepo() {
+        super();
+    }
+
+    public TestStatsRepo(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Marks the session as counted in the aggregates and returns its test, or empty when it
+     * was counted already, so that a session is never added twice.
+     */
+    public Optional<Integer> markAggregated(Long testSessionId) {
+        List<?> rows = entityManager.createNativeQuery(
+                "UPDATE test_session SET stats_recorded_at = now() " +
+                "WHERE id = :testSessionId AND stats_recorded_at IS NULL AND test_id IS NOT NULL " +
+                "RETURNING test_id")
+                .setParameter("testSessionId", testSessionId)
+                .setHint(NATIVE_SPACES, "test_session")
+                .getResultList();
+        return rows.stream().findFirst().map(testId -> ((Number) testId).intValue());
+    }
+
+    public void addSessionScore(int testId, double score) {
+        entityManager.createNativeQuery(
+                "INSERT INTO test_score_stats (test_id, sessions, score_sum, score_square_sum, min_score, max_score, updated_at) " +
+                "VALUES (:testId, 1, :score, :score * :score, :score, :score, now()) " +
+                "ON CONFLICT (test_id) DO UPDATE SET " +
+                "sessions = test_score_stats.sessions + 1, " +
+                "score_sum = test_score_stats.score_sum + EXCLUDED.score_sum, " +
+                "score_square_sum = test_score_stats.score_square_sum + EXCLUDED.score_square_sum, " +
+                "min_score = LEAST(test_score_stats.min_score, EXCLUDED.min_score), " +
+                "max_score = GREATEST(test_score_stats.max_score, EXCLUDED.max_score), " +
+                "updated_at = EXCLUDED.updated_at")
+                .setParameter("testId", testId)
+                .setParameter("score", score)
+                .setHint(NATIVE_SPACES, "test_score_stats")
+                .executeUpdate();
+        // Bucket of the score against the total points of the test
+        entityManager.createNativeQuery(
+                "INSERT INTO test_score_bucket (test_id, bucket, sessions) " +
+                "SELECT t.id, CAST(LEAST(" + (TestScoreBucket.BUCKETS - 1) + ", GREATEST(0, " +
+                "    FLOOR(" + TestScoreBucket.BUCKETS + " * :score / t.total_points))) AS integer), 1 " +
+                "FROM test t WHERE t.id = :testId AND t.total_points > 0 " +
+                "ON CONFLICT (test_id, bucket) DO UPDATE SET sessions = test_score_bucket.sessions + 1")
+                .setParameter("testId", testId)
+                .setParameter("score", score)
+                .setHint(NATIVE_SPACES, "test_score_bucket")
+                .executeUpdate();
+    }
+
+    /**
+     * Adds every graded answer of the session to the totals of its question, in one statement.
+     */
+    public void addSessionAnswers(int testId, Long testSessionId) {
+        entityManager.createNativeQuery(
+                "INSERT INTO test_question_stats (test_id, question_id, answers, correct, points_sum, points_square_sum) " +
+                "SELECT :testId, ca.question_id, 1, CASE WHEN ca.is_correct THEN 1 ELSE 0 END, " +
+                "COALESCE(ca.points_earned, 0), COALESCE(ca.points_earned, 0) * COALESCE(ca.points_earned, 0) " +
+                "FROM candidate_answer ca WHERE ca.test_session_id = :testSessionId AND ca.scoring_status IS NOT NULL " +
+                "ON CONFLICT (test_id, question_id) DO UPDATE SET " +
+                "answers = test_question_stats.answers + 1, " +
+                "correct = test_question_stats.correct + EXCLUDED.correct, " +
+                "points_sum = test_question_stats.points_sum + EXCLUDED.points_sum, " +
+                "points_square_sum = test_question_stats.points_square_sum + EXCLUDED.points_square_sum")
+                .setParameter("testId", testId)
+                .setParameter("testSessionId", testSessionId)
+                .setHint(NATIVE_SPACES, "test_question_stats")
+                .executeUpdate();
+    }
+
+    public Optional<TestScoreStats> findByTestId(int testId) {
+        return findById(TestScoreStats.class, testId);
+    }
+
+    public List<TestScoreBucket> findBuckets(int testId) {
+        return entityManager.createQuery(
+                "SELECT b FROM TestScoreBucket b WHERE b.testId = :testId ORDER BY b.bucket",
+                TestScoreBucket.class)
+                .setParameter("testId", testId)
+                .getResultList();
+    }
+
+    /**
+     * Per-question totals of the test, each with the question label.
+     */
+    public List<Object[]> findQuestionStats(int testId) {
+        return entityManager.createQuery(
+                "SELECT s, q.label FROM TestQuestionStats s, Question q " +
+                "WHERE q.id = s.questionId AND s.testId = :testId ORDER BY s.questionId",
+                Object[].class)
+                .setParameter("testId", testId)
+                .getResultList();
+    }
+}
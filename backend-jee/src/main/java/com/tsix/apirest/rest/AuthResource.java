@@ -1,8 +1,8 @@
 package com.tsix.apirest.rest;
 
 import com.tsix.apirest.dto.req.CandidateAuthReq;
-import com.tsix.apirest.dto.res.CandidateQuestionResponse;
 import com.tsix.apirest.dto.res.LoginAndResponse;
+import com.tsix.apirest.service.CandidatePaperCache;
 import com.tsix.apirest.service.EnterpriseService;
 import com.tsix.apirest.service.RenderQuestions;
 import com.tsix.apirest.service.TestAuthService;
@@ -11,10 +11,11 @@ import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 
-import java.util.List;
 import java.util.Map;
 
 @Path("/auth")
@@ -60,11 +61,16 @@ public class AuthResource {
     @GET
     @Path("/test/{testId}/questions")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getQuestionsByTestId(@PathParam("testId") int testId) {
-        List<CandidateQuestionResponse> questions = renderQuestions.getAllQuestionsByTestId(testId);
+    public Response getQuestionsByTestId(@PathParam("testId") int testId, @Context Request request) {
+        CandidatePaperCache.Paper paper = renderQuestions.getCandidatePaper(testId);
+        EntityTag etag = new EntityTag(paper.etag());
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+        if (notModified != null) {
+            return notModified.build();
+        }
         return Response
-                .ok()
-                .entity(questions)
+                .ok(paper.json(), MediaType.APPLICATION_JSON)
+                .tag(etag)
                 .build();
     }
 
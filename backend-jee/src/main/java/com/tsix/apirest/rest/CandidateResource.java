@@ -1,6 +1,7 @@
 package com.tsix.apirest.rest;
 
 import com.tsix.apirest.dto.req.SubmitTestRequest;
+import com.tsix.apirest.dto.res.AnswerAutosaveResponse;
 import com.tsix.apirest.dto.res.SubmitTestResponse;
 import com.tsix.apirest.security.Secured;
 import com.tsix.apirest.security.TokenInfoExtractor;
@@ -21,6 +22,26 @@ public class CandidateResource {
     @Inject
     private CandidateTestService candidateTestService;
 
+    @PUT
+    @Path("/answers")
+    @Transactional
+    @Secured
+    public Response saveAnswers(@Context SecurityContext securityContext , SubmitTestRequest request) {
+        Long id = TokenInfoExtractor.getIdFromToken(securityContext);
+        try {
+            AnswerAutosaveResponse response = candidateTestService.autosave(id, request.getAnswers());
+            return Response
+                    .ok()
+                    .entity(response)
+                    .build();
+        } catch (Exception e) {
+            return Response
+                    .status(Response.Status.BAD_REQUEST)
+                    .entity("{\"error\": \"" + e.getMessage() + "\"}")
+                    .build();
+        }
+    }
+
     @POST
     @Path("/submit-test")
     @Transactional
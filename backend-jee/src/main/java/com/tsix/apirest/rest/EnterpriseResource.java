@@ -4,9 +4,11 @@ import com.tsix.apirest.entity.enterprise.Domain;
 import com.tsix.apirest.entity.enterprise.Enterprise;
 import com.tsix.apirest.repository.DomainRepo;
 import com.tsix.apirest.repository.EnterpriseRepo;
+import com.tsix.apirest.security.AdminOnly;
 import com.tsix.apirest.security.Secured;
 import com.tsix.apirest.security.TokenInfoExtractor;
 import com.tsix.apirest.service.EnterpriseService;
+import com.tsix.apirest.service.SecondLevelCacheStats;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.*;
@@ -26,6 +28,8 @@ public class EnterpriseResource {
     private EnterpriseService service ;
     @Inject
     private DomainRepo domainRepo ;
+    @Inject
+    private SecondLevelCacheStats secondLevelCacheStats ;
 
 
     @POST
@@ -91,4 +95,12 @@ public class EnterpriseResource {
                     .entity("Error getting domains: " + e.getMessage()).build() ;
         }
     }
+
+    @GET
+    @Path("/cache-stats")
+    @Secured
+    @AdminOnly
+    public Response cacheStats(){
+        return Response.ok(secondLevelCacheStats.regions()).build() ;
+    }
 }
@@ -2,7 +2,13 @@ package com.tsix.apirest.rest;
 
 import com.tsix.apirest.dto.req.OpenQuestionScoreRequest;
 import com.tsix.apirest.dto.res.OpenQuestionScoreResponse;
+import com.tsix.apirest.exceptions.userExceptions.UserException;
+import com.tsix.apirest.security.AdminOnly;
+import com.tsix.apirest.security.Secured;
+import com.tsix.apirest.service.GroqHttpClient;
+import com.tsix.apirest.service.GroqResilience;
 import com.tsix.apirest.service.GroqScoringService;
+import com.tsix.apirest.service.ScoreCache;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
@@ -15,6 +21,12 @@ public class ScoringResource {
     
     @Inject
     private GroqScoringService groqScoringService;
+    @Inject
+    private GroqHttpClient groqHttpClient;
+    @Inject
+    private ScoreCache scoreCache;
+    @Inject
+    private GroqResilience groqResilience;
     
     @POST
     @Path("/open-question")
@@ -22,6 +34,9 @@ public class ScoringResource {
         try {
             OpenQuestionScoreResponse result = groqScoringService.scoreOpenQuestion(request);
             return Response.ok(result).build();
+        } catch (UserException e) {
+            // ScoringUnavailableException: a 503 with its Retry-After, set by UserExceptionMapper
+            throw e;
         } catch (Exception e) {
             return Response
                     .status(Response.Status.INTERNAL_SERVER_ERROR)
@@ -41,4 +56,28 @@ public class ScoringResource {
                         "\"groqApiKey\": \"" + (isConfigured ? "set" : "not set") + "\"}")
                 .build();
     }
+
+    @GET
+    @Path("/client-stats")
+    @Secured
+    @AdminOnly
+    public Response clientStats() {
+        return Response.ok(groqHttpClient.stats()).build();
+    }
+
+    @GET
+    @Path("/cache-stats")
+    @Secured
+    @AdminOnly
+    public Response cacheStats() {
+        return Response.ok(scoreCache.stats()).build();
+    }
+
+    @GET
+    @Path("/resilience-stats")
+    @Secured
+    @AdminOnly
+    public Response resilienceStats() {
+        return Response.ok(groqResilience.stats()).build();
+    }
 }
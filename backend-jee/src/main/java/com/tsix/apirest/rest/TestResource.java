@@ -2,15 +2,21 @@ package com.tsix.apirest.rest;
 
 import com.tsix.apirest.dto.req.TestRequest;
 import com.tsix.apirest.dto.req.TestSessionReq;
+import com.tsix.apirest.dto.res.QuestionPageResponse;
 import com.tsix.apirest.dto.res.QuestionResponse;
 import com.tsix.apirest.dto.res.TestQuestionResponse;
 import com.tsix.apirest.dto.res.TestResponse;
 import com.tsix.apirest.entity.enterprise.Enterprise;
 import com.tsix.apirest.entity.test.Question;
 import com.tsix.apirest.repository.QuestionRepo;
+import com.tsix.apirest.security.AdminOnly;
 import com.tsix.apirest.security.Secured;
 import com.tsix.apirest.security.TokenInfoExtractor;
 import com.tsix.apirest.security.UserPrincipal;
+import com.tsix.apirest.service.AnswerWriteBuffer;
+import com.tsix.apirest.service.MailOutboxService;
+import com.tsix.apirest.service.SessionExportService;
+import com.tsix.apirest.service.TestStatsService;
 import com.tsix.apirest.service.TestService;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
@@ -19,8 +25,10 @@ import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.SecurityContext;
+import jakarta.ws.rs.core.StreamingOutput;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 @Path("/test")
@@ -29,6 +37,14 @@ public class TestResource {
     private QuestionRepo questionRepo;
     @Inject
     private TestService service ;
+    @Inject
+    private SessionExportService sessionExportService ;
+    @Inject
+    private MailOutboxService mailOutboxService ;
+    @Inject
+    private AnswerWriteBuffer answerWriteBuffer ;
+    @Inject
+    private TestStatsService testStatsService ;
 
     @POST
     @Consumes("application/json")
@@ -80,6 +96,24 @@ public class TestResource {
                 .build() ;
     }
 
+    @GET
+    @Path("/questions/page")
+    @Secured
+    @Produces(MediaType.APPLICATION_JSON)
+    @Transactional
+    public Response getQuestionBankPage(@Context SecurityContext securityContext,
+                                        @QueryParam("cursor") Integer cursor,
+                                        @QueryParam("limit") Integer limit,
+                                        @QueryParam("type") String type,
+                                        @QueryParam("labelPrefix") String labelPrefix){
+        UUID id = TokenInfoExtractor.getEnterpriseIdFromToken(securityContext) ;
+        QuestionPageResponse page = service.questionBankPage(id, cursor, type, labelPrefix, limit) ;
+        return Response
+                .ok()
+                .entity(page)
+                .build() ;
+    }
+
     @GET
     @Secured
     @Produces(MediaType.APPLICATION_JSON)
@@ -121,6 +155,29 @@ public class TestResource {
                 .build() ;
     }
 
+    @GET
+    @Path("/invitation/mail-stats")
+    @Secured
+    @AdminOnly
+    public Response invitationMailStats(@Context SecurityContext securityContext){
+        UUID enterpriseId = TokenInfoExtractor.getEnterpriseIdFromToken(securityContext) ;
+        return Response
+                .ok()
+                .entity(mailOutboxService.stats(enterpriseId))
+                .build() ;
+    }
+
+    @GET
+    @Path("/answers/autosave-stats")
+    @Secured
+    @AdminOnly
+    public Response autosaveStats(){
+        return Response
+                .ok()
+                .entity(answerWriteBuffer.stats())
+                .build() ;
+    }
+
     @GET
     @Path("/{testId}/sessions")
     @Secured
@@ -134,4 +191,37 @@ public class TestResource {
                 .entity(sessions)
                 .build();
     }
+
+    @GET
+    @Path("/{testId}/statistics")
+    @Secured
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getTestStatistics(@PathParam("testId") int testId,
+                                      @Context SecurityContext securityContext) {
+        UUID enterpriseId = TokenInfoExtractor.getEnterpriseIdFromToken(securityContext);
+        return Response
+                .ok()
+                .entity(testStatsService.statistics(testId, enterpriseId))
+                .build();
+    }
+
+    @GET
+    @Path("/{testId}/sessions/export")
+    @Secured
+    @Produces({"application/x-ndjson", "text/csv"})
+    public Response exportTestSessions(@PathParam("testId") int testId,
+                                       @QueryParam("format") String format,
+                                       @QueryParam("answers") @DefaultValue("false") boolean includeAnswers,
+                                       @Context SecurityContext securityContext) {
+        UUID enterpriseId = TokenInfoExtractor.getEnterpriseIdFromToken(securityContext);
+        SessionExportService.Format exportFormat = SessionExportService.Format.from(format);
+        sessionExportService.checkAccess(testId, enterpriseId);
+        // Written after this method returns, within the export service's own transaction
+        StreamingOutput body = output -> sessionExportService.export(testId, exportFormat, includeAnswers, output);
+        return Response
+                .ok(body, exportFormat.mediaType() + ";charset=UTF-8")
+                .header("Content-Disposition", "attachment; filename=\"test-" + testId + "-sessions."
+                        + exportFormat.name().toLowerCase(Locale.ROOT) + "\"")
+                .build();
+    }
 }
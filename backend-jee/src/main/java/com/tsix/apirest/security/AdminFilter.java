@@ -0,0 +1,36 @@
+package com.tsix.apirest.security;
+
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+import java.security.Principal;
+
+/**
+ * Runs after {@link JwtFilter} and lets through only principals that belong to an enterprise.
+ */
+@AdminOnly
+@Provider
+@Priority(Priorities.AUTHORIZATION)
+public class AdminFilter implements ContainerRequestFilter {
+
+    @Override
+    public void filter(ContainerRequestContext containerRequestContext) throws IOException {
+        if (!isAdmin(containerRequestContext.getSecurityContext().getUserPrincipal())) {
+            containerRequestContext.abortWith(
+                    Response
+                            .status(Response.Status.FORBIDDEN)
+                            .entity("Access denied")
+                            .build()
+            );
+        }
+    }
+
+    public static boolean isAdmin(Principal principal) {
+        return principal instanceof UserPrincipal userPrincipal && userPrincipal.getEnterpriseId() != null;
+    }
+}
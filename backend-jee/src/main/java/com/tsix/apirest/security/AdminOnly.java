@@ -0,0 +1,18 @@
+package com.tsix.apirest.security;
+
+import jakarta.ws.rs.NameBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Restricts a {@link Secured} endpoint to enterprise admins: candidate tokens, which carry no
+ * enterprise, are refused.
+ */
+@NameBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE , ElementType.METHOD})
+public @interface AdminOnly {
+}
@@ -27,37 +27,35 @@ public class JwtFilter implements ContainerRequestFilter {
     public void filter(ContainerRequestContext containerRequestContext) throws IOException {
         String jwt = extractToken(containerRequestContext) ;
 
-        if (jwt == null || !jwtUtils.isValid(jwt)) {
+        // Verifies the signature and reads the claims in one pass, cached per token
+        UserPrincipal userPrincipal = jwt == null ? null : jwtUtils.verify(jwt);
+        if (userPrincipal == null) {
             abort(containerRequestContext);
             return;
         }
 
+        final SecurityContext currentSecurityContext = containerRequestContext.getSecurityContext();
+        containerRequestContext.setSecurityContext(new SecurityContext() {
+            @Override
+            public Principal getUserPrincipal() {
+                return userPrincipal;
+            }
 
-        UserPrincipal userPrincipal = jwtUtils.extractUserData(jwt);
-        if (userPrincipal != null) {
-            final SecurityContext currentSecurityContext = containerRequestContext.getSecurityContext();
-            containerRequestContext.setSecurityContext(new SecurityContext() {
-                @Override
-                public Principal getUserPrincipal() {
-                    return userPrincipal;
-                }
+            @Override
+            public boolean isUserInRole(String role) {
+                return true;
+            }
 
-                @Override
-                public boolean isUserInRole(String role) {
-                    return true;
-                }
+            @Override
+            public boolean isSecure() {
+                return currentSecurityContext.isSecure();
+            }
 
-                @Override
-                public boolean isSecure() {
-                    return currentSecurityContext.isSecure();
-                }
-
-                @Override
-                public String getAuthenticationScheme() {
-                    return "Bearer";
-                }
-            });
-        }
+            @Override
+            public String getAuthenticationScheme() {
+                return "Bearer";
+            }
+        });
     }
 
     private String extractToken(ContainerRequestContext ctx){
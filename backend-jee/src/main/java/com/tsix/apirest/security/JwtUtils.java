@@ -1,6 +1,5 @@
 package com.tsix.apirest.security;
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.JwtException;
+import com.tsix.apirest.utils.EnvConfig;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -8,6 +7,7 @@ import jakarta.enterprise.context.ApplicationScoped;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.time.Duration;
 import java.util.Date;
 import java.util.UUID;
 
@@ -16,6 +16,9 @@ public class JwtUtils {
     private  static final String SECRET = System.getenv("SECRET");
     private static final long EXPIRATION_TIME = 864_000_000;
     private final static Key key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+    private static final JwtVerifier verifier = new JwtVerifier((SecretKey) key,
+            EnvConfig.intValue("JWT_CACHE_SIZE", 10_000),
+            Duration.ofSeconds(EnvConfig.longValue("JWT_CACHE_TTL_SECONDS", 300)));
     public static String generateToken(Long id , UUID idEnterprise) {
         return Jwts.builder()
                 .subject(id.toString())
@@ -26,17 +29,17 @@ public class JwtUtils {
                 .compact() ;
     }
 
-    public boolean isValid(String token) {
-        try {
-            Jwts.parser()
-                    .verifyWith((SecretKey) key)
-                    .build()
-                    .parseSignedClaims(token) ;
+    /**
+     * Verifies the token and extracts its user data in a single pass
+     * @param token JWT token string
+     * @return UserPrincipal containing userId and enterpriseId, or null if token is invalid
+     */
+    public UserPrincipal verify(String token) {
+        return verifier.verify(token);
+    }
 
-            return true ;
-        } catch (JwtException e) {
-            return false ;
-        }
+    public boolean isValid(String token) {
+        return verify(token) != null;
     }
 
     /**
@@ -45,28 +48,7 @@ public class JwtUtils {
      * @return UserPrincipal containing userId and enterpriseId, or null if token is invalid
      */
     public UserPrincipal extractUserData(String token) {
-        try {
-            Claims claims = Jwts.parser()
-                    .verifyWith((SecretKey) key)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-
-            Long userId = Long.parseLong(claims.getSubject());
-
-            String enterpriseIdStr = claims.get("enterprise", String.class);
-            UUID enterpriseId = null;
-
-            if (enterpriseIdStr != null && !"null".equals(enterpriseIdStr)) {
-                try {
-                    enterpriseId = UUID.fromString(enterpriseIdStr);
-                } catch (NumberFormatException e) {}
-            }
-
-            return new UserPrincipal(userId, enterpriseId);
-        } catch (JwtException | NumberFormatException e) {
-            return null;
-        }
+        return verify(token);
     }
 
     public Long getUserId(String token) {
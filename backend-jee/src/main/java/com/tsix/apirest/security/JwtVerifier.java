@@ -0,0 +1,110 @@
+package com.tsix.apirest.security;
+
+import com.tsix.apirest.utils.LruTtlCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Verifies a token once and returns its principal, using a single thread-safe parser.
+ * Verified tokens are cached by SHA-256 digest (the raw token is never kept) for at most
+ * {@code maxTtl}, and never past the token's own expiration. Invalid tokens are not cached.
+ */
+public class JwtVerifier {
+    private final JwtParser parser;
+    private final LruTtlCache<String, UserPrincipal> verified;
+    private final long maxTtlMillis;
+    private final LongSupplier wallClock;
+
+    public JwtVerifier(SecretKey key, int cacheSize, Duration maxTtl) {
+        this(key, cacheSize, maxTtl, System::currentTimeMillis, System::nanoTime);
+    }
+
+    public JwtVerifier(SecretKey key, int cacheSize, Duration maxTtl, LongSupplier wallClock, LongSupplier nanoClock) {
+        this.parser = Jwts.parser()
+                .verifyWith(key)
+                .clock(() -> new Date(wallClock.getAsLong()))
+                .build();
+        this.verified = new LruTtlCache<>(cacheSize, maxTtl.toNanos(), TimeUnit.NANOSECONDS, nanoClock);
+        this.maxTtlMillis = maxTtl.toMillis();
+        this.wallClock = wallClock;
+    }
+
+    /**
+     * Returns the principal of a valid token, or null when the token is invalid or expired.
+     */
+    public UserPrincipal verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        String digest = digest(token);
+        UserPrincipal cached = verified.get(digest);
+        if (cached != null) {
+            return cached;
+        }
+        Claims claims;
+        try {
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        UserPrincipal principal = toPrincipal(claims);
+        if (principal == null) {
+            return null;
+        }
+        long ttlMillis = maxTtlMillis;
+        if (claims.getExpiration() != null) {
+            ttlMillis = Math.min(ttlMillis, claims.getExpiration().getTime() - wallClock.getAsLong());
+        }
+        if (ttlMillis > 0) {
+            verified.put(digest, principal, ttlMillis, TimeUnit.MILLISECONDS);
+        }
+        return principal;
+    }
+
+    public long hits() {
+        return verified.hits();
+    }
+
+    public long misses() {
+        return verified.misses();
+    }
+
+    private static UserPrincipal toPrincipal(Claims claims) {
+        Long userId;
+        try {
+            userId = Long.parseLong(claims.getSubject());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        String enterpriseIdStr = claims.get("enterprise", String.class);
+        UUID enterpriseId = null;
+        if (enterpriseIdStr != null && !"null".equals(enterpriseIdStr)) {
+            try {
+                enterpriseId = UUID.fromString(enterpriseIdStr);
+            } catch (IllegalArgumentException e) {}
+        }
+        return new UserPrincipal(userId, enterpriseId);
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
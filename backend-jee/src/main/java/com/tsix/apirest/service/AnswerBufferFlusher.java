@@ -0,0 +1,91 @@
+package com.tsix.apirest.service;
+
+import com.tsix.apirest.service.AnswerWriteBuffer.Pending;
+import com.tsix.apirest.utils.EnvConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.Timeout;
+import jakarta.ejb.TimerConfig;
+import jakarta.ejb.TimerService;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.inject.Inject;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Writes the autosaved answers of the {@link AnswerWriteBuffer} every
+ * {@code ANSWER_BUFFER_FLUSH_MS} milliseconds, {@code ANSWER_BUFFER_FLUSH_ROWS} rows per
+ * transaction, and once more when the server shuts down.
+ * An interval timer is used instead of {@code @Schedule}, whose resolution is one second.
+ */
+@Startup
+@Singleton
+public class AnswerBufferFlusher {
+    private static final long FLUSH_MILLIS = EnvConfig.longValue("ANSWER_BUFFER_FLUSH_MS", 500);
+    private static final int FLUSH_ROWS = EnvConfig.intValue("ANSWER_BUFFER_FLUSH_ROWS", 1000);
+
+    @Resource
+    private TimerService timerService;
+    @Inject
+    private AnswerWriteBuffer answerWriteBuffer;
+    @Inject
+    private CandidateTestService candidateTestService;
+
+    private final AtomicBoolean flushing = new AtomicBoolean(false);
+
+    @PostConstruct
+    public void start() {
+        timerService.createIntervalTimer(FLUSH_MILLIS, FLUSH_MILLIS, new TimerConfig(null, false));
+    }
+
+    @Timeout
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void flush() {
+        if (!flushing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            flushAll();
+        } finally {
+            flushing.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        // Waits for a running flush, then writes whatever is still buffered
+        while (!flushing.compareAndSet(false, true)) {
+            Thread.onSpinWait();
+        }
+        try {
+            int buffered = answerWriteBuffer.size();
+            flushAll();
+            System.out.println("Answer buffer flushed on shutdown: " + buffered + " answer(s)");
+        } finally {
+            flushing.set(false);
+        }
+    }
+
+    private void flushAll() {
+        while (answerWriteBuffer.size() > 0) {
+            Map<Long, List<Pending>> drained = answerWriteBuffer.drain(FLUSH_ROWS);
+            if (drained.isEmpty()) {
+                return;
+            }
+            try {
+                int written = candidateTestService.writeBuffered(drained);
+                answerWriteBuffer.recordFlush(drained, written);
+            } catch (Exception e) {
+                answerWriteBuffer.requeue(drained);
+                System.err.println("Error flushing autosaved answers: " + e.getMessage());
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.tsix.apirest.service;
+
+import com.tsix.apirest.entity.test.Answer;
+import com.tsix.apirest.entity.test.OpenAnswer;
+import com.tsix.apirest.entity.test.Question;
+import com.tsix.apirest.entity.test.Test;
+import com.tsix.apirest.entity.test.TestQuestions;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable grading key of a test: for each choice, its question and whether it is correct;
+ * for each question, its points, correct choice label and expected open answer.
+ * Ids are kept in sorted int arrays searched by bisection, with the values in parallel
+ * arrays, so grading a submission reads primitives only and loads no entity.
+ */
+public final class AnswerKey {
+    private final int testId;
+
+    private final int[] questionIds;
+    private final double[] points;
+    private final String[] correctLabels;
+    private final String[] expectedAnswers;
+
+    private final int[] answerIds;
+    // Index in questionIds of the question of each choice
+    private final int[] answerQuestions;
+    private final boolean[] answerCorrect;
+
+    private AnswerKey(int testId, int[] questionIds, double[] points, String[] correctLabels, String[] expectedAnswers,
+                      int[] answerIds, int[] answerQuestions, boolean[] answerCorrect) {
+        this.testId = testId;
+        this.questionIds = questionIds;
+        this.points = points;
+        this.correctLabels = correctLabels;
+        this.expectedAnswers = expectedAnswers;
+        this.answerIds = answerIds;
+        this.answerQuestions = answerQuestions;
+        this.answerCorrect = answerCorrect;
+    }
+
+    /**
+     * Builds the key of a test loaded with {@link Test#PAPER_GRAPH}.
+     */
+    public static AnswerKey of(Test test) {
+        List<Question> questions = test.getTestQuestions().stream()
+                .map(TestQuestions::getQuestion)
+                .distinct()
+                .sorted(Comparator.comparingInt(Question::getId))
+                .toList();
+        int[] questionIds = new int[questions.size()];
+        double[] points = new double[questions.size()];
+        String[] correctLabels = new String[questions.size()];
+        String[] expectedAnswers = new String[questions.size()];
+        int answerCount = 0;
+        for (int i = 0; i < questions.size(); i++) {
+            Question question = questions.get(i);
+            questionIds[i] = question.getId();
+            points[i] = question.getPoints();
+            OpenAnswer openAnswer = question.getOpenAnswers();
+            expectedAnswers[i] = openAnswer != null ? openAnswer.getExpectedAnswer() : null;
+            if (question.getAnswers() != null) {
+                answerCount += question.getAnswers().size();
+            }
+        }
+
+        // Choices in question order first, then sorted by id through (id, position) pairs
+        int[] ids = new int[answerCount];
+        int[] owners = new int[answerCount];
+        boolean[] correct = new boolean[answerCount];
+        long[] byId = new long[answerCount];
+        int n = 0;
+        for (int i = 0; i < questions.size(); i++) {
+            if (questions.get(i).getAnswers() == null) {
+                continue;
+            }
+            for (Answer answer : questions.get(i).getAnswers()) {
+                ids[n] = answer.getId();
+                owners[n] = i;
+                correct[n] = answer.isCorrect();
+                if (answer.isCorrect() && correctLabels[i] == null) {
+                    correctLabels[i] = answer.getLabel();
+                }
+                byId[n] = ((long) answer.getId() << 32) | n;
+                n++;
+            }
+        }
+        Arrays.sort(byId);
+        int[] answerIds = new int[answerCount];
+        int[] answerQuestions = new int[answerCount];
+        boolean[] answerCorrect = new boolean[answerCount];
+        for (int i = 0; i < answerCount; i++) {
+            int position = (int) byId[i];
+            answerIds[i] = ids[position];
+            answerQuestions[i] = owners[position];
+            answerCorrect[i] = correct[position];
+        }
+        return new AnswerKey(test.getId(), questionIds, points, correctLabels, expectedAnswers,
+                answerIds, answerQuestions, answerCorrect);
+    }
+
+    public int testId() {
+        return testId;
+    }
+
+    public int questionCount() {
+        return questionIds.length;
+    }
+
+    public boolean hasQuestion(int questionId) {
+        return Arrays.binarySearch(questionIds, questionId) >= 0;
+    }
+
+    /**
+     * Points of the question, 0 when it is not part of the test.
+     */
+    public double points(int questionId) {
+        int i = Arrays.binarySearch(questionIds, questionId);
+        return i >= 0 ? points[i] : 0.0;
+    }
+
+    /**
+     * Whether the choice is a correct answer of the given question; false for a choice
+     * of another question or unknown to the test.
+     */
+    public boolean isCorrect(int questionId, int answerId) {
+        int i = Arrays.binarySearch(answerIds, answerId);
+        return i >= 0 && answerCorrect[i] && questionIds[answerQuestions[i]] == questionId;
+    }
+
+    /**
+     * Label of the first correct choice of the question, or null when it has none.
+     */
+    public String correctLabel(int questionId) {
+        int i = Arrays.binarySearch(questionIds, questionId);
+        return i >= 0 ? correctLabels[i] : null;
+    }
+
+    /**
+     * Model answer of an open question, or null when it has none.
+     */
+    public String expectedAnswer(int questionId) {
+        int i = Arrays.binarySearch(questionIds, questionId);
+        return i >= 0 ? expectedAnswers[i] : null;
+    }
+}
@@ -0,0 +1,32 @@
+package com.tsix.apirest.service;
+
+import com.tsix.apirest.utils.EnvConfig;
+import com.tsix.apirest.utils.SingleFlightCache;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Grading key of each test, built once and shared by every submission of the test.
+ * Concurrent misses for the same test wait for a single load, so a burst of submissions
+ * right after a deployment or an edit loads the test once. Invalidated with the candidate
+ * paper when a test is saved; keys of tests no longer taken are evicted after
+ * {@code ANSWER_KEY_CACHE_TTL_MINUTES} or when {@code ANSWER_KEY_CACHE_MAX_ENTRIES} is reached.
+ */
+@ApplicationScoped
+public class AnswerKeyCache {
+    private static final int MAX_ENTRIES = EnvConfig.intValue("ANSWER_KEY_CACHE_MAX_ENTRIES", 1_000);
+    private static final long TTL_MINUTES = EnvConfig.longValue("ANSWER_KEY_CACHE_TTL_MINUTES", 60);
+
+    private final SingleFlightCache<Integer, AnswerKey> keys =
+            new SingleFlightCache<>(MAX_ENTRIES, TTL_MINUTES, TimeUnit.MINUTES);
+
+    public AnswerKey get(int testId, IntFunction<AnswerKey> loader) {
+        return keys.get(testId, loader::apply);
+    }
+
+    public void invalidate(int testId) {
+        keys.invalidate(testId);
+    }
+}
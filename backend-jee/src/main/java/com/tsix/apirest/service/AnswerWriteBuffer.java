@@ -0,0 +1,213 @@
+package com.tsix.apirest.service;
+
+import com.tsix.apirest.dto.req.SubmitAnswerRequest;
+import com.tsix.apirest.dto.res.AnswerBufferStatsResponse;
+import com.tsix.apirest.utils.EnvConfig;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory write-behind buffer of autosaved answers, grouped by session.
+ * Only the latest answer of each (session, question) is kept until the next flush, so a
+ * candidate typing an open answer costs one row write per flush instead of one per save.
+ * The buffer holds at most {@code maxEntries} answers; when it is full, new answers are
+ * refused and the caller writes them directly.
+ * The buffer lives in the memory of one server: with several nodes, the autosaves and the
+ * submit of a session must reach the same node (sticky sessions), otherwise the submit does
+ * not see the answers buffered elsewhere until their next flush.
+ */
+@ApplicationScoped
+public class AnswerWriteBuffer {
+
+    /**
+     * A buffered answer with the time its question was first buffered since the last flush.
+     */
+    public record Pending(SubmitAnswerRequest answer, long queuedAtNanos) {}
+
+    private final int maxEntries;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<Long, Map<Integer, Pending>> sessions = new ConcurrentHashMap<>();
+    // Answers taken by a flush that has not finished yet
+    private final ConcurrentHashMap<Long, List<Pending>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final AtomicLong offered = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedRows = new AtomicLong();
+    private final AtomicLong discardedRows = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private final AtomicLong lastFlushLagNanos = new AtomicLong();
+    private final AtomicLong maxFlushLagNanos = new AtomicLong();
+
+    public AnswerWriteBuffer() {
+        this(EnvConfig.intValue("ANSWER_BUFFER_MAX_ENTRIES", 50_000), System::nanoTime);
+    }
+
+    public AnswerWriteBuffer(int maxEntries, LongSupplier nanoClock) {
+        this.maxEntries = maxEntries;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Buffers the answer, replacing the one already buffered for the same question.
+     * Returns false when the buffer is full and the answer is for a new question.
+     */
+    public boolean offer(Long testSessionId, SubmitAnswerRequest answer) {
+        offered.incrementAndGet();
+        boolean[] accepted = {true};
+        sessions.compute(testSessionId, (id, answers) -> {
+            Map<Integer, Pending> buffered = answers != null ? answers : new HashMap<>();
+            Pending previous = buffered.get(answer.getQuestionId());
+            if (previous != null) {
+                buffered.put(answer.getQuestionId(), new Pending(answer, previous.queuedAtNanos()));
+                coalesced.incrementAndGet();
+            } else if (size.incrementAndGet() <= maxEntries) {
+                buffered.put(answer.getQuestionId(), new Pending(answer, nanoClock.getAsLong()));
+            } else {
+                size.decrementAndGet();
+                rejected.incrementAndGet();
+                accepted[0] = false;
+            }
+            return buffered.isEmpty() ? null : buffered;
+        });
+        return accepted[0];
+    }
+
+    /**
+     * Returns the answers buffered for the session when it is submitted, oldest first, and
+     * leaves them in the buffer until {@link #discard} is called once the submission is
+     * committed. Answers of a flush still running are included as well: the flush may reach
+     * the database only after the session is sealed, and would then write nothing.
+     */
+    public List<Pending> peek(Long testSessionId) {
+        List<Pending> answers = new ArrayList<>();
+        // Under the session's bin lock, where a flush moves answers to inFlight
+        sessions.compute(testSessionId, (id, buffered) -> {
+            answers.addAll(inFlight.getOrDefault(id, List.of()));
+            if (buffered != null) {
+                answers.addAll(buffered.values());
+            }
+            return buffered;
+        });
+        return answers;
+    }
+
+    /**
+     * Drops the answers still buffered for a session whose submission has been committed.
+     * A flush still running for it writes nothing, the session being sealed.
+     */
+    public void discard(Long testSessionId) {
+        sessions.computeIfPresent(testSessionId, (id, buffered) -> {
+            size.addAndGet(-buffered.size());
+            return null;
+        });
+    }
+
+    /**
+     * Removes whole sessions until about {@code maxRows} answers are taken for a flush, which
+     * must end with {@link #recordFlush} or {@link #requeue}.
+     */
+    public Map<Long, List<Pending>> drain(int maxRows) {
+        Map<Long, List<Pending>> drained = new LinkedHashMap<>();
+        int rows = 0;
+        Iterator<Long> ids = sessions.keySet().iterator();
+        while (rows < maxRows && ids.hasNext()) {
+            Long id = ids.next();
+            List<Pending> answers = new ArrayList<>();
+            // Moved to inFlight in the same step, so a submit always finds them in one or the other
+            sessions.computeIfPresent(id, (key, buffered) -> {
+                size.addAndGet(-buffered.size());
+                answers.addAll(buffered.values());
+                inFlight.put(key, answers);
+                return null;
+            });
+            if (!answers.isEmpty()) {
+                drained.put(id, answers);
+                rows += answers.size();
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Puts back answers whose flush failed, unless a newer answer was buffered meanwhile.
+     * The bound is not applied here: a failed flush must not lose answers.
+     */
+    public void requeue(Map<Long, List<Pending>> answersBySession) {
+        failedFlushes.incrementAndGet();
+        answersBySession.forEach((testSessionId, answers) -> {
+            sessions.compute(testSessionId, (id, buffered) -> {
+                Map<Integer, Pending> merged = buffered != null ? buffered : new HashMap<>();
+                for (Pending pending : answers) {
+                    if (merged.putIfAbsent(pending.answer().getQuestionId(), pending) == null) {
+                        size.incrementAndGet();
+                    }
+                }
+                inFlight.remove(id, answers);
+                return merged;
+            });
+        });
+    }
+
+    /**
+     * Records a flush of {@code drained} answers of which {@code written} reached the
+     * database; the others belonged to sessions closed in the meantime.
+     */
+    public void recordFlush(Map<Long, List<Pending>> drained, int written) {
+        drained.forEach(inFlight::remove);
+        long now = nanoClock.getAsLong();
+        long lag = 0;
+        int rows = 0;
+        for (List<Pending> answers : drained.values()) {
+            rows += answers.size();
+            for (Pending pending : answers) {
+                lag = Math.max(lag, now - pending.queuedAtNanos());
+            }
+        }
+        flushes.incrementAndGet();
+        flushedRows.addAndGet(written);
+        discardedRows.addAndGet(Math.max(0, rows - written));
+        lastFlushLagNanos.set(lag);
+        maxFlushLagNanos.accumulateAndGet(lag, Math::max);
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public AnswerBufferStatsResponse stats() {
+        long now = nanoClock.getAsLong();
+        long oldest = 0;
+        for (Map.Entry<Long, Map<Integer, Pending>> entry : sessions.entrySet()) {
+            // Read under the session's bin lock, the inner map is not thread-safe
+            long[] age = {0};
+            sessions.computeIfPresent(entry.getKey(), (id, answers) -> {
+                for (Pending pending : answers.values()) {
+                    age[0] = Math.max(age[0], now - pending.queuedAtNanos());
+                }
+                return answers;
+            });
+            oldest = Math.max(oldest, age[0]);
+        }
+        return new AnswerBufferStatsResponse(
+                size.get(), maxEntries, sessions.size(),
+                offered.get(), coalesced.get(), rejected.get(),
+                flushes.get(), flushedRows.get(), discardedRows.get(), failedFlushes.get(),
+                TimeUnit.NANOSECONDS.toMillis(oldest),
+                TimeUnit.NANOSECONDS.toMillis(lastFlushLagNanos.get()),
+                TimeUnit.NANOSECONDS.toMillis(maxFlushLagNanos.get()));
+    }
+}
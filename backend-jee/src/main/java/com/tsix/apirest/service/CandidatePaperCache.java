@@ -0,0 +1,89 @@
+package com.tsix.apirest.service;
+
+import com.tsix.apirest.dto.res.CandidateAnswerResponse;
+import com.tsix.apirest.dto.res.CandidateQuestionResponse;
+import com.tsix.apirest.utils.EnvConfig;
+import com.tsix.apirest.utils.SingleFlightCache;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.json.Json;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonGeneratorFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Rendered candidate paper of each test, kept as ready-to-send JSON bytes since it is the
+ * same for every candidate of the test. Concurrent misses for the same test wait for a
+ * single load. Every load gets a new version, used as the ETag of the paper; a load that
+ * raced with an invalidation is served but not kept. Papers of tests no longer taken are
+ * evicted after {@code CANDIDATE_PAPER_CACHE_TTL_MINUTES} or once
+ * {@code CANDIDATE_PAPER_CACHE_MAX_ENTRIES} is reached.
+ */
+@ApplicationScoped
+public class CandidatePaperCache {
+    private static final int MAX_ENTRIES = EnvConfig.intValue("CANDIDATE_PAPER_CACHE_MAX_ENTRIES", 1_000);
+    private static final long TTL_MINUTES = EnvConfig.longValue("CANDIDATE_PAPER_CACHE_TTL_MINUTES", 60);
+
+    public record Paper(int testId, long version, byte[] json) {
+        public String etag() {
+            return testId + "-" + version;
+        }
+    }
+
+    private final SingleFlightCache<Integer, Paper> papers =
+            new SingleFlightCache<>(MAX_ENTRIES, TTL_MINUTES, TimeUnit.MINUTES);
+    private final AtomicLong versions = new AtomicLong();
+
+    public Paper get(int testId, IntFunction<List<CandidateQuestionResponse>> loader) {
+        return papers.get(testId, id -> new Paper(id, versions.incrementAndGet(), toJson(loader.apply(id))));
+    }
+
+    public void invalidate(int testId) {
+        papers.invalidate(testId);
+    }
+
+    // Same shape as the JSON-B serialization of CandidateQuestionResponse: sorted keys, nulls omitted
+    private static byte[] toJson(List<CandidateQuestionResponse> questions) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256 * Math.max(1, questions.size()));
+        try (JsonGenerator generator = GeneratorFactoryHolder.INSTANCE.createGenerator(out)) {
+            generator.writeStartArray();
+            for (CandidateQuestionResponse question : questions) {
+                generator.writeStartObject();
+                if (question.getAnswers() != null) {
+                    generator.writeStartArray("answers");
+                    question.getAnswers().stream()
+                            .sorted(Comparator.comparingInt(CandidateAnswerResponse::getId))
+                            .forEach(answer -> {
+                                generator.writeStartObject().write("id", answer.getId());
+                                writeIfPresent(generator, "label", answer.getLabel());
+                                generator.writeEnd();
+                            });
+                    generator.writeEnd();
+                }
+                writeIfPresent(generator, "hint", question.getHint());
+                generator.write("id", question.getId());
+                writeIfPresent(generator, "label", question.getLabel());
+                generator.write("points", question.getPoints());
+                writeIfPresent(generator, "questionType", question.getQuestionType());
+                generator.writeEnd();
+            }
+            generator.writeEnd();
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeIfPresent(JsonGenerator generator, String name, String value) {
+        if (value != null) {
+            generator.write(name, value);
+        }
+    }
+
+    private static final class GeneratorFactoryHolder {
+        static final JsonGeneratorFactory INSTANCE = Json.createGeneratorFactory(null);
+    }
+}
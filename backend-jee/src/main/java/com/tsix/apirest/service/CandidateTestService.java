@@ -1,139 +1,154 @@
 package com.tsix.apirest.service;
 
-import com.tsix.apirest.dto.req.OpenQuestionScoreRequest;
 import com.tsix.apirest.dto.req.SubmitAnswerRequest;
 import com.tsix.apirest.dto.req.SubmitTestRequest;
+import com.tsix.apirest.dto.res.AnswerAutosaveResponse;
 import com.tsix.apirest.dto.res.DetailedTestResultResponse;
-import com.tsix.apirest.dto.res.OpenQuestionScoreResponse;
 import com.tsix.apirest.dto.res.QuestionResultResponse;
 import com.tsix.apirest.dto.res.SubmitTestResponse;
 import com.tsix.apirest.entity.TestSessionStatus;
 import com.tsix.apirest.entity.test.*;
 import com.tsix.apirest.exceptions.userExceptions.BadRequestException;
 import com.tsix.apirest.repository.*;
+import jakarta.annotation.Resource;
 import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
 import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 @Stateless
 public class CandidateTestService {
     @Inject
     private TestSessionRepo testSessionRepo;
     @Inject
-    private QuestionRepo questionRepo;
+    private CandidateAnswerRepo candidateAnswerRepo;
+
     @Inject
-    private AnswerRepo answerRepo;
+    private ScoringQueueService scoringQueueService;
+
     @Inject
-    private CandidateAnswerRepo candidateAnswerRepo;
+    private AnswerWriteBuffer answerWriteBuffer;
 
     @Inject
-    private GroqScoringService groqScoringService;
+    private TestStatsService testStatsService;
 
-    public SubmitTestResponse submitTest(SubmitTestRequest request) {
-        Optional<TestSession> sessionOpt = testSessionRepo.findById(TestSession.class, request.getTestSessionId());
-        if (sessionOpt.isEmpty()) {
-            throw new BadRequestException("Test session not found");
+    @Inject
+    private TestRepo testRepo;
+
+    @Inject
+    private AnswerKeyCache answerKeyCache;
+
+    @Resource
+    private TransactionSynchronizationRegistry transactionRegistry;
+
+    /**
+     * Stores answers while the test is running; they are graded when the test is submitted.
+     * Answers go through the write-behind buffer and reach the database within a flush
+     * interval, or right away when the buffer is full.
+     */
+    public AnswerAutosaveResponse autosave(Long testSessionId, List<SubmitAnswerRequest> answers) {
+        TestSession session = testSessionRepo.findById(TestSession.class, testSessionId)
+                .orElseThrow(() -> new BadRequestException("Test session not found"));
+        checkOpen(session);
+        if (answers == null || answers.isEmpty()) {
+            return new AnswerAutosaveResponse(List.of(), LocalDateTime.now());
         }
-        TestSession session = sessionOpt.get();
-        if (session.getDateExpiration() != null && LocalDateTime.now().isAfter(session.getDateExpiration())) {
-            throw new BadRequestException("Test session has expired");
+        Set<Integer> saved = new LinkedHashSet<>();
+        List<SubmitAnswerRequest> overflow = new ArrayList<>();
+        for (SubmitAnswerRequest answer : answers) {
+            if (answerWriteBuffer.offer(testSessionId, answer)) {
+                saved.add(answer.getQuestionId());
+            } else {
+                overflow.add(answer);
+            }
         }
-        if (session.getStatus() == TestSessionStatus.FINISHED) {
-            throw new BadRequestException("Test has already been submitted");
+        if (!overflow.isEmpty()) {
+            saved.addAll(candidateAnswerRepo.upsertDrafts(testSessionId, overflow));
         }
-        double totalScore = 0.0;
-        int answeredQuestions = 0;
-        for (SubmitAnswerRequest answerRequest : request.getAnswers()) {
-            if (candidateAnswerRepo.existsByTestSessionAndQuestion(
-                    request.getTestSessionId(), answerRequest.getQuestionId())) {
-                continue;
-            }
-            Optional<Question> questionOpt = questionRepo.findById(Question.class, answerRequest.getQuestionId());
-            if (questionOpt.isEmpty()) {
-                continue;
-            }
-            Question question = questionOpt.get();
-            CandidateAnswer candidateAnswer = new CandidateAnswer();
-            candidateAnswer.setTestSession(session);
-            candidateAnswer.setQuestion(question);
-            candidateAnswer.setSubmittedAt(LocalDateTime.now());
-            double pointsEarned = 0.0;
-            Boolean isCorrect = false;
-            if (answerRequest.getSelectedAnswerId() != null) {
-                Optional<Answer> selectedAnswerOpt = answerRepo.findById(Answer.class, answerRequest.getSelectedAnswerId());
-                if (selectedAnswerOpt.isPresent()) {
-                    Answer selectedAnswer = selectedAnswerOpt.get();
-                    candidateAnswer.setSelectedAnswer(selectedAnswer);
-                    isCorrect = selectedAnswer.isCorrect();
-                    if (isCorrect) {
-                        pointsEarned = question.getPoints();
-                    }
-                }
-            } else if (answerRequest.getOpenAnswerText() != null && !answerRequest.getOpenAnswerText().trim().isEmpty()) {
-                candidateAnswer.setOpenAnswerText(answerRequest.getOpenAnswerText());
+        return new AnswerAutosaveResponse(new ArrayList<>(saved), LocalDateTime.now());
+    }
 
-                // Use Groq AI to score open questions
-                OpenAnswer openAnswer = question.getOpenAnswers();
-                if (openAnswer != null && openAnswer.getExpectedAnswer() != null) {
-                    try {
-                        OpenQuestionScoreRequest scoreRequest = new OpenQuestionScoreRequest(
-                            question.getId(),
-                            answerRequest.getOpenAnswerText(),
-                            openAnswer.getExpectedAnswer(),
-                            (int) question.getPoints()
-                        );
-
-                        OpenQuestionScoreResponse scoreResponse = groqScoringService.scoreOpenQuestion(scoreRequest);
-
-                        // Calculate points earned based on Groq score
-                        pointsEarned = scoreResponse.getScore();
-
-                        // Determine if answer is correct (>= 60% of max points)
-                        isCorrect = pointsEarned >= (question.getPoints() * 0.6);
-
-                    } catch (Exception e) {
-                        // If Groq scoring fails, mark for manual review
-                        System.err.println("Error scoring open question with Groq: " + e.getMessage());
-                        isCorrect = null;
-                        pointsEarned = 0.0;
-                    }
-                } else {
-                    // No expected answer available, mark for manual review
-                    isCorrect = null;
-                    pointsEarned = 0.0;
-                }
-            }
-            candidateAnswer.setIsCorrect(isCorrect);
-            candidateAnswer.setPointsEarned(pointsEarned);
+    /**
+     * Writes answers taken from the write-behind buffer in their own transaction, so a failed
+     * flush can put them back. Returns the number of rows written.
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public int writeBuffered(Map<Long, List<AnswerWriteBuffer.Pending>> answersBySession) {
+        Map<Long, List<SubmitAnswerRequest>> answers = new LinkedHashMap<>();
+        answersBySession.forEach((testSessionId, pending) ->
+                answers.put(testSessionId, pending.stream().map(AnswerWriteBuffer.Pending::answer).toList()));
+        return candidateAnswerRepo.upsertDrafts(answers).size();
+    }
+
+    /**
+     * Seals the session and grades the answers already stored. Answers sent with the
+     * submission (clients that do not autosave) are stored first the same way.
+     */
+    public SubmitTestResponse submitTest(SubmitTestRequest request) {
+        // Locked so that a double submit grades once, and pending autosaves finish first
+        TestSession session = testSessionRepo.findByIdForUpdate(request.getTestSessionId())
+                .orElseThrow(() -> new BadRequestException("Test session not found"));
+        checkOpen(session);
+        // Answers still buffered first, so that those sent with the submission win
+        List<SubmitAnswerRequest> unsaved = new ArrayList<>();
+        answerWriteBuffer.peek(session.getId()).forEach(pending -> unsaved.add(pending.answer()));
+        discardBufferedAfterCommit(session.getId());
+        if (request.getAnswers() != null) {
+            unsaved.addAll(request.getAnswers());
+        }
+        if (!unsaved.isEmpty()) {
+            candidateAnswerRepo.upsertDrafts(session.getId(), unsaved);
+        }
 
-            candidateAnswerRepo.save(candidateAnswer);
+        // Graded from the cached key of the test, without loading answers or choices
+        AnswerKey key = answerKey(session.getTest().getId());
+        List<Object[]> drafts = candidateAnswerRepo.findDraftRows(session.getId());
+        List<CandidateAnswerRepo.Grade> grades = new ArrayList<>(drafts.size());
+        // Open answers are scored in the background; the session score is recomputed when the last one is done
+        List<Long> pendingAnswers = new ArrayList<>();
+        for (Object[] draft : drafts) {
+            CandidateAnswerRepo.Grade grade = grade(key, (Long) draft[0], (Integer) draft[1], (Integer) draft[2], (Boolean) draft[3]);
+            if (grade.scoringStatus() == ScoringStatus.PENDING_SCORING) {
+                pendingAnswers.add(grade.candidateAnswerId());
+            }
+            grades.add(grade);
+        }
+        candidateAnswerRepo.saveGrades(grades, LocalDateTime.now());
+        scoringQueueService.enqueue(session.getId(), pendingAnswers);
 
+        List<CandidateAnswer> answers = candidateAnswerRepo.findByTestSessionIdForResults(request.getTestSessionId());
+        int answeredQuestions = answers.size();
+        double totalScore = 0.0;
+        for (CandidateAnswer answer : answers) {
             // Add points to total score (for both multiple choice and AI-scored open questions)
-            if (pointsEarned > 0) {
-                totalScore += pointsEarned;
+            if (answer.getPointsEarned() != null && answer.getPointsEarned() > 0) {
+                totalScore += answer.getPointsEarned();
             }
-            answeredQuestions++;
         }
+
         session.setStatus(TestSessionStatus.FINISHED);
         session.setScore(totalScore);
         testSessionRepo.update(session);
+        if (pendingAnswers.isEmpty()) {
+            // Otherwise counted when the last open answer is scored
+            testStatsService.recordGraded(session.getId(), totalScore);
+        }
 
         Test test = session.getTest();
-        int totalQuestions = test.getTestQuestions() != null ? test.getTestQuestions().size() : 0;
-
-        // Calculate total possible points
-        double totalPossiblePoints = 0.0;
-        if (test.getTestQuestions() != null) {
-            for (TestQuestions tq : test.getTestQuestions()) {
-                if (tq.getQuestion() != null) {
-                    totalPossiblePoints += tq.getQuestion().getPoints();
-                }
-            }
-        }
+        // Stored on the test, its questions are not loaded
+        int totalQuestions = test.getQuestionCount();
+        double totalPossiblePoints = test.getTotalPoints();
 
         // Calculate percentage
         double scorePercentage = totalPossiblePoints > 0
@@ -141,7 +156,7 @@ public class CandidateTestService {
             : 0.0;
 
         // Build detailed question results
-        List<QuestionResultResponse> questionResults = buildQuestionResults(request.getTestSessionId());
+        List<QuestionResultResponse> questionResults = buildQuestionResults(answers, key);
 
         // Format total score fraction
         String totalScoreFraction = String.format("%.1f/%.1f", totalScore, totalPossiblePoints);
@@ -155,8 +170,12 @@ public class CandidateTestService {
                 totalQuestions,
                 answeredQuestions,
                 "FINISHED",
-                "Test submitted successfully",
-                questionResults
+                pendingAnswers.isEmpty()
+                        ? "Test submitted successfully"
+                        : "Test submitted successfully, open answers are being scored",
+                questionResults,
+                scoringStatus(pendingAnswers.size()),
+                pendingAnswers.size()
         );
     }
     public SubmitTestResponse getTestResults(Long testSessionId) {
@@ -168,19 +187,12 @@ public class CandidateTestService {
         if (session.getStatus() != TestSessionStatus.FINISHED) {
             throw new BadRequestException("Test has not been completed yet");
         }
-        List<CandidateAnswer> answers = candidateAnswerRepo.findByTestSessionId(testSessionId);
+        List<CandidateAnswer> answers = candidateAnswerRepo.findByTestSessionIdForResults(testSessionId);
+        int pendingAnswers = (int) scoringQueueService.countPending(testSessionId);
         Test test = session.getTest();
-        int totalQuestions = test.getTestQuestions() != null ? test.getTestQuestions().size() : 0;
-
-        // Calculate total possible points
-        double totalPossiblePoints = 0.0;
-        if (test.getTestQuestions() != null) {
-            for (TestQuestions tq : test.getTestQuestions()) {
-                if (tq.getQuestion() != null) {
-                    totalPossiblePoints += tq.getQuestion().getPoints();
-                }
-            }
-        }
+        // Stored on the test, its questions are not loaded
+        int totalQuestions = test.getQuestionCount();
+        double totalPossiblePoints = test.getTotalPoints();
 
         // Calculate percentage
         double scorePercentage = totalPossiblePoints > 0
@@ -188,7 +200,7 @@ public class CandidateTestService {
             : 0.0;
 
         // Build detailed question results
-        List<QuestionResultResponse> questionResults = buildQuestionResults(testSessionId);
+        List<QuestionResultResponse> questionResults = buildQuestionResults(answers, answerKey(test.getId()));
 
         // Format total score fraction
         String totalScoreFraction = String.format("%.1f/%.1f", session.getScore(), totalPossiblePoints);
@@ -202,13 +214,68 @@ public class CandidateTestService {
                 totalQuestions,
                 answers.size(),
                 session.getStatus().name(),
-                "Test results retrieved successfully",
-                questionResults
+                pendingAnswers == 0
+                        ? "Test results retrieved successfully"
+                        : "Partial results, " + pendingAnswers + " open answer(s) still being scored",
+                questionResults,
+                scoringStatus(pendingAnswers),
+                pendingAnswers
         );
     }
 
-    private List<QuestionResultResponse> buildQuestionResults(Long testSessionId) {
-        List<CandidateAnswer> candidateAnswers = candidateAnswerRepo.findByTestSessionId(testSessionId);
+    private static void checkOpen(TestSession session) {
+        if (session.getDateExpiration() != null && LocalDateTime.now().isAfter(session.getDateExpiration())) {
+            throw new BadRequestException("Test session has expired");
+        }
+        if (session.getStatus() == TestSessionStatus.FINISHED) {
+            throw new BadRequestException("Test has already been submitted");
+        }
+    }
+
+    /**
+     * The buffered answers of the session are dropped only once the submission is committed;
+     * when it rolls back they stay buffered and the candidate's retry submits them again.
+     */
+    private void discardBufferedAfterCommit(Long testSessionId) {
+        transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    answerWriteBuffer.discard(testSessionId);
+                }
+            }
+        });
+    }
+
+    private AnswerKey answerKey(int testId) {
+        return answerKeyCache.get(testId, id -> AnswerKey.of(testRepo.findById(Test.class, id, Test.PAPER_GRAPH)
+                .orElseThrow(() -> new BadRequestException("Test not found"))));
+    }
+
+    private static CandidateAnswerRepo.Grade grade(AnswerKey key, long candidateAnswerId, int questionId,
+                                                   Integer selectedAnswerId, boolean hasOpenAnswer) {
+        if (selectedAnswerId != null) {
+            boolean isCorrect = key.isCorrect(questionId, selectedAnswerId);
+            return new CandidateAnswerRepo.Grade(candidateAnswerId, isCorrect ? key.points(questionId) : 0.0,
+                    isCorrect, ScoringStatus.SCORED);
+        }
+        if (hasOpenAnswer) {
+            // Open questions are scored by Groq AI in the background, or reviewed manually without an expected answer
+            return new CandidateAnswerRepo.Grade(candidateAnswerId, 0.0, null,
+                    key.expectedAnswer(questionId) != null ? ScoringStatus.PENDING_SCORING : ScoringStatus.MANUAL_REVIEW);
+        }
+        return new CandidateAnswerRepo.Grade(candidateAnswerId, 0.0, false, ScoringStatus.SCORED);
+    }
+
+    private static String scoringStatus(int pendingAnswers) {
+        return pendingAnswers == 0 ? "COMPLETE" : "PENDING_SCORING";
+    }
+
+    private List<QuestionResultResponse> buildQuestionResults(List<CandidateAnswer> candidateAnswers, AnswerKey key) {
         List<QuestionResultResponse> results = new ArrayList<>();
 
         for (CandidateAnswer candidateAnswer : candidateAnswers) {
@@ -222,6 +289,9 @@ public class CandidateTestService {
             result.setMaxPoints(question.getPoints());
             result.setPointsEarned(candidateAnswer.getPointsEarned() != null ? candidateAnswer.getPointsEarned() : 0.0);
             result.setIsCorrect(candidateAnswer.getIsCorrect());
+            result.setScoringStatus(candidateAnswer.getScoringStatus() != null
+                    ? candidateAnswer.getScoringStatus().name()
+                    : ScoringStatus.SCORED.name());
 
             // Format score as fraction
             String scoreFraction = String.format("%.1f/%.1f",
@@ -235,13 +305,9 @@ public class CandidateTestService {
                 Answer selectedAnswer = candidateAnswer.getSelectedAnswer();
                 result.setCandidateAnswer(selectedAnswer.getLabel());
 
-                // Find correct answer
-                String correctAnswerLabel = question.getAnswers().stream()
-                    .filter(Answer::isCorrect)
-                    .map(Answer::getLabel)
-                    .findFirst()
-                    .orElse("N/A");
-                result.setCorrectAnswer(correctAnswerLabel);
+                // Correct answer from the key, the question's choices are not loaded
+                String correctAnswerLabel = key.correctLabel(question.getId());
+                result.setCorrectAnswer(correctAnswerLabel != null ? correctAnswerLabel : "N/A");
 
             } else if (candidateAnswer.getOpenAnswerText() != null) {
                 // Open question
@@ -5,13 +5,13 @@ import com.tsix.apirest.entity.enterprise.Enterprise;
 import com.tsix.apirest.dto.res.LoginAndResponse;
 import com.tsix.apirest.exceptions.userExceptions.AlreadyExistException;
 import com.tsix.apirest.exceptions.userExceptions.InvalidCredentialException;
+import com.tsix.apirest.exceptions.userExceptions.PasswordHashingBusyException;
 import com.tsix.apirest.repository.AdminAccountRepo;
 import com.tsix.apirest.repository.EnterpriseRepo;
 import com.tsix.apirest.utils.Generator;
 import com.tsix.apirest.security.JwtUtils;
 import jakarta.ejb.Stateless;
 import jakarta.inject.Inject;
-import org.mindrot.jbcrypt.BCrypt;
 
 import java.util.Optional;
 
@@ -21,7 +21,8 @@ public class EnterpriseService {
     private EnterpriseRepo repo ;
     @Inject
     private AdminAccountRepo adminAccountRepo ;
-    private static final String dummyPassword = "$2a$12$C6UzMDM.H6dfI/f/IKcEeOe4Gk6bZx1vKp2M9U1J0zQeC9Z9e" ;
+    @Inject
+    private PasswordHasher passwordHasher ;
     public EnterpriseService() {}
 
     public LoginAndResponse insertEnterprise(Enterprise enterprise){
@@ -29,28 +30,38 @@ public class EnterpriseService {
                     .ifPresent(e -> {throw new AlreadyExistException("Enterprise with name "
                     + e.getName() +
                     " already is already taken choose another name");});
-            Enterprise enterpriseSaved = repo.save(enterprise);
-            AdminAccount adminAccount = Generator.accountGenerator(enterpriseSaved);
+            // Hash before writing anything: a busy hashing pool must not leave an enterprise without its admin
+            AdminAccount adminAccount = Generator.accountGenerator(enterprise);
             String plainPassword = adminAccount.getPassword();
-            String hashedPwd = BCrypt.hashpw(plainPassword, BCrypt.gensalt(12));
+            String hashedPwd = passwordHasher.hash(plainPassword);
             adminAccount.setPassword(hashedPwd);
+            repo.save(enterprise);
             adminAccountRepo.save(adminAccount);
             return new LoginAndResponse(adminAccount.getUsername(), plainPassword) ;
     }
 
     public String authManager(LoginAndResponse loginAndResponse){
         Optional<AdminAccount> adminAccount = adminAccountRepo.findByUsername(loginAndResponse.username()) ;
-        String hashToCheck = (adminAccount.isPresent())
-                ? adminAccount.get().getPassword()
-                : dummyPassword ;
-        boolean passwordMatches = BCrypt.checkpw(loginAndResponse.password(), hashToCheck) ;
-
-        if (adminAccount.isPresent() && passwordMatches) {
-            return JwtUtils.generateToken(
-                    adminAccount.get().getId() ,
-                    adminAccount.get().getEnterprise().getId()
-            ) ;
+        if (adminAccount.isEmpty()) {
+            passwordHasher.verifyDummy(loginAndResponse.password());
+            throw new InvalidCredentialException();
+        }
+        AdminAccount account = adminAccount.get();
+        if (!passwordHasher.verify(loginAndResponse.password(), account.getPassword())) {
+            throw new InvalidCredentialException();
+        }
+        // The cost policy changed since this hash was made: store a hash at the current cost
+        if (passwordHasher.needsRehash(account.getPassword())) {
+            try {
+                account.setPassword(passwordHasher.hash(loginAndResponse.password()));
+            } catch (PasswordHashingBusyException e) {
+                // The password is verified: log in now and upgrade the hash on a later login
+                System.err.println("Rehash of admin " + account.getId() + " postponed: " + e.getMessage());
+            }
         }
-        throw new InvalidCredentialException();
+        return JwtUtils.generateToken(
+                account.getId() ,
+                account.getEnterprise().getId()
+        ) ;
     }
 }
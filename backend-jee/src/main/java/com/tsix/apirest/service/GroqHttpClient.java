@@ -0,0 +1,112 @@
+package com.tsix.apirest.service;
+
+import com.tsix.apirest.dto.res.HttpClientStatsResponse;
+import com.tsix.apirest.utils.EnvConfig;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Long-lived HTTP client for the scoring backend.
+ * The JDK client keeps connections alive and reuses TLS sessions between calls, so the
+ * handshake is paid once per connection instead of once per scored answer. The number of
+ * concurrent requests, hence of pooled connections, is capped by {@code GROQ_MAX_CONNECTIONS}.
+ */
+@ApplicationScoped
+public class GroqHttpClient {
+    private static final Duration CONNECT_TIMEOUT = Duration.ofMillis(EnvConfig.longValue("GROQ_CONNECT_TIMEOUT_MS", 5_000));
+    private static final Duration READ_TIMEOUT = Duration.ofMillis(EnvConfig.longValue("GROQ_READ_TIMEOUT_MS", 30_000));
+    private static final int MAX_CONNECTIONS = EnvConfig.intValue("GROQ_MAX_CONNECTIONS", 16);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(CONNECT_TIMEOUT)
+            .version(HttpClient.Version.HTTP_2)
+            .build();
+    private final Semaphore connections = new Semaphore(MAX_CONNECTIONS);
+
+    private final AtomicLong totalRequests = new AtomicLong();
+    private final AtomicLong failedRequests = new AtomicLong();
+    private final AtomicLong timedOutRequests = new AtomicLong();
+    private final AtomicLong totalLatencyMillis = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    public HttpRequest.Builder newRequest(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(READ_TIMEOUT);
+    }
+
+    /**
+     * Sends the request and waits for the complete response. Use a buffering body handler such
+     * as {@code ofByteArray} so the body is read while the connection permit is held and within
+     * the deadline; a streaming handler would hand its body over unread.
+     */
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+            throws IOException, InterruptedException {
+        connections.acquire();
+        int current = inFlight.incrementAndGet();
+        peakInFlight.accumulateAndGet(current, Math::max);
+        long start = System.nanoTime();
+        // The JDK client only times out waiting for the headers; the request timeout is applied
+        // here to the whole exchange, body included, which a buffering handler reads before completing
+        Duration deadline = request.timeout().orElse(READ_TIMEOUT);
+        CompletableFuture<HttpResponse<T>> exchange = client.sendAsync(request, bodyHandler);
+        try {
+            return exchange.get(deadline.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            exchange.cancel(true);
+            timedOutRequests.incrementAndGet();
+            failedRequests.incrementAndGet();
+            throw new HttpTimeoutException("No complete response within " + deadline.toMillis() + " ms");
+        } catch (InterruptedException e) {
+            exchange.cancel(true);
+            failedRequests.incrementAndGet();
+            throw e;
+        } catch (ExecutionException e) {
+            failedRequests.incrementAndGet();
+            if (e.getCause() instanceof HttpTimeoutException) {
+                timedOutRequests.incrementAndGet();
+            }
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            totalRequests.incrementAndGet();
+            totalLatencyMillis.addAndGet(Duration.ofNanos(System.nanoTime() - start).toMillis());
+            inFlight.decrementAndGet();
+            connections.release();
+        }
+    }
+
+    public HttpClientStatsResponse stats() {
+        long total = totalRequests.get();
+        return new HttpClientStatsResponse(
+                MAX_CONNECTIONS,
+                inFlight.get(),
+                peakInFlight.get(),
+                connections.getQueueLength(),
+                total,
+                failedRequests.get(),
+                timedOutRequests.get(),
+                total > 0 ? (double) totalLatencyMillis.get() / total : 0.0,
+                CONNECT_TIMEOUT.toMillis(),
+                READ_TIMEOUT.toMillis()
+        );
+    }
+}
@@ -0,0 +1,192 @@
+package com.tsix.apirest.service;
+
+import com.tsix.apirest.dto.res.ScoringResilienceStatsResponse;
+import com.tsix.apirest.exceptions.userExceptions.ScoringUnavailableException;
+import com.tsix.apirest.utils.CircuitBreaker;
+import com.tsix.apirest.utils.EnvConfig;
+import com.tsix.apirest.utils.TokenBucket;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Guards every call to the scoring backend with, in order: a circuit breaker that fails fast
+ * while the backend is down, a token-bucket rate limiter sized to the provider quota, a
+ * bulkhead limiting concurrent calls, and a few retries with jittered backoff drawn from a
+ * shared retry budget. Whenever a call cannot be made or keeps failing a
+ * {@link ScoringUnavailableException} is thrown, never a made-up score.
+ */
+@ApplicationScoped
+public class GroqResilience {
+    private static final int RATE_PER_MINUTE = EnvConfig.intValue("GROQ_RATE_LIMIT_PER_MINUTE", 30);
+    private static final int RATE_BURST = EnvConfig.intValue("GROQ_RATE_LIMIT_BURST", 5);
+    private static final Duration RATE_WAIT = Duration.ofMillis(EnvConfig.longValue("GROQ_RATE_LIMIT_WAIT_MS", 10_000));
+    private static final int BULKHEAD_SIZE = EnvConfig.intValue("GROQ_BULKHEAD_SIZE", 8);
+    private static final Duration BULKHEAD_WAIT = Duration.ofMillis(EnvConfig.longValue("GROQ_BULKHEAD_WAIT_MS", 2_000));
+    private static final int CIRCUIT_FAILURE_THRESHOLD = EnvConfig.intValue("GROQ_CIRCUIT_FAILURE_THRESHOLD", 5);
+    private static final Duration CIRCUIT_OPEN = Duration.ofSeconds(EnvConfig.longValue("GROQ_CIRCUIT_OPEN_SECONDS", 30));
+    private static final int MAX_RETRIES = EnvConfig.intValue("GROQ_MAX_RETRIES", 2);
+    private static final int RETRY_BUDGET_PER_MINUTE = EnvConfig.intValue("GROQ_RETRY_BUDGET_PER_MINUTE", 20);
+    private static final long RETRY_BASE_MILLIS = 500;
+    private static final long RETRY_MAX_MILLIS = 8_000;
+
+    @Inject
+    private GroqHttpClient groqHttpClient;
+
+    private final Semaphore bulkhead = new Semaphore(BULKHEAD_SIZE);
+    private final TokenBucket rateLimiter = new TokenBucket(RATE_BURST, RATE_PER_MINUTE / 60.0);
+    private final TokenBucket retryBudget = new TokenBucket(RETRY_BUDGET_PER_MINUTE, RETRY_BUDGET_PER_MINUTE / 60.0);
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(CIRCUIT_FAILURE_THRESHOLD, CIRCUIT_OPEN);
+
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final AtomicLong bulkheadRejected = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong retryBudgetExhausted = new AtomicLong();
+
+    /**
+     * Sends the request, retrying on 429, 5xx and I/O errors. Other responses, including
+     * client errors, are returned to the caller as is.
+     */
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        try {
+            return sendWithRetries(request, bodyHandler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ScoringUnavailableException("Interrupted while waiting for the scoring backend", Duration.ZERO);
+        }
+    }
+
+    /**
+     * False while the circuit is open, i.e. calls would be refused without being made.
+     */
+    public boolean isAvailable() {
+        return circuitBreaker.state() != CircuitBreaker.State.OPEN;
+    }
+
+    public ScoringResilienceStatsResponse stats() {
+        return new ScoringResilienceStatsResponse(
+                circuitBreaker.state().name(),
+                circuitBreaker.timesOpened(),
+                circuitBreaker.rejectedCalls(),
+                rateLimiter.availableTokens(),
+                rateLimited.get(),
+                bulkhead.availablePermits(),
+                bulkheadRejected.get(),
+                retries.get(),
+                retryBudgetExhausted.get()
+        );
+    }
+
+    private <T> HttpResponse<T> sendWithRetries(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+            throws InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            // Checked first so no rate token is spent on a call the circuit would refuse
+            if (!circuitBreaker.tryAcquirePermission()) {
+                throw new ScoringUnavailableException("Scoring backend is unavailable", circuitBreaker.remainingOpen());
+            }
+            acquireCallSlot();
+
+            String error;
+            Duration retryAfter = null;
+            try {
+                HttpResponse<T> response = groqHttpClient.send(request, bodyHandler);
+                if (!isRetryable(response.statusCode())) {
+                    circuitBreaker.onSuccess();
+                    return response;
+                }
+                circuitBreaker.onFailure();
+                discard(response);
+                error = "HTTP " + response.statusCode();
+                retryAfter = retryAfterOf(response);
+            } catch (IOException e) {
+                circuitBreaker.onFailure();
+                error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            } catch (RuntimeException e) {
+                circuitBreaker.onFailure();
+                throw e;
+            } finally {
+                // Held for the call only, not across the retry wait below
+                bulkhead.release();
+            }
+
+            Duration wait = retryAfter != null ? retryAfter : backoff(attempt);
+            if (attempt >= MAX_RETRIES) {
+                throw new ScoringUnavailableException("Scoring backend failed: " + error, wait);
+            }
+            // The server wants a longer pause than a caller should block for: let the caller come back later
+            if (wait.toMillis() > RETRY_MAX_MILLIS) {
+                throw new ScoringUnavailableException("Scoring backend failed: " + error, wait);
+            }
+            if (!retryBudget.tryAcquire()) {
+                retryBudgetExhausted.incrementAndGet();
+                throw new ScoringUnavailableException("Scoring backend failed: " + error, wait);
+            }
+            retries.incrementAndGet();
+            TimeUnit.MILLISECONDS.sleep(wait.toMillis());
+        }
+    }
+
+    /**
+     * Waits for a rate token and a bulkhead permit, giving the circuit permission back when
+     * either is refused since the call will not be made.
+     */
+    private void acquireCallSlot() throws InterruptedException {
+        boolean acquired = false;
+        try {
+            if (!rateLimiter.tryAcquire(RATE_WAIT.toMillis(), TimeUnit.MILLISECONDS)) {
+                rateLimited.incrementAndGet();
+                throw new ScoringUnavailableException("Scoring rate limit reached", RATE_WAIT);
+            }
+            if (!bulkhead.tryAcquire(BULKHEAD_WAIT.toMillis(), TimeUnit.MILLISECONDS)) {
+                bulkheadRejected.incrementAndGet();
+                throw new ScoringUnavailableException("Too many scoring calls in progress", BULKHEAD_WAIT);
+            }
+            acquired = true;
+        } finally {
+            if (!acquired) {
+                circuitBreaker.releasePermission();
+            }
+        }
+    }
+
+    private static boolean isRetryable(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    // Full jitter: a random wait between 0 and the exponential backoff, so callers spread out
+    private static Duration backoff(int attempt) {
+        long ceiling = Math.min(RETRY_MAX_MILLIS, RETRY_BASE_MILLIS << Math.min(attempt, 10));
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(ceiling + 1));
+    }
+
+    private static Duration retryAfterOf(HttpResponse<?> response) {
+        return response.headers().firstValue("Retry-After")
+                .map(value -> {
+                    try {
+                        return Duration.ofSeconds(Long.parseLong(value.trim()));
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                })
+                .orElse(null);
+    }
+
+    private static void discard(HttpResponse<?> response) {
+        if (response.body() instanceof Closeable body) {
+            try {
+                body.close();
+            } catch (IOException ignored) {
+                // Nothing left to read from a response that is thrown away
+            }
+        }
+    }
+}
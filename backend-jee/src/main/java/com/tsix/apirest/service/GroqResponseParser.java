@@ -0,0 +1,236 @@
+package com.tsix.apirest.service;
+
+import jakarta.json.Json;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParserFactory;
+
+import java.io.InputStream;
+
+/**
+ * Allocation-light parsing of Groq chat completions. The response body is streamed through
+ * a {@link JsonParser} and only {@code choices[0].message.content} is materialized; the
+ * score object inside that content is then read by a small hand-written scanner.
+ */
+public final class GroqResponseParser {
+    public record ParsedScore(int score, String feedback) {}
+
+    private GroqResponseParser() {}
+
+    // Looking up the JSON-P provider is costly, so the factory is resolved once, on first use
+    private static final class ParserFactoryHolder {
+        static final JsonParserFactory INSTANCE = Json.createParserFactory(null);
+    }
+
+    /**
+     * Returns {@code choices[0].message.content}, or null when the response has none.
+     */
+    public static String extractContent(InputStream body) {
+        try (JsonParser parser = ParserFactoryHolder.INSTANCE.createParser(body)) {
+            if (!parser.hasNext() || parser.next() != JsonParser.Event.START_OBJECT) {
+                return null;
+            }
+            if (!seekKey(parser, "choices") || parser.next() != JsonParser.Event.START_ARRAY) {
+                return null;
+            }
+            if (!parser.hasNext() || parser.next() != JsonParser.Event.START_OBJECT) {
+                return null;
+            }
+            if (!seekKey(parser, "message") || parser.next() != JsonParser.Event.START_OBJECT) {
+                return null;
+            }
+            if (!seekKey(parser, "content") || parser.next() != JsonParser.Event.VALUE_STRING) {
+                return null;
+            }
+            return parser.getString();
+        }
+    }
+
+    /**
+     * Reads the first {@code {"score": ..., "feedback": ...}} object found in the model's
+     * reply, ignoring any text around it and any other members. Returns null when no
+     * object with a numeric score is found.
+     */
+    public static ParsedScore parseScore(String content) {
+        if (content == null) {
+            return null;
+        }
+        int start = content.indexOf('{');
+        while (start >= 0) {
+            ParsedScore parsed = new Scanner(content, start + 1).readObject();
+            if (parsed != null) {
+                return parsed;
+            }
+            start = content.indexOf('{', start + 1);
+        }
+        return null;
+    }
+
+    // Advances the parser, positioned inside an object, to the value of the given key
+    private static boolean seekKey(JsonParser parser, String key) {
+        while (parser.hasNext()) {
+            JsonParser.Event event = parser.next();
+            if (event == JsonParser.Event.END_OBJECT) {
+                return false;
+            }
+            if (event == JsonParser.Event.KEY_NAME) {
+                if (key.equals(parser.getString())) {
+                    return true;
+                }
+                skipValue(parser);
+            }
+        }
+        return false;
+    }
+
+    private static void skipValue(JsonParser parser) {
+        JsonParser.Event event = parser.next();
+        if (event == JsonParser.Event.START_OBJECT) {
+            parser.skipObject();
+        } else if (event == JsonParser.Event.START_ARRAY) {
+            parser.skipArray();
+        }
+    }
+
+    private static final class Scanner {
+        private final String text;
+        private int pos;
+
+        Scanner(String text, int pos) {
+            this.text = text;
+            this.pos = pos;
+        }
+
+        ParsedScore readObject() {
+            Double score = null;
+            String feedback = "";
+            skipWhitespace();
+            if (peek() == '}') {
+                return null;
+            }
+            while (pos < text.length()) {
+                skipWhitespace();
+                String key = readString();
+                skipWhitespace();
+                if (key == null || peek() != ':') {
+                    return null;
+                }
+                pos++;
+                skipWhitespace();
+                if ("score".equals(key)) {
+                    score = readNumber();
+                    if (score == null) {
+                        return null;
+                    }
+                } else if ("feedback".equals(key) && peek() == '"') {
+                    feedback = readString();
+                } else if (!skipScalar()) {
+                    return null;
+                }
+                if (feedback == null) {
+                    return null;
+                }
+                skipWhitespace();
+                char c = peek();
+                pos++;
+                if (c == '}') {
+                    return score == null ? null : new ParsedScore(score.intValue(), feedback);
+                }
+                if (c != ',') {
+                    return null;
+                }
+            }
+            return null;
+        }
+
+        private String readString() {
+            if (peek() != '"') {
+                return null;
+            }
+            pos++;
+            StringBuilder out = null;
+            int runStart = pos;
+            while (pos < text.length()) {
+                char c = text.charAt(pos);
+                if (c == '"') {
+                    String result = out == null
+                            ? text.substring(runStart, pos)
+                            : out.append(text, runStart, pos).toString();
+                    pos++;
+                    return result;
+                }
+                if (c != '\\') {
+                    pos++;
+                    continue;
+                }
+                // Only strings with escapes need a builder
+                if (out == null) {
+                    out = new StringBuilder();
+                }
+                out.append(text, runStart, pos);
+                if (pos + 1 >= text.length()) {
+                    return null;
+                }
+                char escaped = text.charAt(pos + 1);
+                pos += 2;
+                switch (escaped) {
+                    case 'n' -> out.append('\n');
+                    case 't' -> out.append('\t');
+                    case 'r' -> out.append('\r');
+                    case 'b' -> out.append('\b');
+                    case 'f' -> out.append('\f');
+                    case 'u' -> {
+                        if (pos + 4 > text.length()) {
+                            return null;
+                        }
+                        try {
+                            out.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            return null;
+                        }
+                        pos += 4;
+                    }
+                    default -> out.append(escaped);
+                }
+                runStart = pos;
+            }
+            return null;
+        }
+
+        private Double readNumber() {
+            int start = pos;
+            while (pos < text.length() && "+-.eE0123456789".indexOf(text.charAt(pos)) >= 0) {
+                pos++;
+            }
+            if (start == pos) {
+                return null;
+            }
+            try {
+                return Double.parseDouble(text.substring(start, pos));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        // Skips strings, numbers and literals; nested values are not expected in a score object
+        private boolean skipScalar() {
+            if (peek() == '"') {
+                return readString() != null;
+            }
+            int start = pos;
+            while (pos < text.length() && ",}{[".indexOf(text.charAt(pos)) < 0) {
+                pos++;
+            }
+            return pos > start && pos < text.length() && "{[".indexOf(text.charAt(pos)) < 0;
+        }
+
+        private void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private char peek() {
+            return pos < text.length() ? text.charAt(pos) : '\0';
+        }
+    }
+}
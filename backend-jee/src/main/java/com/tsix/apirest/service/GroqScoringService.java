@@ -2,146 +2,225 @@ package com.tsix.apirest.service;
 
 import com.tsix.apirest.dto.req.OpenQuestionScoreRequest;
 import com.tsix.apirest.dto.res.OpenQuestionScoreResponse;
+import com.tsix.apirest.exceptions.userExceptions.ManualReviewRequiredException;
+import com.tsix.apirest.exceptions.userExceptions.ScoringUnavailableException;
+import jakarta.annotation.Resource;
+import jakarta.ejb.SessionContext;
 import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.inject.Inject;
 import jakarta.json.Json;
 import jakarta.json.JsonArray;
+import jakarta.json.JsonBuilderFactory;
 import jakarta.json.JsonObject;
-import jakarta.json.JsonReader;
-import jakarta.ws.rs.client.Client;
-import jakarta.ws.rs.client.ClientBuilder;
-import jakarta.ws.rs.client.Entity;
 import jakarta.ws.rs.core.MediaType;
-import jakarta.ws.rs.core.Response;
 
-import java.io.StringReader;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.io.ByteArrayInputStream;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Stateless
 public class GroqScoringService {
     
     private static final String GROQ_API_URL = "https://api.groq.com/openai/v1/chat/completions";
     private static final String GROQ_API_KEY = System.getenv("GROQ_API_KEY");
-    
-    public OpenQuestionScoreResponse scoreOpenQuestion(OpenQuestionScoreRequest request) {
-        if (GROQ_API_KEY == null || GROQ_API_KEY.isEmpty()) {
-            throw new RuntimeException("GROQ_API_KEY environment variable is not set");
+    private static final String MODEL = "llama-3.3-70b-versatile";
+    // Bump when the prompt changes so cached scores from the old prompt are not reused
+    private static final String PROMPT_VERSION = "v1";
+    private static final String MODEL_VERSION = MODEL + "/" + PROMPT_VERSION;
+    // Resolving the JSON-P provider on every Json.createXxx call is costly, so the factory is kept
+    private static final JsonBuilderFactory JSON = Json.createBuilderFactory(null);
+    private static final JsonObject SYSTEM_MESSAGE = JSON.createObjectBuilder()
+            .add("role", "system")
+            .add("content", "You are an expert teacher. Always respond with valid JSON only.")
+            .build();
+
+    // Container threads, so each call runs with the naming and security context of the bean
+    @Resource
+    private ManagedExecutorService scoringExecutor;
+    @Resource
+    private SessionContext sessionContext;
+    @Inject
+    private GroqHttpClient groqHttpClient;
+    @Inject
+    private GroqResilience groqResilience;
+    @Inject
+    private ScoreCache scoreCache;
+    @Inject
+    private KeywordScoringService keywordScoringService;
+
+    /**
+     * Score of one answer of a batch, or why it could not be scored.
+     */
+    public record ScoringOutcome(OpenQuestionScoreResponse response, Throwable failure) {
+        public static ScoringOutcome scored(OpenQuestionScoreResponse response) {
+            return new ScoringOutcome(response, null);
+        }
+
+        public static ScoringOutcome failed(Throwable failure) {
+            return new ScoringOutcome(null, failure);
+        }
+
+        public boolean isScored() {
+            return response != null;
         }
-        
-        Client client = ClientBuilder.newClient();
-        
+    }
+
+    /**
+     * Scores several answers concurrently, at most {@code maxConcurrency} at a time, so the
+     * wall-clock time is close to the slowest call instead of the sum of all calls.
+     * Outcomes are returned in request order; a failed outcome carries the exception of its
+     * answer, or a {@link TimeoutException} when it was still being scored at the deadline.
+     */
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public List<ScoringOutcome> scoreOpenQuestions(List<OpenQuestionScoreRequest> requests,
+                                                   int maxConcurrency, Duration deadline) {
+        ScoringOutcome[] results = new ScoringOutcome[requests.size()];
+        CompletionService<OpenQuestionScoreResponse> completionService =
+                new ExecutorCompletionService<>(scoringExecutor);
+        // Calls go through the business proxy so the container interceptors apply to each of them
+        GroqScoringService self = sessionContext.getBusinessObject(GroqScoringService.class);
+        Map<Future<OpenQuestionScoreResponse>, Integer> running = new IdentityHashMap<>();
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+        int next = 0;
         try {
-            String prompt = String.format(
-                "You are an expert teacher evaluating a student's answer to an open-ended question.\n\n" +
-                "Model Answer (Correct Answer):\n%s\n\n" +
-                "Student's Answer:\n%s\n\n" +
-                "Evaluate the student's answer based on:\n" +
-                "1. Correctness: Does it match the key concepts in the model answer?\n" +
-                "2. Completeness: Does it cover all important points?\n" +
-                "3. Clarity: Is the explanation clear and well-structured?\n\n" +
-                "Provide a score from 0 to %d and brief feedback.\n\n" +
-                "Respond in this exact JSON format:\n" +
-                "{\"score\": <number>, \"feedback\": \"<brief feedback>\"}",
-                request.getModelAnswer(),
-                request.getStudentAnswer(),
-                request.getMaxPoints()
-            );
-
-            JsonObject message1 = Json.createObjectBuilder()
-                    .add("role", "system")
-                    .add("content", "You are an expert teacher. Always respond with valid JSON only.")
-                    .build();
-            
-            JsonObject message2 = Json.createObjectBuilder()
-                    .add("role", "user")
-                    .add("content", prompt)
-                    .build();
-            
-            JsonArray messages = Json.createArrayBuilder()
-                    .add(message1)
-                    .add(message2)
-                    .build();
-            
-            JsonObject requestBody = Json.createObjectBuilder()
-                    .add("model", "llama-3.3-70b-versatile")
-                    .add("messages", messages)
-                    .add("temperature", 0.3)
-                    .add("max_tokens", 500)
-                    .build();
-
-            Response response = client
-                    .target(GROQ_API_URL)
-                    .request(MediaType.APPLICATION_JSON)
-                    .header("Authorization", "Bearer " + GROQ_API_KEY)
-                    .post(Entity.json(requestBody.toString()));
-            
-            if (response.getStatus() == 200) {
-                String jsonResponse = response.readEntity(String.class);
-                JsonReader jsonReader = Json.createReader(new StringReader(jsonResponse));
-                JsonObject responseObj = jsonReader.readObject();
-                
-                // Extract content from Groq response
-                String content = responseObj
-                        .getJsonArray("choices")
-                        .getJsonObject(0)
-                        .getJsonObject("message")
-                        .getString("content");
-
-                JsonObject result = extractJsonFromContent(content);
-                
-                return new OpenQuestionScoreResponse(
-                    request.getQuestionId(),
-                    result.getInt("score", 0),
-                    result.getString("feedback", ""),
-                    request.getMaxPoints()
-                );
-                
-            } else {
-                String errorBody = response.readEntity(String.class);
-                System.err.println("Groq API error: " + response.getStatus() + " - " + errorBody);
-                return new OpenQuestionScoreResponse(
-                    request.getQuestionId(),
-                    0,
-                    "Error scoring answer: " + response.getStatus(),
-                    request.getMaxPoints()
-                );
+            while (next < requests.size() || !running.isEmpty()) {
+                // Keep at most maxConcurrency calls in flight for this batch
+                while (next < requests.size() && running.size() < Math.max(1, maxConcurrency)) {
+                    OpenQuestionScoreRequest request = requests.get(next);
+                    running.put(completionService.submit(() -> self.scoreOpenQuestion(request)), next++);
+                }
+                long remaining = deadlineNanos - System.nanoTime();
+                Future<OpenQuestionScoreResponse> done = remaining > 0
+                        ? completionService.poll(remaining, TimeUnit.NANOSECONDS)
+                        : null;
+                if (done == null) {
+                    break;
+                }
+                int index = running.remove(done);
+                try {
+                    results[index] = ScoringOutcome.scored(done.get());
+                } catch (ExecutionException e) {
+                    System.err.println("Error scoring open question " + requests.get(index).getQuestionId()
+                            + ": " + e.getCause().getMessage());
+                    results[index] = ScoringOutcome.failed(e.getCause());
+                }
             }
-            
-        } catch (Exception e) {
-            System.err.println("Error calling Groq API: " + e.getMessage());
-            e.printStackTrace();
-            return new OpenQuestionScoreResponse(
-                request.getQuestionId(),
-                0,
-                "Error: " + e.getMessage(),
-                request.getMaxPoints()
-            );
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } finally {
-            client.close();
+            running.keySet().forEach(future -> future.cancel(true));
+        }
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = ScoringOutcome.failed(new TimeoutException("Not scored before the deadline"));
+            }
         }
+        return new ArrayList<>(Arrays.asList(results));
     }
-    
-    private JsonObject extractJsonFromContent(String content) {
-        try {
 
-            Pattern pattern = Pattern.compile("\\{[^}]+\\}");
-            Matcher matcher = pattern.matcher(content);
-            
-            if (matcher.find()) {
-                String jsonStr = matcher.group();
-                JsonReader reader = Json.createReader(new StringReader(jsonStr));
-                return reader.readObject();
-            } else {
-                // Try parsing the whole content
-                JsonReader reader = Json.createReader(new StringReader(content));
-                return reader.readObject();
-            }
-        } catch (Exception e) {
+    public OpenQuestionScoreResponse scoreOpenQuestion(OpenQuestionScoreRequest request) {
+        Optional<OpenQuestionScoreResponse> local = switch (keywordScoringService.mode()) {
+            // Never falls through to the AI: the worker runs this mode while the circuit is open
+            case KEYWORDS -> Optional.of(keywordScoringService.score(request)
+                    .orElseThrow(() -> new ManualReviewRequiredException(
+                            "Question " + request.getQuestionId() + " has no keywords to score against")));
+            case HYBRID -> keywordScoringService.gate(request);
+            case LLM -> Optional.empty();
+        };
+        if (local.isPresent()) {
+            return local.get();
+        }
+
+        if (GROQ_API_KEY == null || GROQ_API_KEY.isEmpty()) {
+            return keywordScoringService.score(request)
+                    .orElseThrow(() -> new RuntimeException("GROQ_API_KEY environment variable is not set"));
+        }
+
+        Optional<OpenQuestionScoreResponse> cached = scoreCache.get(request, MODEL_VERSION);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        String prompt = String.format(
+            "You are an expert teacher evaluating a student's answer to an open-ended question.\n\n" +
+            "Model Answer (Correct Answer):\n%s\n\n" +
+            "Student's Answer:\n%s\n\n" +
+            "Evaluate the student's answer based on:\n" +
+            "1. Correctness: Does it match the key concepts in the model answer?\n" +
+            "2. Completeness: Does it cover all important points?\n" +
+            "3. Clarity: Is the explanation clear and well-structured?\n\n" +
+            "Provide a score from 0 to %d and brief feedback.\n\n" +
+            "Respond in this exact JSON format:\n" +
+            "{\"score\": <number>, \"feedback\": \"<brief feedback>\"}",
+            request.getModelAnswer(),
+            request.getStudentAnswer(),
+            request.getMaxPoints()
+        );
+
+        JsonObject message = JSON.createObjectBuilder()
+                .add("role", "user")
+                .add("content", prompt)
+                .build();
+
+        JsonArray messages = JSON.createArrayBuilder()
+                .add(SYSTEM_MESSAGE)
+                .add(message)
+                .build();
+
+        JsonObject requestBody = JSON.createObjectBuilder()
+                .add("model", MODEL)
+                .add("messages", messages)
+                .add("temperature", 0.3)
+                .add("max_tokens", 500)
+                .build();
+
+        HttpRequest httpRequest = groqHttpClient.newRequest(GROQ_API_URL)
+                .header("Content-Type", MediaType.APPLICATION_JSON)
+                .header("Accept", MediaType.APPLICATION_JSON)
+                .header("Authorization", "Bearer " + GROQ_API_KEY)
+                .POST(HttpRequest.BodyPublishers.ofString(requestBody.toString()))
+                .build();
+        // Throws ScoringUnavailableException when the backend is rate limited, down or failing.
+        // The body is read in full within the client's timeout, not after the call returns
+        HttpResponse<byte[]> response = groqResilience.send(httpRequest, HttpResponse.BodyHandlers.ofByteArray());
+
+        if (response.statusCode() != 200) {
+            System.err.println("Groq API error: " + response.statusCode() + " - "
+                    + new String(response.body(), StandardCharsets.UTF_8));
+            throw new IllegalStateException("Error scoring answer: " + response.statusCode());
+        }
+        String content = GroqResponseParser.extractContent(new ByteArrayInputStream(response.body()));
+
+        GroqResponseParser.ParsedScore result = GroqResponseParser.parseScore(content);
+        if (result == null) {
             System.err.println("Failed to parse JSON from content: " + content);
-            return Json.createObjectBuilder()
-                    .add("score", 0)
-                    .add("feedback", "Failed to parse AI response")
-                    .build();
+            throw new IllegalStateException("Failed to parse AI response");
         }
+
+        OpenQuestionScoreResponse scoreResponse = new OpenQuestionScoreResponse(
+            request.getQuestionId(),
+            result.score(),
+            result.feedback(),
+            request.getMaxPoints()
+        );
+        scoreCache.put(request, MODEL_VERSION, scoreResponse);
+        return scoreResponse;
     }
 }
@@ -0,0 +1,88 @@
+package com.tsix.apirest.service;
+
+import com.tsix.apirest.dto.req.TestSessionReq;
+import com.tsix.apirest.entity.enterprise.Enterprise;
+import com.tsix.apirest.entity.mail.MailOutbox;
+import com.tsix.apirest.entity.test.Test;
+import com.tsix.apirest.entity.test.TestSession;
+import com.tsix.apirest.exceptions.userExceptions.BadRequestException;
+import com.tsix.apirest.mapper.TestSessionMapper;
+import com.tsix.apirest.repository.EnterpriseRepo;
+import com.tsix.apirest.repository.MailOutboxRepo;
+import com.tsix.apirest.repository.TestRepo;
+import com.tsix.apirest.repository.TestSessionRepo;
+import com.tsix.apirest.utils.AccessCodeGenerator;
+import jakarta.ejb.Stateless;
+import jakarta.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Creates the sessions of a bulk invitation together with their invitation mails.
+ * Sessions and outbox rows take pooled sequence ids, so Hibernate sends them as JDBC
+ * batches; the mails themselves are sent later by {@link MailDispatcher}.
+ */
+@Stateless
+public class InvitationService {
+    // Rows kept in the persistence context before they are flushed as a batch and detached
+    static final int CHUNK_SIZE = 500;
+
+    @Inject
+    private TestSessionRepo testSessionRepo;
+    @Inject
+    private MailOutboxRepo mailOutboxRepo;
+    @Inject
+    private EnterpriseRepo enterpriseRepo;
+    @Inject
+    private TestRepo testRepo;
+    @Inject
+    private InvitationTemplates invitationTemplates;
+
+    public int invite(TestSessionReq req, UUID enterpriseId) {
+        if (req.getEmailCandidate() == null || req.getEmailCandidate().isEmpty()) {
+            throw new BadRequestException("At least one candidate email is required");
+        }
+        Test test = testRepo.findByIdAndEnterpriseId(req.getTestId(), enterpriseId)
+                .orElseThrow(() -> new BadRequestException("Test not found or access denied"));
+        String enterpriseName = enterpriseRepo.findById(Enterprise.class, enterpriseId)
+                .orElseThrow(() -> new BadRequestException("Enterprise not found"))
+                .getName();
+        List<TestSession> testSessions = TestSessionMapper.toEntity(req);
+        assignUniqueCodes(testSessions);
+        // Templates are compiled once per enterprise and locale, the subject once per invitation
+        InvitationTemplates.Compiled templates = invitationTemplates.get(enterpriseId, enterpriseName, req.getLocale());
+        String testName = test.getName();
+        String subject = templates.renderSubject(testName);
+
+        int pending = 0;
+        for (TestSession t : testSessions) {
+            testSessionRepo.save(t);
+            // Skip if email is null or empty
+            if (t.getEmailCandidate() != null && !t.getEmailCandidate().trim().isEmpty()) {
+                // The id is already assigned by the sequence, no flush needed to reference it
+                InvitationTemplates.Rendered mail =
+                        templates.render(subject, testName, t.getCodeSession(), t.getDateExpiration());
+                mailOutboxRepo.save(new MailOutbox(t.getEmailCandidate(), mail.subject(), mail.text(), mail.html(), t.getId()));
+            }
+            if (++pending == CHUNK_SIZE) {
+                testSessionRepo.flush();
+                testSessionRepo.clear();
+                pending = 0;
+            }
+        }
+        return testSessions.size();
+    }
+
+    private void assignUniqueCodes(List<TestSession> testSessions) {
+        List<String> codes = testSessions.stream()
+                .map(TestSession::getCodeSession)
+                .collect(Collectors.toCollection(ArrayList::new));
+        AccessCodeGenerator.makeUnique(codes, testSessionRepo::findExistingCodes);
+        for (int i = 0; i < codes.size(); i++) {
+            testSessions.get(i).setCodeSession(codes.get(i));
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.tsix.apirest.service;
+
+import com.tsix.apirest.utils.LruTtlCache;
+import com.tsix.apirest.utils.MailTemplate;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invitation mail templates compiled once per enterprise and locale.
+ * Templates are read from {@code mailTemplates/<enterpriseId>/invitation_<locale>.*} when an
+ * enterprise has its own, and from {@code mailTemplates/invitation_<locale>.*} otherwise.
+ * The enterprise name is bound at compile time; only the candidate values are left to render.
+ */
+@ApplicationScoped
+public class InvitationTemplates {
+    public static final String DEFAULT_LOCALE = "en";
+    private static final Set<String> LOCALES = Set.of("en", "fr");
+    private static final Set<String> VARIABLES = Set.of("testName", "accessCode", "expiresAt");
+    private static final String ROOT = "mailTemplates/";
+
+    public record Rendered(String subject, String text, String html) {}
+
+    /**
+     * Compiled templates of one enterprise and locale.
+     */
+    public record Compiled(MailTemplate subject, MailTemplate text, MailTemplate html, DateTimeFormatter dateFormat) {
+
+        public String renderSubject(String testName) {
+            return subject.render(Map.of("testName", nullToEmpty(testName)));
+        }
+
+        public Rendered render(String subject, String testName, String accessCode, LocalDateTime expiresAt) {
+            Map<String, String> values = Map.of(
+                    "testName", nullToEmpty(testName),
+                    "accessCode", nullToEmpty(accessCode),
+                    "expiresAt", expiresAt == null ? "" : dateFormat.format(expiresAt));
+            return new Rendered(subject, text.render(values), html == null ? null : html.render(values));
+        }
+    }
+
+    private record Key(UUID enterpriseId, String locale) {}
+
+    private final LruTtlCache<Key, Compiled> compiled = new LruTtlCache<>(256, 1, TimeUnit.HOURS);
+
+    public Compiled get(UUID enterpriseId, String enterpriseName, String locale) {
+        Key key = new Key(enterpriseId, normalizeLocale(locale));
+        Compiled templates = compiled.get(key);
+        if (templates == null) {
+            templates = compile(key, enterpriseName);
+            compiled.put(key, templates);
+        }
+        return templates;
+    }
+
+    public static String normalizeLocale(String locale) {
+        if (locale == null || locale.isBlank()) {
+            return DEFAULT_LOCALE;
+        }
+        String language = Locale.forLanguageTag(locale.trim().replace('_', '-')).getLanguage();
+        return LOCALES.contains(language) ? language : DEFAULT_LOCALE;
+    }
+
+    private static Compiled compile(Key key, String enterpriseName) {
+        Map<String, String> bound = Map.of("enterpriseName", nullToEmpty(enterpriseName));
+        String base = "invitation_" + key.locale();
+        String subject = read(key.enterpriseId(), base + ".subject.txt");
+        String text = read(key.enterpriseId(), base + ".txt");
+        if (subject == null || text == null) {
+            throw new IllegalStateException("Missing invitation template for locale " + key.locale());
+        }
+        String html = read(key.enterpriseId(), base + ".html");
+        return new Compiled(
+                MailTemplate.compile(subject.strip(), bound, VARIABLES, false),
+                MailTemplate.compile(text, bound, VARIABLES, false),
+                html == null ? null : MailTemplate.compile(html, bound, VARIABLES, true),
+                DateTimeFormatter.ofLocalizedDateTime(FormatStyle.MEDIUM, FormatStyle.SHORT)
+                        .withLocale(Locale.forLanguageTag(key.locale())));
+    }
+
+    private static String read(UUID enterpriseId, String name) {
+        String own = enterpriseId == null ? null : readResource(ROOT + enterpriseId + "/" + name);
+        return own != null ? own : readResource(ROOT + name);
+    }
+
+    private static String readResource(String path) {
+        try (InputStream in = InvitationTemplates.class.getClassLoader().getResourceAsStream(path)) {
+            return in == null ? null : new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
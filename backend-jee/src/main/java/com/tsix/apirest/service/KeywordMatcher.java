@@ -0,0 +1,139 @@
+package com.tsix.apirest.service;
+
+import com.tsix.apirest.utils.TextFolding;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Immutable matcher for the keywords of one question, compiled once and reused for
+ * every candidate answer. Keywords (single words or phrases) are folded and stemmed,
+ * then matched in one pass with an Aho-Corasick automaton over stemmed tokens.
+ * Keywords missed by the exact pass get a fuzzy pass tolerating small typos.
+ */
+public final class KeywordMatcher {
+    private static final int FUZZY_MIN_LENGTH = 5;
+    private static final int FUZZY_LONG_LENGTH = 9;
+
+    private final List<String> keywords;
+    private final List<List<String>> keywordTokens;
+    private final Node root = new Node();
+
+    public record Match(int matched, int total, List<String> matchedKeywords) {
+        public double coverage() {
+            return total == 0 ? 0.0 : (double) matched / total;
+        }
+    }
+
+    private static final class Node {
+        final Map<String, Node> next = new HashMap<>();
+        Node fail;
+        final List<Integer> outputs = new ArrayList<>();
+    }
+
+    private KeywordMatcher(List<String> keywords) {
+        this.keywords = List.copyOf(keywords);
+        this.keywordTokens = new ArrayList<>(keywords.size());
+        for (int i = 0; i < this.keywords.size(); i++) {
+            List<String> tokens = TextFolding.stemmedTokens(this.keywords.get(i));
+            keywordTokens.add(tokens);
+            if (tokens.isEmpty()) {
+                continue;
+            }
+            Node node = root;
+            for (String token : tokens) {
+                node = node.next.computeIfAbsent(token, t -> new Node());
+            }
+            node.outputs.add(i);
+        }
+        buildFailureLinks();
+    }
+
+    public static KeywordMatcher compile(Collection<String> keywords) {
+        return new KeywordMatcher(keywords.stream()
+                .filter(keyword -> keyword != null && !keyword.isBlank())
+                .distinct()
+                .toList());
+    }
+
+    public Match match(String text) {
+        List<String> tokens = TextFolding.stemmedTokens(text);
+        BitSet found = new BitSet(keywords.size());
+        Node node = root;
+        for (String token : tokens) {
+            while (node != root && !node.next.containsKey(token)) {
+                node = node.fail;
+            }
+            node = node.next.getOrDefault(token, root);
+            for (Node output = node; output != root; output = output.fail) {
+                output.outputs.forEach(found::set);
+            }
+        }
+        for (int i = found.nextClearBit(0); i < keywords.size(); i = found.nextClearBit(i + 1)) {
+            if (fuzzyContains(tokens, keywordTokens.get(i))) {
+                found.set(i);
+            }
+        }
+        List<String> matchedKeywords = found.stream().mapToObj(keywords::get).toList();
+        return new Match(matchedKeywords.size(), keywords.size(), matchedKeywords);
+    }
+
+    public int keywordCount() {
+        return keywords.size();
+    }
+
+    private void buildFailureLinks() {
+        Queue<Node> queue = new ArrayDeque<>();
+        root.fail = root;
+        for (Node child : root.next.values()) {
+            child.fail = root;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            Node current = queue.poll();
+            for (Map.Entry<String, Node> edge : current.next.entrySet()) {
+                Node child = edge.getValue();
+                Node fallback = current.fail;
+                while (fallback != root && !fallback.next.containsKey(edge.getKey())) {
+                    fallback = fallback.fail;
+                }
+                Node target = fallback.next.get(edge.getKey());
+                child.fail = target != null && target != child ? target : root;
+                queue.add(child);
+            }
+        }
+    }
+
+    private static boolean fuzzyContains(List<String> tokens, List<String> phrase) {
+        if (phrase.isEmpty() || phrase.size() > tokens.size()) {
+            return false;
+        }
+        for (int start = 0; start + phrase.size() <= tokens.size(); start++) {
+            boolean all = true;
+            for (int k = 0; k < phrase.size() && all; k++) {
+                all = fuzzyEquals(tokens.get(start + k), phrase.get(k));
+            }
+            if (all) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean fuzzyEquals(String token, String expected) {
+        if (token.equals(expected)) {
+            return true;
+        }
+        if (expected.length() < FUZZY_MIN_LENGTH) {
+            return false;
+        }
+        int tolerance = expected.length() >= FUZZY_LONG_LENGTH ? 2 : 1;
+        return TextFolding.boundedDistance(token, expected, tolerance) <= tolerance;
+    }
+}
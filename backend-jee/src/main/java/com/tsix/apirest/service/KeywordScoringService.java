@@ -0,0 +1,107 @@
+package com.tsix.apirest.service;
+
+import com.tsix.apirest.dto.req.OpenQuestionScoreRequest;
+import com.tsix.apirest.dto.res.OpenQuestionScoreResponse;
+import com.tsix.apirest.utils.EnvConfig;
+import com.tsix.apirest.utils.LruTtlCache;
+import com.tsix.apirest.utils.TextFolding;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process scorer matching a question's keywords against the candidate's answer.
+ * Depending on {@code SCORING_MODE} it replaces the AI entirely (KEYWORDS), settles the
+ * clear-cut answers before the AI is called (HYBRID), or is only used as a fallback
+ * when the AI cannot be reached (LLM, the default).
+ */
+@ApplicationScoped
+public class KeywordScoringService {
+    private static final Mode MODE = Mode.from(EnvConfig.stringValue("SCORING_MODE", Mode.LLM.name()));
+    private static final int GATE_MIN_KEYWORDS = EnvConfig.intValue("SCORING_GATE_MIN_KEYWORDS", 3);
+    private static final int MAX_MATCHERS = 5_000;
+
+    public enum Mode {
+        LLM, KEYWORDS, HYBRID;
+
+        static Mode from(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Unknown SCORING_MODE " + value + ", using " + LLM);
+                return LLM;
+            }
+        }
+    }
+
+    private record CompiledKeywords(List<String> keywords, KeywordMatcher matcher) {}
+
+    private final LruTtlCache<Integer, CompiledKeywords> matchers =
+            new LruTtlCache<>(MAX_MATCHERS, 1, TimeUnit.DAYS);
+
+    public Mode mode() {
+        return MODE;
+    }
+
+    /**
+     * Scores the answer from keyword coverage alone; empty when the question has no keywords.
+     */
+    public Optional<OpenQuestionScoreResponse> score(OpenQuestionScoreRequest request) {
+        List<String> keywords = keywordsOf(request);
+        if (keywords.isEmpty()) {
+            return Optional.empty();
+        }
+        KeywordMatcher.Match match = matcherFor(request.getQuestionId(), keywords).match(request.getStudentAnswer());
+        int score = (int) Math.round(request.getMaxPoints() * match.coverage());
+        return Optional.of(new OpenQuestionScoreResponse(request.getQuestionId(), score,
+                "Keyword scoring: " + match.matched() + "/" + match.total() + " expected keywords found",
+                request.getMaxPoints()));
+    }
+
+    /**
+     * Returns a score only for answers that are empty or clearly complete, so that the AI
+     * is called for the ambiguous ones only. A short answer is not zeroed: one or two words
+     * can be exactly what the model answer expects.
+     */
+    public Optional<OpenQuestionScoreResponse> gate(OpenQuestionScoreRequest request) {
+        if (TextFolding.stemmedTokens(request.getStudentAnswer()).isEmpty()) {
+            return Optional.of(new OpenQuestionScoreResponse(request.getQuestionId(), 0,
+                    "The answer is empty", request.getMaxPoints()));
+        }
+        List<String> keywords = keywordsOf(request);
+        if (keywords.size() < GATE_MIN_KEYWORDS) {
+            return Optional.empty();
+        }
+        KeywordMatcher.Match match = matcherFor(request.getQuestionId(), keywords).match(request.getStudentAnswer());
+        if (match.matched() < match.total()) {
+            return Optional.empty();
+        }
+        return Optional.of(new OpenQuestionScoreResponse(request.getQuestionId(), request.getMaxPoints(),
+                "All " + match.total() + " expected keywords are covered", request.getMaxPoints()));
+    }
+
+    private KeywordMatcher matcherFor(int questionId, List<String> keywords) {
+        CompiledKeywords compiled = matchers.get(questionId);
+        // Recompile when the question's keywords were edited since the matcher was built
+        if (compiled == null || !compiled.keywords().equals(keywords)) {
+            compiled = new CompiledKeywords(keywords, KeywordMatcher.compile(keywords));
+            matchers.put(questionId, compiled);
+        }
+        return compiled.matcher();
+    }
+
+    private static List<String> keywordsOf(OpenQuestionScoreRequest request) {
+        if (request.getKeywords() == null) {
+            return List.of();
+        }
+        return request.getKeywords().stream()
+                .filter(keyword -> keyword != null && !keyword.isBlank())
+                .map(String::trim)
+                .distinct()
+                .sorted()
+                .toList();
+    }
+}
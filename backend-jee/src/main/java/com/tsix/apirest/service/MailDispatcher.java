@@ -0,0 +1,81 @@
+package com.tsix.apirest.service;
+
+import com.tsix.apirest.entity.mail.MailOutbox;
+import com.tsix.apirest.utils.EnvConfig;
+import com.tsix.apirest.utils.SmtpTransportPool;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Background sender draining the mail_outbox table.
+ * A mail that cannot be sent is retried with backoff and never affects the
+ * invitations or the other mails of its batch.
+ */
+@Startup
+@Singleton
+public class MailDispatcher {
+    private static final int BATCH_SIZE = EnvConfig.intValue("MAIL_DISPATCH_BATCH_SIZE", 50);
+    private static final long MAX_DRAIN_MILLIS = 50_000;
+
+    @Inject
+    private MailOutboxService mailOutboxService;
+    @Inject
+    private MailService mailService;
+
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+
+    @Schedule(second = "*/5", minute = "*", hour = "*", persistent = false)
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void drain() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long deadline = System.currentTimeMillis() + MAX_DRAIN_MILLIS;
+            List<MailOutbox> mails = mailOutboxService.claimBatch(BATCH_SIZE);
+            while (!mails.isEmpty()) {
+                // Once the send rate limit is exhausted the rest of the queue waits for the next run
+                if (!sendAll(mails) || System.currentTimeMillis() > deadline) {
+                    break;
+                }
+                mails = mailOutboxService.claimBatch(BATCH_SIZE);
+            }
+        } catch (Exception e) {
+            System.err.println("Error draining mail outbox: " + e.getMessage());
+        } finally {
+            draining.set(false);
+        }
+    }
+
+    /**
+     * Sends the batch and returns false when some of its mails were held back by the rate limit.
+     */
+    private boolean sendAll(List<MailOutbox> mails) {
+        List<Exception> errors = mailService.sendAll(mails);
+        List<Long> sent = new ArrayList<>();
+        boolean withinRate = true;
+        for (int i = 0; i < mails.size(); i++) {
+            Exception error = errors.get(i);
+            if (error == null) {
+                sent.add(mails.get(i).getId());
+            } else if (error instanceof SmtpTransportPool.RateLimitedException) {
+                // Not the mail's fault: requeued as is, without using an attempt or backing off
+                mailOutboxService.defer(mails.get(i), error.getMessage());
+                withinRate = false;
+            } else {
+                System.err.println("Error sending mail " + mails.get(i).getId() + ": " + error.getMessage());
+                mailOutboxService.fail(mails.get(i), String.valueOf(error.getMessage()));
+            }
+        }
+        mailOutboxService.markSent(sent);
+        return withinRate;
+    }
+}
@@ -0,0 +1,82 @@
+package com.tsix.apirest.service;
+
+import com.tsix.apirest.dto.res.MailStatsResponse;
+import com.tsix.apirest.entity.mail.MailOutbox;
+import com.tsix.apirest.entity.mail.MailStatus;
+import com.tsix.apirest.repository.MailOutboxRepo;
+import com.tsix.apirest.utils.SmtpTransportPool;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.inject.Inject;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Database-backed queue of outgoing mails.
+ * Mails are enqueued in the caller's transaction and sent by {@link MailDispatcher};
+ * the dispatcher side runs in short transactions of its own so no connection is held
+ * while the SMTP server is being talked to.
+ */
+@Stateless
+public class MailOutboxService {
+    private static final int LEASE_SECONDS = 120;
+    private static final int MAX_ATTEMPTS = 6;
+    private static final int BASE_BACKOFF_SECONDS = 30;
+
+    @Inject
+    private MailOutboxRepo mailOutboxRepo;
+    @Inject
+    private MailService mailService;
+
+    public void enqueue(MailOutbox mail) {
+        mailOutboxRepo.save(mail);
+    }
+
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public List<MailOutbox> claimBatch(int limit) {
+        List<Long> ids = mailOutboxRepo.claimBatch(limit, LEASE_SECONDS);
+        return mailOutboxRepo.findByIds(ids);
+    }
+
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void markSent(Collection<Long> ids) {
+        mailOutboxRepo.markSent(ids);
+    }
+
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void fail(MailOutbox mail, String error) {
+        if (mail.getAttempts() < MAX_ATTEMPTS) {
+            long backoff = BASE_BACKOFF_SECONDS * (1L << (mail.getAttempts() - 1));
+            mailOutboxRepo.reschedule(mail.getId(), LocalDateTime.now().plusSeconds(backoff), error);
+            return;
+        }
+        mailOutboxRepo.markFailed(mail.getId(), error);
+    }
+
+    /**
+     * Returns the mail to the queue when it was held back by the local send rate limit;
+     * the mail was never attempted so no attempt is consumed.
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void defer(MailOutbox mail, String reason) {
+        mailOutboxRepo.defer(mail.getId(), LocalDateTime.now(), reason);
+    }
+
+    /**
+     * Outbox counts of the given enterprise, next to the counters of the SMTP pool that every
+     * enterprise shares.
+     */
+    public MailStatsResponse stats(UUID enterpriseId) {
+        SmtpTransportPool.Stats pool = mailService.stats();
+        return new MailStatsResponse(
+                mailOutboxRepo.countByStatus(MailStatus.PENDING, enterpriseId),
+                mailOutboxRepo.countByStatus(MailStatus.FAILED, enterpriseId),
+                pool.sent(), pool.failed(), pool.rateLimited(), pool.connectionsOpened(), pool.reconnects(),
+                pool.idleConnections(), pool.sentLastMinutePerSecond(),
+                pool.averageLatencyMillis(), pool.maxLatencyMillis());
+    }
+}
@@ -1,52 +1,159 @@
 package com.tsix.apirest.service;
 
+import com.tsix.apirest.entity.mail.MailOutbox;
+import com.tsix.apirest.utils.EnvConfig;
+import com.tsix.apirest.utils.SmtpTransportPool;
+import com.tsix.apirest.utils.TokenBucket;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.mail.*;
+import jakarta.mail.internet.AddressException;
 import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeBodyPart;
 import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimeMultipart;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Sends mails over a pool of long-lived SMTP connections instead of opening, authenticating
+ * and closing one per message. Pool size, messages per connection and the send rate are
+ * set with the {@code MAIL_POOL_SIZE}, {@code MAIL_MESSAGES_PER_CONNECTION} and
+ * {@code MAIL_RATE_PER_SECOND} variables.
+ */
+@ApplicationScoped
 public class MailService {
+    private static final String HOST = EnvConfig.stringValue("MAIL_HOST", "smtp.gmail.com");
+    private static final int PORT = EnvConfig.intValue("MAIL_PORT", 587);
+    private static final int POOL_SIZE = EnvConfig.intValue("MAIL_POOL_SIZE", 3);
+    private static final int MESSAGES_PER_CONNECTION = EnvConfig.intValue("MAIL_MESSAGES_PER_CONNECTION", 100);
+    private static final int RATE_PER_SECOND = EnvConfig.intValue("MAIL_RATE_PER_SECOND", 5);
+    private static final Duration RATE_WAIT = Duration.ofSeconds(30);
 
-    private static final String email = System.getenv("MAIL_USER");
-    private static final Properties properties = new Properties();
-    private static final Session session;
+    private static final String UTF_8 = "UTF-8";
 
-    static {
+    private final String email = System.getenv("MAIL_USER");
+    private final Session session;
+    // Parsed once: every mail of every campaign has the same sender
+    private final InternetAddress from;
+    private final SmtpTransportPool pool;
+    private final ExecutorService senders;
+
+    public MailService() {
+        Properties properties = new Properties();
         properties.put("mail.smtp.auth", "true");
         properties.put("mail.smtp.starttls.enable", "true");
-        properties.put("mail.smtp.host", "smtp.gmail.com");
-        properties.put("mail.smtp.port", "587");
-        properties.put("mail.smtp.ssl.trust", "smtp.gmail.com");
-        properties.put("mail.debug", "true");
-
-        session = Session.getInstance(properties, new Authenticator() {
-            @Override
-            protected PasswordAuthentication getPasswordAuthentication() {
-                String password = System.getenv("MAIL_PWD");
-                return new PasswordAuthentication(email, password);
-            }
+        properties.put("mail.smtp.host", HOST);
+        properties.put("mail.smtp.port", String.valueOf(PORT));
+        properties.put("mail.smtp.ssl.trust", HOST);
+        properties.put("mail.smtp.connectiontimeout", "10000");
+        properties.put("mail.smtp.timeout", "30000");
+        properties.put("mail.debug", EnvConfig.stringValue("MAIL_DEBUG", "false"));
+        session = Session.getInstance(properties);
+        from = parseSender(email);
+
+        pool = new SmtpTransportPool(this::connect, POOL_SIZE, MESSAGES_PER_CONNECTION,
+                new TokenBucket(RATE_PER_SECOND, RATE_PER_SECOND), RATE_WAIT);
+        AtomicInteger counter = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(POOL_SIZE, runnable -> {
+            Thread thread = new Thread(runnable, "mail-sender-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
         });
     }
 
-    public static String sendMail(String subject, String body, String recipient)
-            throws MessagingException {
+    public String sendMail(String subject, String body, String recipient) throws MessagingException {
+        return sendMail(subject, body, null, recipient);
+    }
 
+    /**
+     * Sends a text mail, or a multipart/alternative text and HTML mail when {@code htmlBody} is set.
+     */
+    public String sendMail(String subject, String body, String htmlBody, String recipient) throws MessagingException {
         if (recipient == null || recipient.trim().isEmpty()) {
             throw new IllegalArgumentException("Recipient email address cannot be null or empty");
         }
 
-        Message message = new MimeMessage(session);
-        message.setFrom(new InternetAddress(email));
+        MimeMessage message = new MimeMessage(session);
+        message.setFrom(from);
         message.setRecipients(
                 Message.RecipientType.TO,
                 InternetAddress.parse(recipient)
         );
-        message.setSubject(subject);
-        message.setText(body);
+        message.setSubject(subject, UTF_8);
+        if (htmlBody == null) {
+            message.setText(body, UTF_8);
+        } else {
+            MimeBodyPart text = new MimeBodyPart();
+            text.setText(body, UTF_8);
+            MimeBodyPart html = new MimeBodyPart();
+            html.setText(htmlBody, UTF_8, "html");
+            message.setContent(new MimeMultipart("alternative", text, html));
+        }
 
-        Transport.send(message);
+        pool.send(message);
         return "Email sent successfully to " + recipient;
     }
 
+    /**
+     * Sends the mails on all pooled connections at once. The result has one entry per mail,
+     * null when it was sent and the exception that prevented it otherwise.
+     */
+    public List<Exception> sendAll(List<MailOutbox> mails) {
+        List<Future<?>> futures = new ArrayList<>(mails.size());
+        for (MailOutbox mail : mails) {
+            futures.add(senders.submit(() -> {
+                sendMail(mail.getSubject(), mail.getBody(), mail.getHtmlBody(), mail.getRecipient());
+                return null;
+            }));
+        }
+        List<Exception> errors = new ArrayList<>(mails.size());
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+                errors.add(null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                errors.add(new MessagingException("Interrupted before the mail was sent", e));
+            } catch (ExecutionException e) {
+                errors.add(e.getCause() instanceof Exception cause ? cause : e);
+            } catch (CancellationException e) {
+                errors.add(e);
+            }
+        }
+        return errors;
+    }
+
+    public SmtpTransportPool.Stats stats() {
+        return pool.stats();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        pool.close();
+    }
+
+    private static InternetAddress parseSender(String address) {
+        try {
+            return address == null ? new InternetAddress() : new InternetAddress(address);
+        } catch (AddressException e) {
+            throw new IllegalStateException("Invalid MAIL_USER address: " + address, e);
+        }
+    }
+
+    private Transport connect() throws MessagingException {
+        Transport transport = session.getTransport("smtp");
+        transport.connect(HOST, PORT, email, System.getenv("MAIL_PWD"));
+        return transport;
+    }
 }
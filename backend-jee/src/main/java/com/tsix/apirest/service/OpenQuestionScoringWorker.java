@@ -0,0 +1,100 @@
+package com.tsix.apirest.service;
+
+import com.tsix.apirest.dto.req.OpenQuestionScoreRequest;
+import com.tsix.apirest.exceptions.userExceptions.ManualReviewRequiredException;
+import com.tsix.apirest.exceptions.userExceptions.ScoringUnavailableException;
+import com.tsix.apirest.service.GroqScoringService.ScoringOutcome;
+import com.tsix.apirest.service.ScoringQueueService.ScoringTask;
+import com.tsix.apirest.utils.EnvConfig;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.inject.Inject;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Background scorer draining the scoring_job queue.
+ * Each claimed batch is fanned out to the scoring backend with at most
+ * {@code SCORING_WORKER_CONCURRENCY} answers scored at the same time.
+ */
+@Startup
+@Singleton
+public class OpenQuestionScoringWorker {
+    private static final int CONCURRENCY = EnvConfig.intValue("SCORING_WORKER_CONCURRENCY", 4);
+    private static final int BATCH_SIZE = CONCURRENCY * 5;
+    private static final Duration BATCH_DEADLINE = Duration.ofSeconds(60);
+    private static final long MAX_DRAIN_MILLIS = 50_000;
+    private static final Duration DEFER_DELAY = Duration.ofSeconds(30);
+
+    @Inject
+    private ScoringQueueService scoringQueueService;
+    @Inject
+    private GroqScoringService groqScoringService;
+    @Inject
+    private GroqResilience groqResilience;
+    @Inject
+    private KeywordScoringService keywordScoringService;
+
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+
+    @Schedule(second = "*/5", minute = "*", hour = "*", persistent = false)
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void drain() {
+        // A previous run still working through a large backlog keeps the queue to itself
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            // While the circuit is open the jobs simply wait in the queue
+            if (!groqResilience.isAvailable() && keywordScoringService.mode() != KeywordScoringService.Mode.KEYWORDS) {
+                return;
+            }
+            long deadline = System.currentTimeMillis() + MAX_DRAIN_MILLIS;
+            List<ScoringTask> tasks = scoringQueueService.claimBatch(BATCH_SIZE);
+            while (!tasks.isEmpty()) {
+                scoreAll(tasks);
+                if (System.currentTimeMillis() > deadline) {
+                    break;
+                }
+                tasks = scoringQueueService.claimBatch(BATCH_SIZE);
+            }
+        } catch (Exception e) {
+            System.err.println("Error draining scoring queue: " + e.getMessage());
+        } finally {
+            draining.set(false);
+        }
+    }
+
+    private void scoreAll(List<ScoringTask> tasks) {
+        List<OpenQuestionScoreRequest> requests = tasks.stream()
+                .map(ScoringTask::request)
+                .toList();
+        List<ScoringOutcome> outcomes =
+                groqScoringService.scoreOpenQuestions(requests, CONCURRENCY, BATCH_DEADLINE);
+        for (int i = 0; i < tasks.size(); i++) {
+            ScoringOutcome outcome = outcomes.get(i);
+            if (outcome.isScored()) {
+                scoringQueueService.complete(tasks.get(i), outcome.response());
+            } else if (outcome.failure() instanceof ScoringUnavailableException unavailable) {
+                // Open circuit, rate limiter or bulkhead: the answer is not at fault
+                scoringQueueService.defer(tasks.get(i), deferDelay(unavailable),
+                        "Scoring backend unavailable, deferred: " + unavailable.getMessage());
+            } else if (outcome.failure() instanceof ManualReviewRequiredException) {
+                // Retrying cannot help: the answer goes straight to the admin
+                scoringQueueService.manualReview(tasks.get(i));
+            } else {
+                scoringQueueService.fail(tasks.get(i), "Scoring failed: " + outcome.failure().getMessage());
+            }
+        }
+    }
+
+    private static Duration deferDelay(ScoringUnavailableException unavailable) {
+        Duration retryAfter = unavailable.getRetryAfter();
+        return retryAfter == null || retryAfter.isZero() ? DEFER_DELAY : retryAfter;
+    }
+}
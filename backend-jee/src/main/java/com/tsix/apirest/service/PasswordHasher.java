@@ -0,0 +1,137 @@
+package com.tsix.apirest.service;
+
+import com.tsix.apirest.exceptions.userExceptions.PasswordHashingBusyException;
+import com.tsix.apirest.utils.EnvConfig;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs bcrypt on a small dedicated pool so a login burst cannot take every request thread.
+ * At most {@code BCRYPT_THREADS} hashes run at once and {@code BCRYPT_QUEUE} wait; beyond
+ * that, or when a hash waits longer than {@code BCRYPT_WAIT_MS}, callers get a 503 instead
+ * of piling up. {@code BCRYPT_COST} is the cost of new hashes.
+ */
+@ApplicationScoped
+public class PasswordHasher {
+    private static final int COST = Math.max(4, Math.min(31, EnvConfig.intValue("BCRYPT_COST", 12)));
+    private static final int THREADS = EnvConfig.intValue("BCRYPT_THREADS",
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    private static final int QUEUE = EnvConfig.intValue("BCRYPT_QUEUE", 32);
+    private static final Duration WAIT = Duration.ofMillis(EnvConfig.longValue("BCRYPT_WAIT_MS", 5_000));
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(2);
+
+    private final int cost;
+    private final Duration wait;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong rejected = new AtomicLong();
+    // Compared against when the username is unknown, so both paths cost the same
+    private volatile String dummyHash;
+
+    public PasswordHasher() {
+        this(COST, THREADS, QUEUE, WAIT);
+    }
+
+    public PasswordHasher(int cost, int threads, int queue, Duration wait) {
+        this.cost = cost;
+        this.wait = wait;
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queue), runnable -> {
+            Thread thread = new Thread(runnable, "bcrypt-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    public String hash(String plainPassword) {
+        return run(() -> BCrypt.hashpw(plainPassword, BCrypt.gensalt(cost)));
+    }
+
+    public boolean verify(String plainPassword, String hash) {
+        return run(() -> BCrypt.checkpw(plainPassword, hash));
+    }
+
+    /**
+     * Spends the same time as {@link #verify} for a user that does not exist.
+     */
+    public void verifyDummy(String plainPassword) {
+        String dummy = dummyHash;
+        if (dummy == null) {
+            dummy = hash("dummy-password-never-matches");
+            dummyHash = dummy;
+        }
+        verify(plainPassword, dummy);
+    }
+
+    /**
+     * True when the hash was made with another cost than the current policy.
+     */
+    public boolean needsRehash(String hash) {
+        return costOf(hash) != cost;
+    }
+
+    public static int costOf(String hash) {
+        // $2a$12$<salt and hash>
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(6) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(hash.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public int queued() {
+        return executor.getQueue().size();
+    }
+
+    public long rejected() {
+        return rejected.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new PasswordHashingBusyException("Too many logins in progress, try again shortly", RETRY_AFTER);
+        }
+        try {
+            return future.get(wait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.incrementAndGet();
+            throw new PasswordHashingBusyException("Too many logins in progress, try again shortly", RETRY_AFTER);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new PasswordHashingBusyException("Interrupted while checking the password", RETRY_AFTER);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
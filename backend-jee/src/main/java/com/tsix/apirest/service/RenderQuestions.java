@@ -6,7 +6,6 @@ import com.tsix.apirest.dto.res.CandidateQuestionResponse;
 import com.tsix.apirest.entity.test.Question;
 import com.tsix.apirest.entity.test.Test;
 import com.tsix.apirest.entity.test.TestQuestions;
-import com.tsix.apirest.repository.TestQuestionRepo;
 import com.tsix.apirest.repository.TestRepo;
 import jakarta.ejb.Stateless;
 import jakarta.inject.Inject;
@@ -17,21 +16,28 @@ import java.util.stream.Collectors;
 
 @Stateless
 public class RenderQuestions {
-    @Inject
-    private TestQuestionRepo testQuestionRepo ;
     @Inject
     private TestRepo testRepo ;
+    @Inject
+    private CandidatePaperCache candidatePaperCache ;
 
     public CandidateAuthResponse responseAfterAuth(int idTest){
         Optional<Test> test = testRepo.findById(Test.class , idTest) ;
         String testName = test.isPresent() ? test.get().getName() : "Unknown Test" ;
         int duration = test.map(Test::getDurationMinute).orElse(0) ;
-        Long totalQuestions = testQuestionRepo.countByTestId(idTest) ;
+        Long totalQuestions = test.map(t -> (long) t.getQuestionCount()).orElse(0L) ;
         return new CandidateAuthResponse(testName , totalQuestions , duration , idTest) ;
     }
 
+    /**
+     * The candidate paper of the test as JSON, built once and shared by all its candidates.
+     */
+    public CandidatePaperCache.Paper getCandidatePaper(int testId) {
+        return candidatePaperCache.get(testId, this::getAllQuestionsByTestId);
+    }
+
     public List<CandidateQuestionResponse> getAllQuestionsByTestId(int testId) {
-        Optional<Test> testOptional = testRepo.findById(Test.class, testId);
+        Optional<Test> testOptional = testRepo.findById(Test.class, testId, Test.PAPER_GRAPH);
 
         if (testOptional.isEmpty()) {
             throw new IllegalArgumentException("Test not found with id: " + testId);
@@ -0,0 +1,129 @@
+package com.tsix.apirest.service;
+
+import com.tsix.apirest.dto.req.OpenQuestionScoreRequest;
+import com.tsix.apirest.dto.res.OpenQuestionScoreResponse;
+import com.tsix.apirest.dto.res.ScoreCacheStatsResponse;
+import com.tsix.apirest.entity.test.ScoreCacheEntry;
+import com.tsix.apirest.utils.EnvConfig;
+import com.tsix.apirest.utils.LruTtlCache;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed cache of AI scores. Identical answers (after normalization) to the
+ * same question, model answer, scale and model/prompt version reuse the first score:
+ * first from an in-memory LRU tier, then from the score_cache table.
+ */
+@ApplicationScoped
+public class ScoreCache {
+    private static final int MAX_ENTRIES = EnvConfig.intValue("SCORE_CACHE_MAX_ENTRIES", 10_000);
+    private static final long TTL_MINUTES = EnvConfig.longValue("SCORE_CACHE_TTL_MINUTES", 7 * 24 * 60);
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern EDGE_PUNCTUATION = Pattern.compile("^[\\p{Punct}\\s]+|[\\p{Punct}\\s]+$");
+
+    @Inject
+    private ScoreCacheStore store;
+
+    private final LruTtlCache<String, OpenQuestionScoreResponse> memory =
+            new LruTtlCache<>(MAX_ENTRIES, TTL_MINUTES, TimeUnit.MINUTES);
+    private final AtomicLong persistentHits = new AtomicLong();
+    private final AtomicLong persistentMisses = new AtomicLong();
+    private final AtomicLong stores = new AtomicLong();
+
+    public Optional<OpenQuestionScoreResponse> get(OpenQuestionScoreRequest request, String modelVersion) {
+        String key = keyFor(request, modelVersion);
+        OpenQuestionScoreResponse cached = memory.get(key);
+        if (cached != null) {
+            return Optional.of(copyFor(request, cached));
+        }
+        try {
+            Optional<ScoreCacheEntry> entry = store.find(key, LocalDateTime.now().minusMinutes(TTL_MINUTES));
+            if (entry.isEmpty()) {
+                persistentMisses.incrementAndGet();
+                return Optional.empty();
+            }
+            persistentHits.incrementAndGet();
+            OpenQuestionScoreResponse response = new OpenQuestionScoreResponse(
+                    request.getQuestionId(), entry.get().getScore(), entry.get().getFeedback(), request.getMaxPoints());
+            memory.put(key, response);
+            return Optional.of(copyFor(request, response));
+        } catch (RuntimeException e) {
+            // The cache is an optimization: a failing lookup is treated as a miss
+            System.err.println("Score cache lookup failed: " + e.getMessage());
+            persistentMisses.incrementAndGet();
+            return Optional.empty();
+        }
+    }
+
+    public void put(OpenQuestionScoreRequest request, String modelVersion, OpenQuestionScoreResponse response) {
+        String key = keyFor(request, modelVersion);
+        memory.put(key, copyFor(request, response));
+        stores.incrementAndGet();
+        try {
+            store.save(new ScoreCacheEntry(key, request.getQuestionId(), response.getScore(),
+                    response.getFeedback(), LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            System.err.println("Score cache write failed: " + e.getMessage());
+        }
+    }
+
+    public ScoreCacheStatsResponse stats() {
+        return new ScoreCacheStatsResponse(
+                memory.size(),
+                MAX_ENTRIES,
+                memory.hits(),
+                memory.misses(),
+                memory.evictions(),
+                persistentHits.get(),
+                persistentMisses.get(),
+                stores.get()
+        );
+    }
+
+    /**
+     * SHA-256 over (question, normalized student answer, model answer, max points, model version).
+     */
+    public static String keyFor(OpenQuestionScoreRequest request, String modelVersion) {
+        String material = request.getQuestionId()
+                + "\u0000" + sha256(normalize(request.getStudentAnswer()))
+                + "\u0000" + sha256(request.getModelAnswer() != null ? request.getModelAnswer() : "")
+                + "\u0000" + request.getMaxPoints()
+                + "\u0000" + modelVersion;
+        return sha256(material);
+    }
+
+    static String normalize(String answer) {
+        if (answer == null) {
+            return "";
+        }
+        String folded = Normalizer.normalize(answer, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        folded = WHITESPACE.matcher(folded).replaceAll(" ");
+        return EDGE_PUNCTUATION.matcher(folded).replaceAll("");
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static OpenQuestionScoreResponse copyFor(OpenQuestionScoreRequest request, OpenQuestionScoreResponse response) {
+        return new OpenQuestionScoreResponse(request.getQuestionId(), response.getScore(),
+                response.getFeedback(), request.getMaxPoints());
+    }
+}
@@ -0,0 +1,30 @@
+package com.tsix.apirest.service;
+
+import com.tsix.apirest.entity.test.ScoreCacheEntry;
+import com.tsix.apirest.repository.ScoreCacheRepo;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.inject.Inject;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Postgres tier of the score cache. Runs in its own transaction because scoring
+ * also happens on pool threads that have no transaction of their own.
+ */
+@Stateless
+@TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+public class ScoreCacheStore {
+    @Inject
+    private ScoreCacheRepo scoreCacheRepo;
+
+    public Optional<ScoreCacheEntry> find(String cacheKey, LocalDateTime notBefore) {
+        return scoreCacheRepo.findFreshByKey(cacheKey, notBefore);
+    }
+
+    public void save(ScoreCacheEntry entry) {
+        scoreCacheRepo.upsert(entry);
+    }
+}
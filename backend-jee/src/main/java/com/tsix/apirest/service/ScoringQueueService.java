@@ -0,0 +1,148 @@
+package com.tsix.apirest.service;
+
+import com.tsix.apirest.dto.req.OpenQuestionScoreRequest;
+import com.tsix.apirest.dto.res.OpenQuestionScoreResponse;
+import com.tsix.apirest.entity.test.*;
+import com.tsix.apirest.repository.CandidateAnswerRepo;
+import com.tsix.apirest.repository.ScoringJobRepo;
+import com.tsix.apirest.repository.TestSessionRepo;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.inject.Inject;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Database-backed queue of open answers waiting for AI scoring.
+ * Every method runs in its own short transaction so no connection is held
+ * while the scoring backend is being called.
+ */
+@Stateless
+public class ScoringQueueService {
+    private static final int LEASE_SECONDS = 120;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final int BASE_BACKOFF_SECONDS = 30;
+
+    @Inject
+    private ScoringJobRepo scoringJobRepo;
+    @Inject
+    private CandidateAnswerRepo candidateAnswerRepo;
+    @Inject
+    private TestSessionRepo testSessionRepo;
+    @Inject
+    private KeywordScoringService keywordScoringService;
+    @Inject
+    private TestStatsService testStatsService;
+
+    public record ScoringTask(Long jobId, Long candidateAnswerId, Long testSessionId, int attempts,
+                              OpenQuestionScoreRequest request, double maxPoints) {}
+
+    /**
+     * Enqueues the given answers of the session, joining the caller's transaction so that
+     * the answers and their jobs are committed together. The answers are not loaded.
+     */
+    public void enqueue(Long testSessionId, List<Long> candidateAnswerIds) {
+        scoringJobRepo.saveAll(candidateAnswerIds.stream()
+                .map(id -> new ScoringJob(candidateAnswerRepo.reference(id), testSessionId))
+                .toList());
+    }
+
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public List<ScoringTask> claimBatch(int limit) {
+        List<Long> ids = scoringJobRepo.claimBatch(limit, LEASE_SECONDS);
+        return scoringJobRepo.findByIdsWithAnswers(ids).stream()
+                .map(this::toTask)
+                .toList();
+    }
+
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void complete(ScoringTask task, OpenQuestionScoreResponse scoreResponse) {
+        // Serializes completions of the same session so the last one always sees the final state
+        if (testSessionRepo.findByIdForUpdate(task.testSessionId()).isEmpty()) {
+            scoringJobRepo.deleteById(task.jobId());
+            return;
+        }
+        candidateAnswerRepo.findById(CandidateAnswer.class, task.candidateAnswerId()).ifPresent(answer -> {
+            double pointsEarned = scoreResponse.getScore();
+            answer.setPointsEarned(pointsEarned);
+            // Determine if answer is correct (>= 60% of max points)
+            answer.setIsCorrect(pointsEarned >= task.maxPoints() * 0.6);
+            answer.setScoringStatus(ScoringStatus.SCORED);
+        });
+        scoringJobRepo.deleteById(task.jobId());
+        updateSessionScoreIfComplete(task.testSessionId());
+    }
+
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void fail(ScoringTask task, String error) {
+        if (task.attempts() < MAX_ATTEMPTS) {
+            long backoff = BASE_BACKOFF_SECONDS * (1L << (task.attempts() - 1));
+            scoringJobRepo.reschedule(task.jobId(), LocalDateTime.now().plusSeconds(backoff), error);
+            return;
+        }
+        // Out of attempts: fall back to the keyword score when the question has keywords
+        Optional<OpenQuestionScoreResponse> keywordScore = keywordScoringService.score(task.request());
+        if (keywordScore.isPresent()) {
+            complete(task, keywordScore.get());
+            return;
+        }
+        // Otherwise leave the answer for manual review, as the synchronous path used to
+        manualReview(task);
+    }
+
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void manualReview(ScoringTask task) {
+        if (testSessionRepo.findByIdForUpdate(task.testSessionId()).isEmpty()) {
+            scoringJobRepo.deleteById(task.jobId());
+            return;
+        }
+        candidateAnswerRepo.findById(CandidateAnswer.class, task.candidateAnswerId()).ifPresent(answer -> {
+            answer.setPointsEarned(0.0);
+            answer.setIsCorrect(null);
+            answer.setScoringStatus(ScoringStatus.MANUAL_REVIEW);
+        });
+        scoringJobRepo.deleteById(task.jobId());
+        updateSessionScoreIfComplete(task.testSessionId());
+    }
+
+    /**
+     * Returns the job to the queue when the scoring backend itself is unavailable;
+     * the answer is not at fault so no attempt is consumed.
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void defer(ScoringTask task, Duration delay, String reason) {
+        scoringJobRepo.defer(task.jobId(), LocalDateTime.now().plus(delay), reason);
+    }
+
+    public long countPending(Long testSessionId) {
+        return scoringJobRepo.countByTestSessionId(testSessionId);
+    }
+
+    private void updateSessionScoreIfComplete(Long testSessionId) {
+        if (scoringJobRepo.countByTestSessionId(testSessionId) == 0) {
+            double score = candidateAnswerRepo.sumPointsEarned(testSessionId);
+            testSessionRepo.updateTestSessionScore(testSessionId, score);
+            testStatsService.recordGraded(testSessionId, score);
+        }
+    }
+
+    private ScoringTask toTask(ScoringJob job) {
+        CandidateAnswer answer = job.getCandidateAnswer();
+        Question question = answer.getQuestion();
+        OpenQuestionScoreRequest request = new OpenQuestionScoreRequest(
+                question.getId(),
+                answer.getOpenAnswerText(),
+                question.getOpenAnswers().getExpectedAnswer(),
+                (int) question.getPoints(),
+                question.getOpenAnswers().getKeyWords().stream()
+                        .map(KeyWords::getKeyword)
+                        .toList()
+        );
+        return new ScoringTask(job.getId(), answer.getId(), job.getTestSessionId(), job.getAttempts(),
+                request, question.getPoints());
+    }
+}
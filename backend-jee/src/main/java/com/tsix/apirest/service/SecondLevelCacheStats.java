@@ -0,0 +1,50 @@
+package com.tsix.apirest.service;
+
+import com.tsix.apirest.dto.res.CacheRegionStatsResponse;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Hit/miss counters of the second-level cache regions, read from the standard JCache
+ * statistics MBeans so no Hibernate statistics have to be collected on every session.
+ */
+@ApplicationScoped
+public class SecondLevelCacheStats {
+    private static final String REGION_PREFIX = "tsix.";
+
+    public List<CacheRegionStatsResponse> regions() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        List<CacheRegionStatsResponse> regions = new ArrayList<>();
+        try {
+            for (ObjectName name : server.queryNames(new ObjectName("javax.cache:type=CacheStatistics,*"), null)) {
+                String cache = name.getKeyProperty("Cache");
+                if (cache.startsWith("\"")) {
+                    cache = ObjectName.unquote(cache);
+                }
+                if (!cache.startsWith(REGION_PREFIX)) {
+                    continue;
+                }
+                regions.add(new CacheRegionStatsResponse(
+                        cache.substring(REGION_PREFIX.length()),
+                        (Long) server.getAttribute(name, "CacheHits"),
+                        (Long) server.getAttribute(name, "CacheMisses"),
+                        (Float) server.getAttribute(name, "CacheHitPercentage"),
+                        (Long) server.getAttribute(name, "CachePuts"),
+                        (Long) server.getAttribute(name, "CacheRemovals"),
+                        (Long) server.getAttribute(name, "CacheEvictions"),
+                        (Float) server.getAttribute(name, "AverageGetTime")));
+            }
+        } catch (JMException e) {
+            System.err.println("Error reading cache statistics: " + e.getMessage());
+        }
+        regions.sort(Comparator.comparing(CacheRegionStatsResponse::region));
+        return regions;
+    }
+}
@@ -0,0 +1,62 @@
+package com.tsix.apirest.service;
+
+import com.tsix.apirest.repository.TestSessionRepo;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.inject.Inject;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Finishes expired sessions one small batch per transaction, so no sweep holds many row
+ * locks for long. Each batch first takes a Postgres advisory lock: when several nodes run
+ * the sweeper, only one of them works at a time and the others skip their turn.
+ */
+@Stateless
+public class SessionExpiryService {
+    // Arbitrary application-wide key of the advisory lock ("TSIX")
+    private static final long SWEEP_LOCK_KEY = 0x54534958L;
+
+    @Inject
+    private TestSessionRepo testSessionRepo;
+
+    /**
+     * Keyset position of the last session finished, batches resume strictly after it.
+     */
+    public record Cursor(LocalDateTime expiresAt, long id) {
+        public static final Cursor START = new Cursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0);
+    }
+
+    public record Batch(boolean locked, int expired, Cursor next) {}
+
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public Batch expireBatch(Cursor after, int limit) {
+        if (!testSessionRepo.tryAdvisoryXactLock(SWEEP_LOCK_KEY)) {
+            return new Batch(false, 0, after);
+        }
+        List<Object[]> rows = testSessionRepo.expireBatch(after.expiresAt(), after.id(), limit);
+        Cursor next = after;
+        for (Object[] row : rows) {
+            Cursor cursor = new Cursor(toLocalDateTime(row[0]), ((Number) row[1]).longValue());
+            if (isAfter(cursor, next)) {
+                next = cursor;
+            }
+        }
+        return new Batch(true, rows.size(), next);
+    }
+
+    private static boolean isAfter(Cursor a, Cursor b) {
+        int byTime = a.expiresAt().compareTo(b.expiresAt());
+        return byTime > 0 || (byTime == 0 && a.id() > b.id());
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+}
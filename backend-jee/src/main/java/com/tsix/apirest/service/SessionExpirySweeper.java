@@ -0,0 +1,63 @@
+package com.tsix.apirest.service;
+
+import com.tsix.apirest.service.SessionExpiryService.Batch;
+import com.tsix.apirest.service.SessionExpiryService.Cursor;
+import com.tsix.apirest.utils.EnvConfig;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.inject.Inject;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Background sweep moving sessions past their expiration to FINISHED while the server runs,
+ * in batches of {@code SESSION_EXPIRY_BATCH_SIZE} sessions.
+ */
+@Startup
+@Singleton
+public class SessionExpirySweeper {
+    private static final int BATCH_SIZE = EnvConfig.intValue("SESSION_EXPIRY_BATCH_SIZE", 500);
+    private static final long MAX_SWEEP_MILLIS = 25_000;
+
+    @Inject
+    private SessionExpiryService sessionExpiryService;
+
+    private final AtomicBoolean sweeping = new AtomicBoolean(false);
+
+    @Schedule(second = "*/30", minute = "*", hour = "*", persistent = false)
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void sweep() {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long deadline = System.currentTimeMillis() + MAX_SWEEP_MILLIS;
+            Cursor cursor = Cursor.START;
+            int expired = 0;
+            int batches = 0;
+            while (true) {
+                Batch batch = sessionExpiryService.expireBatch(cursor, BATCH_SIZE);
+                if (!batch.locked()) {
+                    // Another node is sweeping right now
+                    break;
+                }
+                batches++;
+                expired += batch.expired();
+                cursor = batch.next();
+                if (batch.expired() < BATCH_SIZE || System.currentTimeMillis() > deadline) {
+                    break;
+                }
+            }
+            if (expired > 0) {
+                System.out.println("Session expiry sweep: " + expired + " session(s) finished in " + batches + " batch(es)");
+            }
+        } catch (Exception e) {
+            System.err.println("Error sweeping expired sessions: " + e.getMessage());
+        } finally {
+            sweeping.set(false);
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.tsix.apirest.service;
+
+import com.tsix.apirest.dto.res.CandidateAnswerExportRow;
+import com.tsix.apirest.entity.test.Test;
+import com.tsix.apirest.entity.test.TestSession;
+import com.tsix.apirest.exceptions.userExceptions.BadRequestException;
+import com.tsix.apirest.repository.CandidateAnswerRepo;
+import com.tsix.apirest.repository.TestRepo;
+import com.tsix.apirest.repository.TestSessionRepo;
+import com.tsix.apirest.utils.CsvWriter;
+import com.tsix.apirest.utils.EnvConfig;
+import jakarta.annotation.Resource;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionManagement;
+import jakarta.ejb.TransactionManagementType;
+import jakarta.inject.Inject;
+import jakarta.json.Json;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonGeneratorFactory;
+import jakarta.transaction.NotSupportedException;
+import jakarta.transaction.SystemException;
+import jakarta.transaction.UserTransaction;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Streams the sessions of a test, optionally with their graded answers, as NDJSON or CSV.
+ * Sessions and answers are read through two cursors ordered by session id and merged on
+ * the fly, and the persistence context is cleared regularly, so memory stays flat however
+ * many candidates the test has.
+ */
+@Stateless
+@TransactionManagement(TransactionManagementType.BEAN)
+public class SessionExportService {
+    private static final int FETCH_SIZE = 500;
+    private static final int CLEAR_INTERVAL = 500;
+    private static final int EXPORT_TIMEOUT_SECONDS = EnvConfig.intValue("EXPORT_TIMEOUT_SECONDS", 1_800);
+    private static final String[] SESSION_COLUMNS = {
+            "sessionId", "candidateEmail", "accessCode", "startTime", "expirationTime", "isUsed", "status",
+            "score", "testName", "testId", "testDuration"
+    };
+    private static final String[] ANSWER_COLUMNS = {
+            "questionId", "questionLabel", "selectedAnswer", "openAnswerText", "pointsEarned", "isCorrect",
+            "scoringStatus"
+    };
+
+    public enum Format {
+        NDJSON("application/x-ndjson"), CSV("text/csv");
+
+        private final String mediaType;
+
+        Format(String mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public String mediaType() {
+            return mediaType;
+        }
+
+        public static Format from(String value) {
+            if (value == null || value.isBlank()) {
+                return NDJSON;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Unsupported export format: " + value);
+            }
+        }
+    }
+
+    @Resource
+    private UserTransaction userTransaction;
+    @Inject
+    private TestRepo testRepo;
+    @Inject
+    private TestSessionRepo testSessionRepo;
+    @Inject
+    private CandidateAnswerRepo candidateAnswerRepo;
+
+    public void checkAccess(int testId, UUID enterpriseId) {
+        testRepo.findByIdAndEnterpriseId(testId, enterpriseId)
+                .orElseThrow(() -> new BadRequestException("Test not found or access denied"));
+    }
+
+    /**
+     * Runs in a transaction of its own, sized for a long download and rolled back at the end
+     * since nothing is written; the cursors need a transaction to fetch in batches.
+     */
+    public void export(int testId, Format format, boolean includeAnswers, OutputStream output) throws IOException {
+        try {
+            userTransaction.setTransactionTimeout(EXPORT_TIMEOUT_SECONDS);
+            userTransaction.begin();
+            // Later transactions started on this thread get the server default again
+            userTransaction.setTransactionTimeout(0);
+        } catch (NotSupportedException | SystemException e) {
+            throw new IllegalStateException("Failed to start the export transaction", e);
+        }
+        try {
+            write(testId, format, includeAnswers, output);
+        } finally {
+            try {
+                userTransaction.rollback();
+            } catch (SystemException | IllegalStateException e) {
+                System.err.println("Error ending export transaction: " + e.getMessage());
+            }
+        }
+    }
+
+    private void write(int testId, Format format, boolean includeAnswers, OutputStream output) throws IOException {
+        Test test = testRepo.findById(Test.class, testId)
+                .orElseThrow(() -> new BadRequestException("Test not found"));
+        TestInfo testInfo = new TestInfo(test.getId(), test.getName(), test.getDurationMinute());
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 64 * 1024);
+        try (Stream<TestSession> sessions = testSessionRepo.streamByTestId(testId, FETCH_SIZE);
+             Stream<CandidateAnswerExportRow> answers = includeAnswers
+                     ? candidateAnswerRepo.streamExportRowsByTestId(testId, FETCH_SIZE)
+                     : Stream.empty()) {
+            RowSink sink = format == Format.CSV
+                    ? new CsvSink(writer, includeAnswers)
+                    : new NdjsonSink(writer, includeAnswers);
+            PeekingIterator<CandidateAnswerExportRow> answerRows = new PeekingIterator<>(answers.iterator());
+            int written = 0;
+            Iterator<TestSession> sessionRows = sessions.iterator();
+            while (sessionRows.hasNext()) {
+                TestSession session = sessionRows.next();
+                sink.startSession(session, testInfo);
+                // Both cursors are ordered by session id; skip answers of sessions not exported
+                while (answerRows.hasNext() && answerRows.peek().testSessionId() < session.getId()) {
+                    answerRows.next();
+                }
+                while (answerRows.hasNext() && answerRows.peek().testSessionId().equals(session.getId())) {
+                    sink.answer(answerRows.next());
+                }
+                sink.endSession();
+                if (++written % CLEAR_INTERVAL == 0) {
+                    testSessionRepo.clear();
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private record TestInfo(int id, String name, int durationMinute) {}
+
+    private interface RowSink {
+        void startSession(TestSession session, TestInfo test) throws IOException;
+
+        void answer(CandidateAnswerExportRow answer) throws IOException;
+
+        void endSession() throws IOException;
+    }
+
+    /**
+     * One JSON object per line; the answers, when requested, are nested in the session object.
+     */
+    private static final class NdjsonSink implements RowSink {
+        private final Writer out;
+        private final boolean includeAnswers;
+        private final StringWriter line = new StringWriter(512);
+        private JsonGenerator generator;
+
+        NdjsonSink(Writer out, boolean includeAnswers) {
+            this.out = out;
+            this.includeAnswers = includeAnswers;
+        }
+
+        @Override
+        public void startSession(TestSession session, TestInfo test) {
+            line.getBuffer().setLength(0);
+            generator = GeneratorFactoryHolder.INSTANCE.createGenerator(line);
+            generator.writeStartObject()
+                    .write("sessionId", session.getId());
+            writeNullable("candidateEmail", session.getEmailCandidate());
+            writeNullable("accessCode", session.getCodeSession());
+            writeNullable("startTime", format(session.getDateCreation()));
+            writeNullable("expirationTime", format(session.getDateExpiration()));
+            generator.write("isUsed", Boolean.TRUE.equals(session.getIsUsed()));
+            writeNullable("status", session.getStatus() != null ? session.getStatus().name() : null);
+            generator.write("score", session.getScore());
+            writeNullable("testName", test.name());
+            generator.write("testId", test.id())
+                    .write("testDuration", test.durationMinute());
+            if (includeAnswers) {
+                generator.writeStartArray("answers");
+            }
+        }
+
+        @Override
+        public void answer(CandidateAnswerExportRow answer) {
+            generator.writeStartObject()
+                    .write("questionId", answer.questionId());
+            writeNullable("questionLabel", answer.questionLabel());
+            writeNullable("selectedAnswer", answer.selectedAnswer());
+            writeNullable("openAnswerText", answer.openAnswerText());
+            if (answer.pointsEarned() != null) {
+                generator.write("pointsEarned", answer.pointsEarned());
+            }
+            if (answer.isCorrect() != null) {
+                generator.write("isCorrect", answer.isCorrect());
+            }
+            writeNullable("scoringStatus", answer.scoringStatus() != null ? answer.scoringStatus().name() : null);
+            generator.writeEnd();
+        }
+
+        @Override
+        public void endSession() throws IOException {
+            if (includeAnswers) {
+                generator.writeEnd();
+            }
+            generator.writeEnd();
+            generator.close();
+            out.write(line.getBuffer().toString());
+            out.write('\n');
+        }
+
+        private void writeNullable(String name, String value) {
+            if (value != null) {
+                generator.write(name, value);
+            }
+        }
+    }
+
+    /**
+     * One row per session, or one row per answer (session columns repeated) when answers are requested.
+     */
+    private static final class CsvSink implements RowSink {
+        private final CsvWriter csv;
+        private final boolean includeAnswers;
+        private Object[] sessionValues;
+        private boolean hasAnswers;
+
+        CsvSink(Writer out, boolean includeAnswers) throws IOException {
+            this.csv = new CsvWriter(out);
+            this.includeAnswers = includeAnswers;
+            csv.writeRow(includeAnswers ? concat(SESSION_COLUMNS, ANSWER_COLUMNS) : SESSION_COLUMNS);
+        }
+
+        @Override
+        public void startSession(TestSession session, TestInfo test) {
+            sessionValues = new Object[]{
+                    session.getId(), session.getEmailCandidate(), session.getCodeSession(),
+                    format(session.getDateCreation()), format(session.getDateExpiration()), session.getIsUsed(),
+                    session.getStatus() != null ? session.getStatus().name() : null, session.getScore(),
+                    test.name(), test.id(), test.durationMinute()
+            };
+            hasAnswers = false;
+        }
+
+        @Override
+        public void answer(CandidateAnswerExportRow answer) throws IOException {
+            hasAnswers = true;
+            csv.writeRow(concat(sessionValues, new Object[]{
+                    answer.questionId(), answer.questionLabel(), answer.selectedAnswer(), answer.openAnswerText(),
+                    answer.pointsEarned(), answer.isCorrect(),
+                    answer.scoringStatus() != null ? answer.scoringStatus().name() : null
+            }));
+        }
+
+        @Override
+        public void endSession() throws IOException {
+            // A session without answers still gets its row
+            if (!includeAnswers || !hasAnswers) {
+                csv.writeRow(includeAnswers ? concat(sessionValues, new Object[ANSWER_COLUMNS.length]) : sessionValues);
+            }
+        }
+
+        private static Object[] concat(Object[] first, Object[] second) {
+            Object[] all = new Object[first.length + second.length];
+            System.arraycopy(first, 0, all, 0, first.length);
+            System.arraycopy(second, 0, all, first.length, second.length);
+            return all;
+        }
+    }
+
+    private static final class PeekingIterator<T> {
+        private final Iterator<T> delegate;
+        private T next;
+
+        PeekingIterator(Iterator<T> delegate) {
+            this.delegate = delegate;
+        }
+
+        boolean hasNext() {
+            return next != null || delegate.hasNext();
+        }
+
+        T peek() {
+            if (next == null) {
+                next = delegate.next();
+            }
+            return next;
+        }
+
+        T next() {
+            T value = peek();
+            next = null;
+            return value;
+        }
+    }
+
+    private static String format(LocalDateTime value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private static final class GeneratorFactoryHolder {
+        static final JsonGeneratorFactory INSTANCE = Json.createGeneratorFactory(null);
+    }
+}
@@ -2,28 +2,39 @@ package com.tsix.apirest.service;
 
 import com.tsix.apirest.dto.req.TestRequest;
 import com.tsix.apirest.dto.req.TestSessionReq;
+import com.tsix.apirest.dto.res.AnswerResponse;
+import com.tsix.apirest.dto.res.KeywordResponse;
+import com.tsix.apirest.dto.res.OpenAnswerResponse;
+import com.tsix.apirest.dto.res.QuestionPageResponse;
 import com.tsix.apirest.dto.res.QuestionResponse;
+import com.tsix.apirest.dto.res.QuestionSummary;
 import com.tsix.apirest.dto.res.TestQuestionResponse;
 import com.tsix.apirest.dto.res.TestResponse;
-import com.tsix.apirest.entity.enterprise.Enterprise;
 import com.tsix.apirest.entity.test.*;
 import com.tsix.apirest.exceptions.userExceptions.BadRequestException;
 import com.tsix.apirest.mapper.QuestionMapper;
 import com.tsix.apirest.mapper.TestMapper;
-import com.tsix.apirest.mapper.TestSessionMapper;
 import com.tsix.apirest.repository.*;
 import jakarta.ejb.Stateless;
 import jakarta.inject.Inject;
-import jakarta.mail.MessagingException;
+import jakarta.persistence.Tuple;
 
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 @Stateless
 public class TestService {
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
     @Inject
     private QuestionRepo questionRepo;
     @Inject
@@ -37,7 +48,11 @@ public class TestService {
     @Inject
     private TestSessionRepo testSessionRepo ;
     @Inject
-    private EnterpriseRepo enterpriseRepo;
+    private CandidatePaperCache candidatePaperCache;
+    @Inject
+    private AnswerKeyCache answerKeyCache;
+    @Inject
+    private InvitationService invitationService;
 
     public String insertQuestionAnswer(Question question){
         QuestionType questionType = question.getQuestionType();
@@ -106,7 +121,7 @@ public class TestService {
     }
 
     public List<QuestionResponse> allQuestion(){
-        List<Question> questions = questionRepo.findAll(Question.class) ;
+        List<Question> questions = questionRepo.findAllForBank() ;
         return questions.stream()
                 .map(mapper::toDto)
                 .toList() ;
@@ -119,6 +134,70 @@ public class TestService {
                 .toList() ;
     }
 
+    /**
+     * One keyset page of the enterprise question bank. Questions are read as scalar rows and
+     * their choices, expected answers and keywords with one batched query each, for the page only.
+     */
+    public QuestionPageResponse questionBankPage(UUID enterpriseId, Integer cursor, String type,
+                                                 String labelPrefix, Integer limit){
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        String prefix = labelPrefix == null || labelPrefix.isBlank() ? null : labelPrefix.trim();
+        // One extra row tells whether another page follows
+        List<QuestionSummary> rows = questionRepo.findPageByEnterpriseId(
+                enterpriseId, cursor == null ? 0 : cursor, parseQuestionType(type), prefix, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<QuestionSummary> page = hasMore ? rows.subList(0, pageSize) : rows;
+        if (page.isEmpty()) {
+            return new QuestionPageResponse(List.of(), null, false);
+        }
+
+        List<Integer> ids = page.stream().map(QuestionSummary::id).toList();
+        Map<Integer, Set<AnswerResponse>> answers = new HashMap<>();
+        for (Tuple row : questionRepo.findAnswerRowsByQuestionIds(ids)) {
+            answers.computeIfAbsent(row.get("questionId", Integer.class), id -> new LinkedHashSet<>())
+                    .add(new AnswerResponse(row.get("id", Integer.class), row.get("label", String.class),
+                            row.get("correct", Boolean.class)));
+        }
+        Map<Integer, OpenAnswerResponse> openAnswers = new HashMap<>();
+        for (Tuple row : questionRepo.findOpenAnswerRowsByQuestionIds(ids)) {
+            OpenAnswerResponse openAnswer = openAnswers.computeIfAbsent(row.get("questionId", Integer.class),
+                    id -> new OpenAnswerResponse(row.get("id", Integer.class),
+                            row.get("expectedAnswer", String.class), new LinkedHashSet<>()));
+            Integer keywordId = row.get("keywordId", Integer.class);
+            if (keywordId != null) {
+                openAnswer.getKeywords().add(new KeywordResponse(keywordId, row.get("keyword", String.class)));
+            }
+        }
+
+        List<QuestionResponse> items = page.stream()
+                .map(row -> new QuestionResponse(
+                        row.id(),
+                        row.label(),
+                        row.hint(),
+                        row.questionType() != null ? row.questionType().getDisplayName() : "Unknown",
+                        row.points(),
+                        answers.getOrDefault(row.id(), Set.of()),
+                        openAnswers.get(row.id())
+                ))
+                .toList();
+        return new QuestionPageResponse(items, hasMore ? ids.get(ids.size() - 1) : null, hasMore);
+    }
+
+    private static QuestionType parseQuestionType(String type){
+        if (type == null || type.isBlank()) {
+            return null;
+        }
+        try {
+            return QuestionType.valueOf(type.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            try {
+                return QuestionType.fromString(type);
+            } catch (IllegalArgumentException unknown) {
+                throw new BadRequestException(unknown.getMessage());
+            }
+        }
+    }
+
     public String insertTest(TestRequest testRequest){
         Test test = testMapper.toTest(testRequest) ;
         List<Question> questions = testRequest.getQuestions() ;
@@ -129,7 +208,16 @@ public class TestService {
                     position.getAndIncrement();
                 }
         );
+        // The request only carries question ids, points are read from the question bank
+        Map<Integer, Double> points = questionRepo.findPointsByIds(
+                questions.stream().map(Question::getId).collect(Collectors.toSet()));
+        test.setQuestionCount(test.getTestQuestions().size());
+        test.setTotalPoints(test.getTestQuestions().stream()
+                .mapToDouble(tq -> points.getOrDefault(tq.getQuestion().getId(), 0.0))
+                .sum());
         testRepo.save(test);
+        candidatePaperCache.invalidate(test.getId());
+        answerKeyCache.invalidate(test.getId());
         return "Test with id " + test.getId() + " saved successfully." ;
     }
 
@@ -153,7 +241,7 @@ public class TestService {
     }
 
     public List<TestQuestionResponse> getQuestionsByTestId(int testId, UUID enterpriseId) {
-        Test test = testRepo.findByIdAndEnterpriseId(testId, enterpriseId)
+        Test test = testRepo.findByIdAndEnterpriseIdWithQuestions(testId, enterpriseId)
                 .orElseThrow(() -> new BadRequestException(
                         "Test not found or does not belong to your enterprise"));
 
@@ -164,23 +252,8 @@ public class TestService {
     }
 
     public String registerCandidate(TestSessionReq req, UUID enterpriseId){
-        List<TestSession> testSessions = TestSessionMapper.toEntity(req) ;
-        testSessionRepo.saveAll(testSessions) ;
-        String enterpriseName = enterpriseRepo.findById(Enterprise.class , enterpriseId).get().getName() ;
-        testSessions.forEach(
-                t -> {
-                    try {
-                        // Skip if email is null or empty
-                        if (t.getEmailCandidate() != null && !t.getEmailCandidate().trim().isEmpty()) {
-                            MailService.sendMail("test invitation from "+enterpriseName ,
-                                    "you are invited to pass a test . your access code is : "+t.getCodeSession() +" be careful this code be only valid before "+t.getDateExpiration() ,
-                                    t.getEmailCandidate()) ;
-                        }
-                    } catch (MessagingException e) {
-                        throw new RuntimeException(e);
-                    }
-                }
-        );
+        // Mails are queued in the outbox and sent in the background
+        invitationService.invite(req, enterpriseId) ;
         return "Test invitation sent successfully" ;
     }
 
@@ -0,0 +1,124 @@
+package com.tsix.apirest.service;
+
+import com.tsix.apirest.dto.res.TestStatisticsResponse;
+import com.tsix.apirest.dto.res.TestStatisticsResponse.QuestionStatistics;
+import com.tsix.apirest.dto.res.TestStatisticsResponse.ScoreBucket;
+import com.tsix.apirest.entity.test.TestQuestionStats;
+import com.tsix.apirest.entity.test.TestScoreBucket;
+import com.tsix.apirest.entity.test.TestScoreStats;
+import com.tsix.apirest.exceptions.userExceptions.BadRequestException;
+import com.tsix.apirest.repository.TestRepo;
+import com.tsix.apirest.repository.TestStatsRepo;
+import jakarta.ejb.Stateless;
+import jakarta.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Per-test and per-question statistics of graded sessions. The aggregates are updated once
+ * per session, in the transaction that finishes its grading, and the dashboard reads a
+ * handful of rows whatever the number of sessions.
+ */
+@Stateless
+public class TestStatsService {
+    @Inject
+    private TestStatsRepo testStatsRepo;
+    @Inject
+    private TestRepo testRepo;
+
+    /**
+     * Adds a session whose grading is complete to the aggregates of its test. Joins the
+     * caller's transaction, and does nothing when the session was already added.
+     */
+    public void recordGraded(Long testSessionId, double score) {
+        // The grades written through the persistence context must be visible to the native statements
+        testStatsRepo.flush();
+        testStatsRepo.markAggregated(testSessionId).ifPresent(testId -> {
+            testStatsRepo.addSessionScore(testId, score);
+            testStatsRepo.addSessionAnswers(testId, testSessionId);
+        });
+    }
+
+    public TestStatisticsResponse statistics(int testId, UUID enterpriseId) {
+        testRepo.findByIdAndEnterpriseId(testId, enterpriseId)
+                .orElseThrow(() -> new BadRequestException("Test not found or access denied"));
+        TestScoreStats stats = testStatsRepo.findByTestId(testId).orElse(null);
+        if (stats == null || stats.getSessions() == 0) {
+            return new TestStatisticsResponse(testId, 0, 0.0, 0.0, null, null, null, null,
+                    List.of(), List.of(), null);
+        }
+        long[] counts = new long[TestScoreBucket.BUCKETS];
+        for (TestScoreBucket bucket : testStatsRepo.findBuckets(testId)) {
+            counts[bucket.getBucket()] = bucket.getSessions();
+        }
+        List<ScoreBucket> histogram = new ArrayList<>();
+        int width = 100 / TestScoreBucket.BUCKETS;
+        for (int i = 0; i < counts.length; i++) {
+            histogram.add(new ScoreBucket(i * width, (i + 1) * width, counts[i]));
+        }
+        List<QuestionStatistics> questions = new ArrayList<>();
+        for (Object[] row : testStatsRepo.findQuestionStats(testId)) {
+            TestQuestionStats question = (TestQuestionStats) row[0];
+            long answers = question.getAnswers();
+            questions.add(new QuestionStatistics(
+                    question.getQuestionId(),
+                    (String) row[1],
+                    answers,
+                    question.getCorrect(),
+                    answers == 0 ? 0.0 : (double) question.getCorrect() / answers,
+                    mean(question.getPointsSum(), answers),
+                    standardDeviation(question.getPointsSum(), question.getPointsSquareSum(), answers)));
+        }
+        return new TestStatisticsResponse(
+                testId,
+                stats.getSessions(),
+                mean(stats.getScoreSum(), stats.getSessions()),
+                standardDeviation(stats.getScoreSum(), stats.getScoreSquareSum(), stats.getSessions()),
+                stats.getMinScore(),
+                stats.getMaxScore(),
+                percentile(counts, 0.5),
+                percentile(counts, 0.9),
+                histogram,
+                questions,
+                stats.getUpdatedAt());
+    }
+
+    /**
+     * Percentile of the score, in percent of the total points, interpolated inside the
+     * histogram bucket where it falls; null when the histogram is empty.
+     */
+    public static Double percentile(long[] counts, double fraction) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return null;
+        }
+        double rank = fraction * total;
+        double width = 100.0 / counts.length;
+        long below = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0 && below + counts[i] >= rank) {
+                return i * width + width * (rank - below) / counts[i];
+            }
+            below += counts[i];
+        }
+        return 100.0;
+    }
+
+    private static double mean(double sum, long count) {
+        return count == 0 ? 0.0 : sum / count;
+    }
+
+    private static double standardDeviation(double sum, double squareSum, long count) {
+        if (count == 0) {
+            return 0.0;
+        }
+        double mean = sum / count;
+        // Rounding can make the variance slightly negative when all values are equal
+        return Math.sqrt(Math.max(0.0, squareSum / count - mean * mean));
+    }
+}
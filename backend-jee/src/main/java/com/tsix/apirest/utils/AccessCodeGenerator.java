@@ -1,9 +1,16 @@
 package com.tsix.apirest.utils;
 import java.security.SecureRandom;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
 public class AccessCodeGenerator {
+    private static final int MAX_ROUNDS = 5;
+    private static final SecureRandom random = new SecureRandom();
 
     public static String generateAccessCode() {
-        SecureRandom random = new SecureRandom();
         StringBuilder accessCode = new StringBuilder();
         for (int i = 0; i < 4; i++) {
             char letter = (char) ('A' + random.nextInt(26));
@@ -17,4 +24,40 @@ public class AccessCodeGenerator {
 
         return accessCode.toString();
     }
+
+    /**
+     * Replaces codes that repeat within {@code codes} or that {@code taken} reports as already
+     * issued, until every code is unique. {@code taken} receives the candidate codes and
+     * returns those already in use; only replacements are checked again.
+     */
+    public static void makeUnique(List<String> codes, Function<Collection<String>, Collection<String>> taken) {
+        Set<String> seen = new HashSet<>(codes.size() * 2);
+        Set<Integer> toCheck = new HashSet<>();
+        for (int i = 0; i < codes.size(); i++) {
+            while (!seen.add(codes.get(i))) {
+                codes.set(i, generateAccessCode());
+            }
+            toCheck.add(i);
+        }
+        for (int round = 0; round < MAX_ROUNDS && !toCheck.isEmpty(); round++) {
+            Set<String> candidates = new HashSet<>();
+            toCheck.forEach(i -> candidates.add(codes.get(i)));
+            Set<String> inUse = new HashSet<>(taken.apply(candidates));
+            Set<Integer> replaced = new HashSet<>();
+            for (int i : toCheck) {
+                if (inUse.contains(codes.get(i))) {
+                    String code;
+                    do {
+                        code = generateAccessCode();
+                    } while (!seen.add(code));
+                    codes.set(i, code);
+                    replaced.add(i);
+                }
+            }
+            toCheck = replaced;
+        }
+        if (!toCheck.isEmpty()) {
+            throw new IllegalStateException("Could not issue unique access codes after " + MAX_ROUNDS + " attempts");
+        }
+    }
 }
@@ -0,0 +1,31 @@
+package com.tsix.apirest.utils;
+
+/**
+ * Reads optional tuning values from environment variables, falling back to a default
+ * when the variable is missing or malformed.
+ */
+public class EnvConfig {
+
+    private EnvConfig() {}
+
+    public static String stringValue(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    public static int intValue(String name, int defaultValue) {
+        try {
+            return Integer.parseInt(stringValue(name, String.valueOf(defaultValue)));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    public static long longValue(String name, long defaultValue) {
+        try {
+            return Long.parseLong(stringValue(name, String.valueOf(defaultValue)));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.tsix.apirest.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Small thread-safe in-memory cache bounded by entry count (least recently used entries
+ * are evicted first) where every entry also expires after its own time to live.
+ */
+public class LruTtlCache<K, V> {
+    private final int maxEntries;
+    private final long defaultTtlNanos;
+    private final LongSupplier clock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    private record Entry<V>(V value, long expiresAtNanos) {}
+
+    public LruTtlCache(int maxEntries, long defaultTtl, TimeUnit unit) {
+        this(maxEntries, defaultTtl, unit, System::nanoTime);
+    }
+
+    public LruTtlCache(int maxEntries, long defaultTtl, TimeUnit unit, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.defaultTtlNanos = unit.toNanos(defaultTtl);
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > LruTtlCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.expiresAtNanos() - clock.getAsLong() <= 0) {
+            entries.remove(key);
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value();
+    }
+
+    public void put(K key, V value) {
+        put(key, value, defaultTtlNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stores a value with its own time to live, capped by the cache default.
+     */
+    public synchronized void put(K key, V value, long ttl, TimeUnit unit) {
+        long ttlNanos = Math.min(unit.toNanos(ttl), defaultTtlNanos);
+        if (ttlNanos <= 0) {
+            return;
+        }
+        entries.put(key, new Entry<>(value, clock.getAsLong() + ttlNanos));
+    }
+
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized long evictions() {
+        return evictions;
+    }
+}
@@ -0,0 +1,110 @@
+package com.tsix.apirest.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Mail template compiled once into literal and variable segments, with {@code ${name}}
+ * placeholders. Rendering only appends segments, the source is never parsed again.
+ * Variables known when the template is compiled (e.g. the enterprise name) can be bound
+ * right away and are folded into the literals.
+ */
+public final class MailTemplate {
+    private final String[] literals;
+    private final String[] variables;
+    private final boolean html;
+    private final int literalLength;
+
+    private MailTemplate(String[] literals, String[] variables, boolean html) {
+        this.literals = literals;
+        this.variables = variables;
+        this.html = html;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Compiles {@code source}, replacing the variables found in {@code bound} right away.
+     * Every other placeholder must be one of {@code allowed}. When {@code html} is true,
+     * variable values are HTML-escaped.
+     */
+    public static MailTemplate compile(String source, Map<String, String> bound, Set<String> allowed, boolean html) {
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < source.length()) {
+            int start = source.indexOf("${", i);
+            if (start < 0) {
+                literal.append(source, i, source.length());
+                break;
+            }
+            int end = source.indexOf('}', start + 2);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at offset " + start);
+            }
+            literal.append(source, i, start);
+            String name = source.substring(start + 2, end).trim();
+            if (bound.containsKey(name)) {
+                String value = bound.get(name);
+                literal.append(html ? escapeHtml(value) : nullToEmpty(value));
+            } else if (allowed.contains(name)) {
+                literals.add(literal.toString());
+                variables.add(name);
+                literal.setLength(0);
+            } else {
+                throw new IllegalArgumentException("Unknown template variable: " + name);
+            }
+            i = end + 1;
+        }
+        literals.add(literal.toString());
+        return new MailTemplate(literals.toArray(String[]::new), variables.toArray(String[]::new), html);
+    }
+
+    public String render(Map<String, String> values) {
+        StringBuilder out = new StringBuilder(literalLength + variables.length * 24);
+        out.append(literals[0]);
+        for (int i = 0; i < variables.length; i++) {
+            String value = values.get(variables[i]);
+            out.append(html ? escapeHtml(value) : nullToEmpty(value));
+            out.append(literals[i + 1]);
+        }
+        return out.toString();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    static String escapeHtml(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder out = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement = switch (c) {
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '&' -> "&amp;";
+                case '"' -> "&quot;";
+                case '\'' -> "&#39;";
+                default -> null;
+            };
+            if (replacement != null) {
+                if (out == null) {
+                    out = new StringBuilder(value.length() + 16).append(value, 0, i);
+                }
+                out.append(replacement);
+            } else if (out != null) {
+                out.append(c);
+            }
+        }
+        return out == null ? value : out.toString();
+    }
+}
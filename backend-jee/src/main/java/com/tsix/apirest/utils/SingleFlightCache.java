@@ -0,0 +1,73 @@
+package com.tsix.apirest.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * {@link LruTtlCache} that loads each missing key once: concurrent misses for the same key
+ * wait for the load already running instead of starting their own. A failed load is not
+ * kept, and its waiters retry on their own. A load that raced with an invalidation is
+ * returned to its callers but not kept.
+ */
+public class SingleFlightCache<K, V> {
+    private final LruTtlCache<K, V> values;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public SingleFlightCache(int maxEntries, long ttl, TimeUnit unit) {
+        this.values = new LruTtlCache<>(maxEntries, ttl, unit);
+    }
+
+    public V get(K key, Function<K, V> loader) {
+        while (true) {
+            V cached = values.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            CompletableFuture<V> inFlight = loading.get(key);
+            if (inFlight != null) {
+                try {
+                    return inFlight.join();
+                } catch (CompletionException e) {
+                    // The load failed for its own caller; try again on our own
+                    loading.remove(key, inFlight);
+                    continue;
+                }
+            }
+            CompletableFuture<V> load = new CompletableFuture<>();
+            if (loading.putIfAbsent(key, load) != null) {
+                continue;
+            }
+            long invalidationsAtStart = invalidations.get();
+            try {
+                V value = loader.apply(key);
+                values.put(key, value);
+                // Checked after the put so an invalidation landing in between still drops the value
+                if (invalidations.get() != invalidationsAtStart) {
+                    values.remove(key);
+                }
+                load.complete(value);
+                return value;
+            } catch (RuntimeException e) {
+                load.completeExceptionally(e);
+                throw e;
+            } finally {
+                loading.remove(key, load);
+            }
+        }
+    }
+
+    public void invalidate(K key) {
+        invalidations.incrementAndGet();
+        loading.remove(key);
+        values.remove(key);
+    }
+
+    public int size() {
+        return values.size();
+    }
+}
@@ -0,0 +1,238 @@
+package com.tsix.apirest.utils;
+
+import jakarta.mail.Address;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Small pool of connected, authenticated SMTP transports.
+ * A connection is reused for up to {@code maxMessagesPerConnection} messages, checked with a
+ * NOOP when it has been idle for a while, and replaced once when a send fails because the
+ * server dropped it. Sends are throttled by a token bucket sized to the provider limits.
+ */
+public class SmtpTransportPool implements AutoCloseable {
+
+    @FunctionalInterface
+    public interface Connector {
+        Transport open() throws MessagingException;
+    }
+
+    /**
+     * Thrown when the send rate limit is still exhausted after waiting: the message was not
+     * attempted and can be sent later as is.
+     */
+    public static class RateLimitedException extends MessagingException {
+        public RateLimitedException(String message) {
+            super(message);
+        }
+    }
+
+    public record Stats(long sent, long failed, long rateLimited, long connectionsOpened, long reconnects,
+                        int idleConnections, double sentLastMinutePerSecond,
+                        double averageLatencyMillis, double maxLatencyMillis) {}
+
+    private static final long IDLE_CHECK_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final Connector connector;
+    private final int maxMessagesPerConnection;
+    private final TokenBucket rateLimiter;
+    private final Duration rateWait;
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<Connection> idle = new LinkedBlockingDeque<>();
+    private final RateWindow window = new RateWindow();
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final AtomicLong connectionsOpened = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+    private final AtomicLong latencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    private volatile boolean closed;
+
+    private static final class Connection {
+        private final Transport transport;
+        private int messages;
+        private long lastUsed = System.nanoTime();
+
+        private Connection(Transport transport) {
+            this.transport = transport;
+        }
+    }
+
+    public SmtpTransportPool(Connector connector, int size, int maxMessagesPerConnection,
+                             TokenBucket rateLimiter, Duration rateWait) {
+        if (size < 1 || maxMessagesPerConnection < 1) {
+            throw new IllegalArgumentException("size and maxMessagesPerConnection must be >= 1");
+        }
+        this.connector = connector;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.rateLimiter = rateLimiter;
+        this.rateWait = rateWait;
+        this.permits = new Semaphore(size, true);
+    }
+
+    /**
+     * Sends the message on a pooled connection, blocking while all connections are busy.
+     */
+    public void send(Message message) throws MessagingException {
+        if (closed) {
+            throw new MessagingException("SMTP transport pool is closed");
+        }
+        acquireRate();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrupted while waiting for an SMTP connection", e);
+        }
+        long start = System.nanoTime();
+        Connection connection = null;
+        try {
+            connection = borrow();
+            Address[] recipients = message.getAllRecipients();
+            try {
+                connection.transport.sendMessage(message, recipients);
+            } catch (SendFailedException e) {
+                // Rejected recipients: the connection itself is still fine
+                throw e;
+            } catch (MessagingException e) {
+                // Usually a connection the server closed while it was idle; retry once on a fresh one
+                discard(connection);
+                connection = null;
+                reconnects.incrementAndGet();
+                connection = open();
+                connection.transport.sendMessage(message, recipients);
+            }
+            connection.messages++;
+            recordSuccess(System.nanoTime() - start);
+        } catch (MessagingException | RuntimeException e) {
+            failed.incrementAndGet();
+            if (connection != null && !(e instanceof SendFailedException)) {
+                discard(connection);
+                connection = null;
+            }
+            throw e;
+        } finally {
+            giveBack(connection);
+            permits.release();
+        }
+    }
+
+    public Stats stats() {
+        long count = sent.get();
+        return new Stats(count, failed.get(), rateLimited.get(), connectionsOpened.get(), reconnects.get(),
+                idle.size(), window.perSecond(),
+                count == 0 ? 0 : latencyNanos.get() / (double) count / 1_000_000,
+                maxLatencyNanos.get() / 1_000_000.0);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            discard(connection);
+        }
+    }
+
+    private void acquireRate() throws MessagingException {
+        try {
+            if (!rateLimiter.tryAcquire(rateWait.toMillis(), TimeUnit.MILLISECONDS)) {
+                rateLimited.incrementAndGet();
+                throw new RateLimitedException("SMTP send rate limit reached");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrupted while waiting for the SMTP rate limit", e);
+        }
+    }
+
+    private Connection borrow() throws MessagingException {
+        Connection connection;
+        // Most recently used first, so extra connections go idle and the server closes them
+        while ((connection = idle.pollFirst()) != null) {
+            if (System.nanoTime() - connection.lastUsed < IDLE_CHECK_NANOS || connection.transport.isConnected()) {
+                return connection;
+            }
+            discard(connection);
+        }
+        return open();
+    }
+
+    private Connection open() throws MessagingException {
+        Transport transport = connector.open();
+        connectionsOpened.incrementAndGet();
+        return new Connection(transport);
+    }
+
+    private void giveBack(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        if (closed || connection.messages >= maxMessagesPerConnection) {
+            discard(connection);
+            return;
+        }
+        connection.lastUsed = System.nanoTime();
+        idle.offerFirst(connection);
+    }
+
+    private static void discard(Connection connection) {
+        try {
+            connection.transport.close();
+        } catch (MessagingException ignored) {
+            // The connection is being dropped anyway
+        }
+    }
+
+    private void recordSuccess(long nanos) {
+        sent.incrementAndGet();
+        latencyNanos.addAndGet(nanos);
+        maxLatencyNanos.accumulateAndGet(nanos, Math::max);
+        window.record();
+    }
+
+    /**
+     * Messages sent during the last 60 seconds, in one-second buckets.
+     */
+    private static final class RateWindow {
+        private final long[] counts = new long[60];
+        private final long[] seconds = new long[60];
+
+        RateWindow() {
+            Arrays.fill(seconds, Long.MIN_VALUE);
+        }
+
+        synchronized void record() {
+            long now = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+            int slot = (int) Math.floorMod(now, (long) counts.length);
+            if (seconds[slot] != now) {
+                seconds[slot] = now;
+                counts[slot] = 0;
+            }
+            counts[slot]++;
+        }
+
+        synchronized double perSecond() {
+            long now = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (seconds[i] != Long.MIN_VALUE && now - seconds[i] < counts.length) {
+                    total += counts[i];
+                }
+            }
+            return total / (double) counts.length;
+        }
+    }
+}
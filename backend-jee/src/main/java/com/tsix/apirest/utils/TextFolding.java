@@ -0,0 +1,85 @@
+package com.tsix.apirest.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Case/accent folding, tokenization and light suffix stemming used to compare
+ * free-text answers with expected keywords.
+ */
+public class TextFolding {
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MIN_STEM_LENGTH = 3;
+    // Longest suffixes first; covers the usual English and French inflections
+    private static final String[][] SUFFIXES = {
+            {"ations", ""}, {"ation", ""}, {"ements", ""}, {"ement", ""}, {"ments", ""}, {"ment", ""},
+            {"ities", ""}, {"ity", ""}, {"ings", ""}, {"ing", ""}, {"ies", "y"}, {"ers", ""}, {"er", ""},
+            {"es", ""}, {"ed", ""}, {"s", ""}, {"e", ""}
+    };
+
+    private TextFolding() {}
+
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Folds, splits on anything that is not a letter or digit and stems every token.
+     */
+    public static List<String> stemmedTokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_WORD.split(fold(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(stem(token));
+            }
+        }
+        return tokens;
+    }
+
+    public static String stem(String token) {
+        for (String[] suffix : SUFFIXES) {
+            if (token.endsWith(suffix[0]) && token.length() - suffix[0].length() >= MIN_STEM_LENGTH) {
+                return token.substring(0, token.length() - suffix[0].length()) + suffix[1];
+            }
+        }
+        return token;
+    }
+
+    /**
+     * Levenshtein distance, giving up (returning {@code max + 1}) as soon as it exceeds {@code max}.
+     */
+    public static int boundedDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
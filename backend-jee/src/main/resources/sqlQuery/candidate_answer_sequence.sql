@@ -0,0 +1,13 @@
+-- Switch candidate_answer ids from IDENTITY to a pooled sequence
+-- IDENTITY ids force Hibernate to insert rows one by one; with a sequence
+-- (allocation size 50) the inserts of a submission are sent as JDBC batches
+
+-- Step 1: Create the sequence used by the CandidateAnswer entity
+CREATE SEQUENCE IF NOT EXISTS candidate_answer_seq INCREMENT BY 50;
+
+-- Step 2: Move the sequence past the ids already handed out
+-- The pooled optimizer uses (value - 49 .. value), so keep a full block of margin
+SELECT setval('candidate_answer_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM candidate_answer), false);
+
+-- Step 3: Verify the sequence value
+SELECT last_value FROM candidate_answer_seq;
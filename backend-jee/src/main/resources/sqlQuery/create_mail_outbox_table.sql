@@ -0,0 +1,38 @@
+-- Bulk invitations: pooled test_session ids and a durable outbox for invitation mails
+-- IDENTITY ids force Hibernate to insert sessions one by one; with a sequence
+-- (allocation size 50) the sessions of an invitation are sent as JDBC batches
+
+-- Step 1: Create the sequence used by the TestSession entity
+CREATE SEQUENCE IF NOT EXISTS test_session_seq INCREMENT BY 50;
+
+-- Step 2: Move the sequence past the ids already handed out
+-- The pooled optimizer uses (value - 49 .. value), so keep a full block of margin
+SELECT setval('test_session_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM test_session), false);
+
+-- Step 3: Create the outbox table drained by the mail dispatcher
+CREATE SEQUENCE IF NOT EXISTS mail_outbox_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS mail_outbox (
+    id BIGINT PRIMARY KEY,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    body TEXT NOT NULL,
+    test_session_id BIGINT,
+    status VARCHAR(16) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    available_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    locked_until TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    sent_at TIMESTAMP,
+
+    CONSTRAINT fk_mail_outbox_test_session
+        FOREIGN KEY (test_session_id)
+        REFERENCES test_session(id)
+        ON DELETE CASCADE
+);
+
+-- Step 4: Index used by the dispatcher to claim due mails
+CREATE INDEX IF NOT EXISTS idx_mail_outbox_pending
+    ON mail_outbox(available_at)
+    WHERE status = 'PENDING';
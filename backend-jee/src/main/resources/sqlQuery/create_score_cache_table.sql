@@ -0,0 +1,13 @@
+-- Persistent tier of the AI score cache
+-- cache_key is a SHA-256 of (question, normalized answer, model answer, max points, model/prompt version)
+CREATE TABLE IF NOT EXISTS score_cache (
+    cache_key VARCHAR(64) PRIMARY KEY,
+    question_id INTEGER NOT NULL,
+    score INTEGER NOT NULL,
+    feedback TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Used to purge old entries, e.g. DELETE FROM score_cache WHERE created_at < now() - interval '30 days'
+CREATE INDEX IF NOT EXISTS idx_score_cache_created_at
+    ON score_cache(created_at);
@@ -0,0 +1,39 @@
+-- Durable queue for open answers scored in the background by the Groq worker
+
+-- Step 1: Track the scoring state of every candidate answer
+ALTER TABLE candidate_answer ADD COLUMN IF NOT EXISTS scoring_status VARCHAR(32);
+
+UPDATE candidate_answer
+SET scoring_status = CASE WHEN is_correct IS NULL AND open_answer_text IS NOT NULL THEN 'MANUAL_REVIEW' ELSE 'SCORED' END
+WHERE scoring_status IS NULL;
+
+-- Step 2: Create the queue table
+CREATE SEQUENCE IF NOT EXISTS scoring_job_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS scoring_job (
+    id BIGINT PRIMARY KEY,
+    candidate_answer_id BIGINT NOT NULL UNIQUE,
+    test_session_id BIGINT NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    available_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    locked_until TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_scoring_job_candidate_answer
+        FOREIGN KEY (candidate_answer_id)
+        REFERENCES candidate_answer(id)
+        ON DELETE CASCADE,
+
+    CONSTRAINT fk_scoring_job_test_session
+        FOREIGN KEY (test_session_id)
+        REFERENCES test_session(id)
+        ON DELETE CASCADE
+);
+
+-- Step 3: Indexes used by the worker (claiming due jobs) and by the results endpoint
+CREATE INDEX IF NOT EXISTS idx_scoring_job_available_at
+    ON scoring_job(available_at);
+
+CREATE INDEX IF NOT EXISTS idx_scoring_job_test_session
+    ON scoring_job(test_session_id);
@@ -0,0 +1,89 @@
+-- Aggregates of graded sessions read by GET /test/{testId}/statistics
+-- Updated by increments when the grading of a session completes, never recomputed on read
+
+-- Step 1: Remember which sessions are already counted
+ALTER TABLE test_session ADD COLUMN IF NOT EXISTS stats_recorded_at TIMESTAMP;
+
+-- Step 2: Create the aggregate tables
+CREATE TABLE IF NOT EXISTS test_score_stats (
+    test_id INTEGER PRIMARY KEY REFERENCES test(id) ON DELETE CASCADE,
+    sessions BIGINT NOT NULL,
+    score_sum DOUBLE PRECISION NOT NULL,
+    score_square_sum DOUBLE PRECISION NOT NULL,
+    min_score DOUBLE PRECISION NOT NULL,
+    max_score DOUBLE PRECISION NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Bucket b counts the sessions scoring in [10 * b %, 10 * (b + 1) %) of the total points
+CREATE TABLE IF NOT EXISTS test_score_bucket (
+    test_id INTEGER NOT NULL REFERENCES test(id) ON DELETE CASCADE,
+    bucket INTEGER NOT NULL CHECK (bucket BETWEEN 0 AND 9),
+    sessions BIGINT NOT NULL,
+    PRIMARY KEY (test_id, bucket)
+);
+
+CREATE TABLE IF NOT EXISTS test_question_stats (
+    test_id INTEGER NOT NULL REFERENCES test(id) ON DELETE CASCADE,
+    question_id INTEGER NOT NULL REFERENCES question(id) ON DELETE CASCADE,
+    answers BIGINT NOT NULL,
+    correct BIGINT NOT NULL,
+    points_sum DOUBLE PRECISION NOT NULL,
+    points_square_sum DOUBLE PRECISION NOT NULL,
+    PRIMARY KEY (test_id, question_id)
+);
+
+-- Step 3: Backfill from the sessions already graded
+-- A session counts once it is FINISHED with graded answers and no open answer left to score
+-- Run before starting the version that maintains the aggregates
+BEGIN;
+
+CREATE TEMPORARY TABLE graded_session ON COMMIT DROP AS
+SELECT ts.id, ts.test_id, COALESCE(ts.score, 0) AS score,
+       (SELECT SUM(q.points) FROM test_questions tq JOIN question q ON q.id = tq.question_id
+        WHERE tq.test_id = ts.test_id) AS total_points
+FROM test_session ts
+WHERE ts.status = 'FINISHED' AND ts.stats_recorded_at IS NULL AND ts.test_id IS NOT NULL
+  AND EXISTS (SELECT 1 FROM candidate_answer ca WHERE ca.test_session_id = ts.id AND ca.scoring_status IS NOT NULL)
+  AND NOT EXISTS (SELECT 1 FROM scoring_job j WHERE j.test_session_id = ts.id);
+
+INSERT INTO test_score_stats (test_id, sessions, score_sum, score_square_sum, min_score, max_score, updated_at)
+SELECT test_id, COUNT(*), SUM(score), SUM(score * score), MIN(score), MAX(score), now()
+FROM graded_session
+GROUP BY test_id
+ON CONFLICT (test_id) DO UPDATE SET
+    sessions = test_score_stats.sessions + EXCLUDED.sessions,
+    score_sum = test_score_stats.score_sum + EXCLUDED.score_sum,
+    score_square_sum = test_score_stats.score_square_sum + EXCLUDED.score_square_sum,
+    min_score = LEAST(test_score_stats.min_score, EXCLUDED.min_score),
+    max_score = GREATEST(test_score_stats.max_score, EXCLUDED.max_score),
+    updated_at = EXCLUDED.updated_at;
+
+INSERT INTO test_score_bucket (test_id, bucket, sessions)
+SELECT test_id, CAST(LEAST(9, GREATEST(0, FLOOR(10 * score / total_points))) AS INTEGER) AS bucket, COUNT(*)
+FROM graded_session
+WHERE total_points > 0
+GROUP BY 1, 2
+ON CONFLICT (test_id, bucket) DO UPDATE SET sessions = test_score_bucket.sessions + EXCLUDED.sessions;
+
+INSERT INTO test_question_stats (test_id, question_id, answers, correct, points_sum, points_square_sum)
+SELECT gs.test_id, ca.question_id, COUNT(*),
+       COUNT(*) FILTER (WHERE ca.is_correct),
+       SUM(COALESCE(ca.points_earned, 0)),
+       SUM(COALESCE(ca.points_earned, 0) * COALESCE(ca.points_earned, 0))
+FROM graded_session gs
+JOIN candidate_answer ca ON ca.test_session_id = gs.id AND ca.scoring_status IS NOT NULL
+GROUP BY gs.test_id, ca.question_id
+ON CONFLICT (test_id, question_id) DO UPDATE SET
+    answers = test_question_stats.answers + EXCLUDED.answers,
+    correct = test_question_stats.correct + EXCLUDED.correct,
+    points_sum = test_question_stats.points_sum + EXCLUDED.points_sum,
+    points_square_sum = test_question_stats.points_square_sum + EXCLUDED.points_square_sum;
+
+UPDATE test_session SET stats_recorded_at = now()
+WHERE id IN (SELECT id FROM graded_session);
+
+COMMIT;
+
+-- Step 4: Verify the totals
+SELECT test_id, sessions, score_sum / sessions AS mean_score FROM test_score_stats ORDER BY test_id;
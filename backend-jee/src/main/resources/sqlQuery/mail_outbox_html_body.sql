@@ -0,0 +1,4 @@
+-- Invitation mails are sent as text and HTML (multipart/alternative)
+
+-- Step 1: Store the HTML alternative next to the text body
+ALTER TABLE mail_outbox ADD COLUMN IF NOT EXISTS html_body TEXT;
@@ -0,0 +1,16 @@
+-- Indexes backing the keyset-paginated question bank (GET /test/questions/page)
+
+-- Step 1: keyset scan of an enterprise's questions by id
+CREATE INDEX IF NOT EXISTS idx_question_enterprise_id
+    ON question(enterprise_id, id);
+
+-- Step 2: case-insensitive label prefix filter (LOWER(label) LIKE 'prefix%')
+CREATE INDEX IF NOT EXISTS idx_question_enterprise_label_prefix
+    ON question(enterprise_id, lower(label) text_pattern_ops);
+
+-- Step 3: batched loading of the choices and keywords of one page
+-- (openanswer.question_id is already indexed by its unique constraint)
+CREATE INDEX IF NOT EXISTS idx_answer_question_id
+    ON answer(question_id);
+CREATE INDEX IF NOT EXISTS idx_keywords_open_answer_id
+    ON keywords(open_answer_id);
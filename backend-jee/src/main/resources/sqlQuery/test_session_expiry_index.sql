@@ -0,0 +1,11 @@
+-- Index used by the session expiry sweeper
+-- Expired sessions are found by status and expiration, and walked in (tokenexpiresat, id) order
+
+-- Step 1: Create the index
+CREATE INDEX IF NOT EXISTS idx_test_session_status_expires
+    ON test_session(status, tokenexpiresat, id);
+
+-- Step 2: Sessions the next sweep will finish
+SELECT COUNT(*)
+FROM test_session
+WHERE status IN ('PLANNED', 'SCHEDULED', 'ACTIVE') AND tokenexpiresat < now();
@@ -0,0 +1,43 @@
+-- Candidate access codes must be unique: the login looks a session up by its code alone
+
+-- Step 1: List codes shared by several sessions (should return no rows)
+SELECT token, COUNT(*) AS sessions
+FROM test_session
+GROUP BY token
+HAVING COUNT(*) > 1;
+
+-- Step 2: Give a fresh code to every duplicate but the oldest session, used or not
+-- (a used code cannot log in again). Each fresh code is checked against the codes in the
+-- table, and the pass repeats until no code is shared
+DO $$
+DECLARE
+    duplicate RECORD;
+    fresh VARCHAR;
+BEGIN
+    LOOP
+        FOR duplicate IN
+            SELECT t.id FROM test_session t
+            WHERE EXISTS (SELECT 1 FROM test_session o WHERE o.token = t.token AND o.id < t.id)
+        LOOP
+            -- Same format as AccessCodeGenerator: four letters then two digits
+            LOOP
+                fresh := chr(65 + floor(random() * 26)::int) || chr(65 + floor(random() * 26)::int)
+                      || chr(65 + floor(random() * 26)::int) || chr(65 + floor(random() * 26)::int)
+                      || floor(random() * 10)::int || floor(random() * 10)::int;
+                EXIT WHEN NOT EXISTS (SELECT 1 FROM test_session WHERE token = fresh);
+            END LOOP;
+            UPDATE test_session SET token = fresh WHERE id = duplicate.id;
+        END LOOP;
+        EXIT WHEN NOT EXISTS (SELECT 1 FROM test_session GROUP BY token HAVING COUNT(*) > 1);
+    END LOOP;
+END $$;
+
+-- Step 3: Check that Step 1 now returns no rows
+SELECT token, COUNT(*) AS sessions
+FROM test_session
+GROUP BY token
+HAVING COUNT(*) > 1;
+
+-- Step 4: Enforce uniqueness (databases created from migration.sql already have it)
+CREATE UNIQUE INDEX IF NOT EXISTS ux_test_session_token
+    ON test_session(token);
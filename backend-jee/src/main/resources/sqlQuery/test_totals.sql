@@ -0,0 +1,23 @@
+-- Question count and total points stored on each test
+-- Results, login and score buckets read them instead of loading or joining the test's questions
+
+-- Step 1: Add the columns
+ALTER TABLE test ADD COLUMN IF NOT EXISTS question_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE test ADD COLUMN IF NOT EXISTS total_points DOUBLE PRECISION NOT NULL DEFAULT 0;
+
+-- Step 2: Fill them for the existing tests
+UPDATE test t
+SET question_count = totals.question_count,
+    total_points = totals.total_points
+FROM (
+    SELECT tq.test_id, COUNT(*) AS question_count, COALESCE(SUM(q.points), 0) AS total_points
+    FROM test_questions tq
+    JOIN question q ON q.id = tq.question_id
+    GROUP BY tq.test_id
+) totals
+WHERE t.id = totals.test_id;
+
+-- Step 3: Verify, no row should come back
+SELECT t.id, t.question_count, t.total_points
+FROM test t
+WHERE t.question_count <> (SELECT COUNT(*) FROM test_questions tq WHERE tq.test_id = t.id);
@@ -0,0 +1,326 @@
+package integrationTest;
+
+import com.tsix.apirest.dto.req.SubmitAnswerRequest;
+import com.tsix.apirest.entity.TestSessionStatus;
+import com.tsix.apirest.entity.enterprise.AdminAccount;
+import com.tsix.apirest.entity.enterprise.Domain;
+import com.tsix.apirest.entity.enterprise.Enterprise;
+import com.tsix.apirest.entity.mail.MailOutbox;
+import com.tsix.apirest.entity.test.*;
+import com.tsix.apirest.repository.CandidateAnswerRepo;
+import com.tsix.apirest.repository.CandidateAnswerRepo.Grade;
+import com.tsix.apirest.repository.TestSessionRepo;
+import com.tsix.apirest.repository.TestStatsRepo;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceConfiguration;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.PersistenceUnitTransactionType;
+import jakarta.persistence.SharedCacheMode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the hand-written SQL of the answer and statistics paths against a real Postgres:
+ * draft upserts, grading and the aggregate increments. Every test works on sessions of its
+ * own and commits, so locks taken by one transaction are seen by another.
+ * Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class CandidateAnswerSqlTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static EntityManagerFactory entityManagerFactory;
+    private static int testId;
+    private static int choiceQuestionId;
+    private static int openQuestionId;
+    private static int otherQuestionId;
+    private static int rightChoiceId;
+    private static int wrongChoiceId;
+    private static int otherQuestionChoiceId;
+
+    @BeforeAll
+    static void createSchema() {
+        PersistenceConfiguration configuration = new PersistenceConfiguration("answers")
+                .transactionType(PersistenceUnitTransactionType.RESOURCE_LOCAL)
+                .sharedCacheMode(SharedCacheMode.NONE)
+                .property(PersistenceConfiguration.JDBC_URL, POSTGRES.getJdbcUrl())
+                .property(PersistenceConfiguration.JDBC_USER, POSTGRES.getUsername())
+                .property(PersistenceConfiguration.JDBC_PASSWORD, POSTGRES.getPassword())
+                .property(PersistenceConfiguration.SCHEMAGEN_DATABASE_ACTION, "drop-and-create");
+        for (Class<?> entity : List.of(Domain.class, Enterprise.class, AdminAccount.class, MailOutbox.class,
+                com.tsix.apirest.entity.test.Test.class, TestQuestions.class, Question.class, QuestionTypes.class,
+                Answer.class, OpenAnswer.class, KeyWords.class, TestSession.class, CandidateAnswer.class,
+                ScoringJob.class, ScoreCacheEntry.class, TestScoreStats.class, TestScoreBucket.class,
+                TestQuestionStats.class)) {
+            configuration.managedClass(entity);
+        }
+        entityManagerFactory = configuration.createEntityManagerFactory();
+        entityManagerFactory.runInTransaction(entityManager -> {
+            // Parts of the schema that come from the migration scripts rather than the mappings
+            entityManager.createNativeQuery("ALTER TABLE candidate_answer " +
+                    "ADD CONSTRAINT unique_test_session_question UNIQUE (test_session_id, question_id)").executeUpdate();
+            entityManager.createNativeQuery("ALTER TABLE test_session " +
+                    "ADD COLUMN IF NOT EXISTS stats_recorded_at TIMESTAMP").executeUpdate();
+            seed(entityManager);
+        });
+    }
+
+    @AfterAll
+    static void close() {
+        entityManagerFactory.close();
+    }
+
+    @Test
+    void saving_the_same_question_again_replaces_the_draft() {
+        Long sessionId = newSession(TestSessionStatus.ACTIVE, null);
+
+        upsert(sessionId, new SubmitAnswerRequest(choiceQuestionId, wrongChoiceId, null));
+        List<Integer> saved = upsert(sessionId,
+                new SubmitAnswerRequest(choiceQuestionId, wrongChoiceId, null),
+                // The last answer to a question wins within one call too
+                new SubmitAnswerRequest(choiceQuestionId, rightChoiceId, null));
+
+        assertEquals(List.of(choiceQuestionId), saved);
+        List<Object[]> drafts = drafts(sessionId);
+        assertEquals(1, drafts.size());
+        assertEquals(rightChoiceId, ((Number) drafts.get(0)[2]).intValue());
+    }
+
+    @Test
+    void questions_and_choices_outside_the_test_are_not_stored() {
+        Long sessionId = newSession(TestSessionStatus.ACTIVE, null);
+
+        List<Integer> saved = upsert(sessionId,
+                new SubmitAnswerRequest(choiceQuestionId, otherQuestionChoiceId, null),
+                new SubmitAnswerRequest(otherQuestionId, otherQuestionChoiceId, null));
+
+        assertEquals(List.of(choiceQuestionId), saved);
+        // A choice of another question is stored as no choice
+        assertNull(drafts(sessionId).get(0)[2]);
+    }
+
+    @Test
+    void finished_and_expired_sessions_get_no_rows() {
+        Long finished = newSession(TestSessionStatus.FINISHED, null);
+        Long expired = newSession(TestSessionStatus.ACTIVE, LocalDateTime.now().minusMinutes(1));
+
+        List<Object[]> saved = entityManagerFactory.callInTransaction(entityManager ->
+                new CandidateAnswerRepo(entityManager).upsertDrafts(Map.of(
+                        finished, List.of(new SubmitAnswerRequest(choiceQuestionId, rightChoiceId, null)),
+                        expired, List.of(new SubmitAnswerRequest(choiceQuestionId, rightChoiceId, null)))));
+
+        assertTrue(saved.isEmpty());
+        assertEquals(0, countAnswers(finished) + countAnswers(expired));
+    }
+
+    @Test
+    void graded_answers_are_kept_by_later_saves_and_later_grades() {
+        Long sessionId = newSession(TestSessionStatus.ACTIVE, null);
+        upsert(sessionId, new SubmitAnswerRequest(choiceQuestionId, rightChoiceId, null),
+                new SubmitAnswerRequest(openQuestionId, null, "Dependency injection"));
+        List<Object[]> drafts = drafts(sessionId);
+        long choiceAnswerId = ((Number) drafts.get(0)[0]).longValue();
+        long openAnswerId = ((Number) drafts.get(1)[0]).longValue();
+
+        entityManagerFactory.runInTransaction(entityManager -> new CandidateAnswerRepo(entityManager).saveGrades(List.of(
+                new Grade(choiceAnswerId, 2.0, true, ScoringStatus.SCORED),
+                new Grade(openAnswerId, 0.0, null, ScoringStatus.PENDING_SCORING)), LocalDateTime.now()));
+        List<Integer> saved = upsert(sessionId, new SubmitAnswerRequest(choiceQuestionId, wrongChoiceId, null));
+        entityManagerFactory.runInTransaction(entityManager -> new CandidateAnswerRepo(entityManager).saveGrades(List.of(
+                new Grade(choiceAnswerId, 0.0, false, ScoringStatus.SCORED)), LocalDateTime.now()));
+
+        assertTrue(saved.isEmpty());
+        assertTrue(drafts(sessionId).isEmpty());
+        CandidateAnswer choice = find(CandidateAnswer.class, choiceAnswerId);
+        assertEquals(rightChoiceId, choice.getSelectedAnswer().getId());
+        assertEquals(2.0, choice.getPointsEarned());
+        assertEquals(true, choice.getIsCorrect());
+        assertEquals(ScoringStatus.PENDING_SCORING, find(CandidateAnswer.class, openAnswerId).getScoringStatus());
+    }
+
+    @Test
+    void submit_waits_for_a_draft_save_and_saves_after_it_write_nothing() {
+        Long sessionId = newSession(TestSessionStatus.ACTIVE, null);
+        EntityManager saving = entityManagerFactory.createEntityManager();
+        EntityManager submitting = entityManagerFactory.createEntityManager();
+        try {
+            saving.getTransaction().begin();
+            new CandidateAnswerRepo(saving).upsertDrafts(sessionId,
+                    List.of(new SubmitAnswerRequest(choiceQuestionId, rightChoiceId, null)));
+
+            // The save share-locks the session, so the submit cannot lock it for update yet
+            submitting.getTransaction().begin();
+            submitting.createNativeQuery("SET LOCAL lock_timeout = '300ms'").executeUpdate();
+            assertThrows(PersistenceException.class, () -> new TestSessionRepo(submitting).findByIdForUpdate(sessionId));
+            submitting.getTransaction().rollback();
+
+            saving.getTransaction().commit();
+        } finally {
+            saving.close();
+            submitting.close();
+        }
+        entityManagerFactory.runInTransaction(entityManager -> new TestSessionRepo(entityManager)
+                .findByIdForUpdate(sessionId).orElseThrow().setStatus(TestSessionStatus.FINISHED));
+
+        List<Integer> saved = upsert(sessionId, new SubmitAnswerRequest(choiceQuestionId, wrongChoiceId, null));
+
+        assertTrue(saved.isEmpty());
+        assertEquals(rightChoiceId, ((Number) drafts(sessionId).get(0)[2]).intValue());
+    }
+
+    @Test
+    void a_session_is_added_to_the_aggregates_once() {
+        Long first = newSession(TestSessionStatus.FINISHED, null);
+        Long second = newSession(TestSessionStatus.FINISHED, null);
+        gradedAnswer(first, choiceQuestionId, 2.0, true);
+        gradedAnswer(first, openQuestionId, 1.0, false);
+        gradedAnswer(second, choiceQuestionId, 0.0, false);
+
+        aggregate(first, 3.0);
+        aggregate(second, 0.0);
+        aggregate(first, 3.0);
+
+        TestScoreStats stats = find(TestScoreStats.class, testId);
+        assertEquals(2, stats.getSessions());
+        assertEquals(3.0, stats.getScoreSum());
+        assertEquals(0.0, stats.getMinScore());
+        assertEquals(3.0, stats.getMaxScore());
+        List<TestScoreBucket> buckets = entityManagerFactory.callInTransaction(entityManager ->
+                new TestStatsRepo(entityManager).findBuckets(testId));
+        // Total points are 4: 3.0 falls in bucket 7 of 10, 0.0 in bucket 0
+        assertEquals(List.of(0, 7), buckets.stream().map(TestScoreBucket::getBucket).toList());
+        List<Object[]> questions = entityManagerFactory.callInTransaction(entityManager ->
+                new TestStatsRepo(entityManager).findQuestionStats(testId));
+        TestQuestionStats choice = (TestQuestionStats) questions.get(0)[0];
+        assertEquals(2, choice.getAnswers());
+        assertEquals(1, choice.getCorrect());
+        assertEquals(2.0, choice.getPointsSum());
+    }
+
+    private static void aggregate(Long sessionId, double score) {
+        entityManagerFactory.runInTransaction(entityManager -> {
+            TestStatsRepo repo = new TestStatsRepo(entityManager);
+            repo.markAggregated(sessionId).ifPresent(test -> {
+                repo.addSessionScore(test, score);
+                repo.addSessionAnswers(test, sessionId);
+            });
+        });
+    }
+
+    private static List<Integer> upsert(Long sessionId, SubmitAnswerRequest... answers) {
+        return entityManagerFactory.callInTransaction(entityManager ->
+                new CandidateAnswerRepo(entityManager).upsertDrafts(sessionId, List.of(answers)));
+    }
+
+    private static List<Object[]> drafts(Long sessionId) {
+        return entityManagerFactory.callInTransaction(entityManager ->
+                new CandidateAnswerRepo(entityManager).findDraftRows(sessionId));
+    }
+
+    private static long countAnswers(Long sessionId) {
+        return entityManagerFactory.callInTransaction(entityManager ->
+                new CandidateAnswerRepo(entityManager).findByTestSessionId(sessionId).size());
+    }
+
+    private static <T> T find(Class<T> type, Object id) {
+        return entityManagerFactory.callInTransaction(entityManager -> entityManager.find(type, id));
+    }
+
+    private static Long newSession(TestSessionStatus status, LocalDateTime expiresAt) {
+        return entityManagerFactory.callInTransaction(entityManager -> {
+            TestSession session = new TestSession();
+            session.setEmailCandidate("candidate@test.com");
+            session.setCodeSession("S" + System.nanoTime());
+            session.setTest(entityManager.getReference(com.tsix.apirest.entity.test.Test.class, testId));
+            session.setStatus(status);
+            session.setDateExpiration(expiresAt);
+            entityManager.persist(session);
+            return session.getId();
+        });
+    }
+
+    private static void gradedAnswer(Long sessionId, int questionId, double points, boolean correct) {
+        entityManagerFactory.runInTransaction(entityManager -> {
+            CandidateAnswer answer = new CandidateAnswer();
+            answer.setTestSession(entityManager.getReference(TestSession.class, sessionId));
+            answer.setQuestion(entityManager.getReference(Question.class, questionId));
+            answer.setPointsEarned(points);
+            answer.setIsCorrect(correct);
+            answer.setScoringStatus(ScoringStatus.SCORED);
+            entityManager.persist(answer);
+        });
+    }
+
+    private static void seed(EntityManager entityManager) {
+        Domain domain = new Domain("IT");
+        entityManager.persist(domain);
+        Enterprise enterprise = new Enterprise("Acme", domain);
+        entityManager.persist(enterprise);
+
+        Question choice = choiceQuestion(enterprise, "Which one?");
+        Question open = new Question();
+        open.setLabel("Explain");
+        open.setPoints(2);
+        open.setEnterprise(enterprise);
+        open.setQuestionType(QuestionType.OPEN_QUESTION);
+        OpenAnswer openAnswer = new OpenAnswer();
+        openAnswer.setExpectedAnswer("Dependency injection");
+        openAnswer.setQuestion(open);
+        open.setOpenAnswers(openAnswer);
+        // In the bank but not in the test
+        Question other = choiceQuestion(enterprise, "Not in this test");
+        for (Question question : List.of(choice, open, other)) {
+            entityManager.persist(question);
+        }
+
+        com.tsix.apirest.entity.test.Test test = new com.tsix.apirest.entity.test.Test();
+        test.setName("Java");
+        test.setEnterprise(enterprise);
+        test.setDurationMinute(30);
+        test.setIsActive(true);
+        test.setIsPublic(false);
+        test.setQuestionCount(2);
+        test.setTotalPoints(4);
+        test.addQuestions(choice, 1);
+        test.addQuestions(open, 2);
+        entityManager.persist(test);
+        entityManager.flush();
+
+        testId = test.getId();
+        choiceQuestionId = choice.getId();
+        openQuestionId = open.getId();
+        otherQuestionId = other.getId();
+        for (Answer answer : choice.getAnswers()) {
+            if (answer.isCorrect()) {
+                rightChoiceId = answer.getId();
+            } else {
+                wrongChoiceId = answer.getId();
+            }
+        }
+        otherQuestionChoiceId = other.getAnswers().iterator().next().getId();
+    }
+
+    private static Question choiceQuestion(Enterprise enterprise, String label) {
+        Question question = new Question();
+        question.setLabel(label);
+        question.setPoints(2);
+        question.setEnterprise(enterprise);
+        question.setQuestionType(QuestionType.QCM);
+        question.getAnswers().add(new Answer(0, question, "Right", true));
+        question.getAnswers().add(new Answer(0, question, "Wrong", false));
+        return question;
+    }
+}
@@ -0,0 +1,251 @@
+package integrationTest;
+
+import com.tsix.apirest.dto.res.CandidateQuestionResponse;
+import com.tsix.apirest.dto.res.QuestionPageResponse;
+import com.tsix.apirest.dto.res.QuestionResponse;
+import com.tsix.apirest.dto.res.TestQuestionResponse;
+import com.tsix.apirest.entity.enterprise.AdminAccount;
+import com.tsix.apirest.entity.enterprise.Domain;
+import com.tsix.apirest.entity.enterprise.Enterprise;
+import com.tsix.apirest.entity.mail.MailOutbox;
+import com.tsix.apirest.entity.test.*;
+import com.tsix.apirest.mapper.QuestionMapper;
+import com.tsix.apirest.repository.CandidateAnswerRepo;
+import com.tsix.apirest.repository.QuestionRepo;
+import com.tsix.apirest.repository.TestRepo;
+import com.tsix.apirest.service.RenderQuestions;
+import com.tsix.apirest.service.TestService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceConfiguration;
+import jakarta.persistence.PersistenceUnitTransactionType;
+import jakarta.persistence.SharedCacheMode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pins the number of SQL statements of each read path against a real Postgres, counted by
+ * Hibernate itself, so that a change bringing back per-question lazy loads or a wider graph
+ * shows up here. The second-level cache is off: every count is a cold read.
+ * Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class StatementCountTest {
+    private static final int CHOICE_QUESTIONS = 5;
+    private static final int QUESTIONS = CHOICE_QUESTIONS + 1;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final StatementCounter COUNTER = new StatementCounter();
+    private static EntityManagerFactory entityManagerFactory;
+    private static UUID enterpriseId;
+    private static int testId;
+    private static Long testSessionId;
+
+    private EntityManager entityManager;
+
+    @BeforeAll
+    static void createSchema() {
+        PersistenceConfiguration configuration = new PersistenceConfiguration("statements")
+                .transactionType(PersistenceUnitTransactionType.RESOURCE_LOCAL)
+                .sharedCacheMode(SharedCacheMode.NONE)
+                .property(PersistenceConfiguration.JDBC_URL, POSTGRES.getJdbcUrl())
+                .property(PersistenceConfiguration.JDBC_USER, POSTGRES.getUsername())
+                .property(PersistenceConfiguration.JDBC_PASSWORD, POSTGRES.getPassword())
+                .property(PersistenceConfiguration.SCHEMAGEN_DATABASE_ACTION, "drop-and-create")
+                .property("hibernate.session_factory.statement_inspector", COUNTER);
+        for (Class<?> entity : List.of(Domain.class, Enterprise.class, AdminAccount.class, MailOutbox.class,
+                com.tsix.apirest.entity.test.Test.class, TestQuestions.class, Question.class, QuestionTypes.class,
+                Answer.class, OpenAnswer.class, KeyWords.class, TestSession.class, CandidateAnswer.class,
+                ScoringJob.class, ScoreCacheEntry.class, TestScoreStats.class, TestScoreBucket.class,
+                TestQuestionStats.class)) {
+            configuration.managedClass(entity);
+        }
+        entityManagerFactory = configuration.createEntityManagerFactory();
+        entityManagerFactory.runInTransaction(StatementCountTest::seed);
+    }
+
+    @AfterAll
+    static void close() {
+        entityManagerFactory.close();
+    }
+
+    @BeforeEach
+    void open() {
+        entityManager = entityManagerFactory.createEntityManager();
+        entityManager.getTransaction().begin();
+    }
+
+    @AfterEach
+    void rollback() {
+        entityManager.getTransaction().rollback();
+        entityManager.close();
+    }
+
+    @Test
+    void candidate_paper_is_loaded_in_one_statement() {
+        RenderQuestions renderQuestions = new RenderQuestions();
+        inject(renderQuestions, "testRepo", new TestRepo(entityManager));
+
+        List<CandidateQuestionResponse> paper = statements(1, () -> renderQuestions.getAllQuestionsByTestId(testId));
+
+        assertEquals(QUESTIONS, paper.size());
+    }
+
+    @Test
+    void enterprise_question_bank_is_loaded_in_one_statement() {
+        TestService testService = new TestService();
+        inject(testService, "questionRepo", new QuestionRepo(entityManager));
+        inject(testService, "mapper", new QuestionMapper());
+
+        List<QuestionResponse> bank = statements(1, () -> testService.allQuestionByEnterpriseId(enterpriseId));
+
+        assertEquals(QUESTIONS, bank.size());
+    }
+
+    @Test
+    void admin_test_view_is_loaded_in_one_statement() {
+        TestService testService = new TestService();
+        inject(testService, "testRepo", new TestRepo(entityManager));
+        inject(testService, "mapper", new QuestionMapper());
+
+        List<TestQuestionResponse> questions = statements(1, () -> testService.getQuestionsByTestId(testId, enterpriseId));
+
+        assertEquals(QUESTIONS, questions.size());
+    }
+
+    @Test
+    void question_bank_page_costs_three_statements_whatever_its_size() {
+        TestService testService = new TestService();
+        inject(testService, "questionRepo", new QuestionRepo(entityManager));
+
+        QuestionPageResponse page = statements(3, () -> testService.questionBankPage(enterpriseId, null, null, null, QUESTIONS));
+
+        assertEquals(QUESTIONS, page.items().size());
+    }
+
+    @Test
+    void results_load_answers_with_their_questions_in_one_statement() {
+        CandidateAnswerRepo candidateAnswerRepo = new CandidateAnswerRepo(entityManager);
+
+        List<CandidateAnswer> answers = statements(1, () -> {
+            List<CandidateAnswer> loaded = candidateAnswerRepo.findByTestSessionIdForResults(testSessionId);
+            // What the result page reads
+            for (CandidateAnswer answer : loaded) {
+                answer.getQuestion().getLabel();
+                if (answer.getSelectedAnswer() != null) {
+                    answer.getSelectedAnswer().getLabel();
+                }
+                if (answer.getQuestion().getOpenAnswers() != null) {
+                    answer.getQuestion().getOpenAnswers().getExpectedAnswer();
+                }
+            }
+            return loaded;
+        });
+
+        assertEquals(QUESTIONS, answers.size());
+    }
+
+    @Test
+    void walking_a_test_without_a_graph_loads_each_question_separately() {
+        COUNTER.reset();
+
+        com.tsix.apirest.entity.test.Test test = entityManager.find(com.tsix.apirest.entity.test.Test.class, testId);
+        test.getTestQuestions().forEach(testQuestion -> testQuestion.getQuestion().getAnswers().size());
+
+        // The counter sees lazy loads: at least one statement for the test, its questions and each choice list
+        assertTrue(COUNTER.count() >= 2 + QUESTIONS, COUNTER.statements().toString());
+    }
+
+    private <T> T statements(int expected, Supplier<T> useCase) {
+        COUNTER.reset();
+        T result = useCase.get();
+        assertEquals(expected, COUNTER.count(), COUNTER.statements().toString());
+        return result;
+    }
+
+    private static void seed(EntityManager entityManager) {
+        Domain domain = new Domain("IT");
+        entityManager.persist(domain);
+        Enterprise enterprise = new Enterprise("Acme", domain);
+        entityManager.persist(enterprise);
+
+        com.tsix.apirest.entity.test.Test test = new com.tsix.apirest.entity.test.Test();
+        test.setName("Java");
+        test.setEnterprise(enterprise);
+        test.setDurationMinute(30);
+        test.setIsActive(true);
+        test.setIsPublic(false);
+        test.setQuestionCount(QUESTIONS);
+
+        TestSession session = new TestSession();
+        session.setEmailCandidate("candidate@test.com");
+        session.setCodeSession("ABCD12");
+        session.setTest(test);
+
+        List<CandidateAnswer> candidateAnswers = new ArrayList<>();
+        for (int i = 0; i < QUESTIONS; i++) {
+            Question question = new Question();
+            question.setLabel("Question " + i);
+            question.setPoints(2);
+            question.setEnterprise(enterprise);
+            CandidateAnswer candidateAnswer = new CandidateAnswer();
+            candidateAnswer.setTestSession(session);
+            candidateAnswer.setQuestion(question);
+            candidateAnswer.setScoringStatus(ScoringStatus.SCORED);
+            candidateAnswer.setPointsEarned(0.0);
+            if (i < CHOICE_QUESTIONS) {
+                question.setQuestionType(QuestionType.QCM);
+                for (int j = 0; j < 3; j++) {
+                    question.getAnswers().add(new Answer(0, question, "Answer " + j, j == 0));
+                }
+                candidateAnswer.setSelectedAnswer(question.getAnswers().iterator().next());
+            } else {
+                question.setQuestionType(QuestionType.OPEN_QUESTION);
+                OpenAnswer openAnswer = new OpenAnswer();
+                openAnswer.setExpectedAnswer("Dependency injection");
+                openAnswer.setQuestion(question);
+                openAnswer.getKeyWords().add(new KeyWords(0, openAnswer, "injection"));
+                openAnswer.getKeyWords().add(new KeyWords(0, openAnswer, "container"));
+                question.setOpenAnswers(openAnswer);
+                candidateAnswer.setOpenAnswerText("Dependency injection");
+            }
+            entityManager.persist(question);
+            test.addQuestions(question, i + 1);
+            candidateAnswers.add(candidateAnswer);
+        }
+        entityManager.persist(test);
+        entityManager.persist(session);
+        candidateAnswers.forEach(entityManager::persist);
+
+        enterpriseId = enterprise.getId();
+        testId = test.getId();
+        testSessionId = session.getId();
+    }
+
+    private static void inject(Object target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
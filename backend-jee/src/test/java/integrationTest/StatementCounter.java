@@ -0,0 +1,32 @@
+package integrationTest;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hibernate statement inspector keeping every SQL statement Hibernate prepares, lazy loads
+ * and batched writes included, so tests can pin how many statements a use case sends.
+ */
+public class StatementCounter implements StatementInspector {
+    private final List<String> statements = new ArrayList<>();
+
+    @Override
+    public synchronized String inspect(String sql) {
+        statements.add(sql);
+        return sql;
+    }
+
+    public synchronized List<String> statements() {
+        return List.copyOf(statements);
+    }
+
+    public synchronized int count() {
+        return statements.size();
+    }
+
+    public synchronized void reset() {
+        statements.clear();
+    }
+}
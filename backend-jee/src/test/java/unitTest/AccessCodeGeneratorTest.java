@@ -0,0 +1,58 @@
+package unitTest;
+
+import com.tsix.apirest.utils.AccessCodeGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AccessCodeGeneratorTest {
+
+    @Test
+    void should_generate_four_letters_then_two_digits() {
+        String code = AccessCodeGenerator.generateAccessCode();
+
+        assertTrue(code.matches("[A-Z]{4}[0-9]{2}"), code);
+    }
+
+    @Test
+    void should_replace_duplicates_within_the_batch() {
+        List<String> codes = new ArrayList<>(List.of("ABCD12", "ABCD12", "ABCD12", "WXYZ99"));
+
+        AccessCodeGenerator.makeUnique(codes, candidates -> List.of());
+
+        assertEquals(4, new HashSet<>(codes).size());
+        assertEquals("ABCD12", codes.get(0));
+        assertEquals("WXYZ99", codes.get(3));
+    }
+
+    @Test
+    void should_replace_codes_already_issued_and_only_recheck_the_replacements() {
+        List<String> codes = new ArrayList<>(List.of("AAAA11", "BBBB22", "CCCC33"));
+        Set<String> issued = Set.of("BBBB22");
+        List<Integer> checked = new ArrayList<>();
+
+        AccessCodeGenerator.makeUnique(codes, candidates -> {
+            checked.add(candidates.size());
+            return candidates.stream().filter(issued::contains).toList();
+        });
+
+        assertEquals(List.of(3, 1), checked);
+        assertNotEquals("BBBB22", codes.get(1));
+        assertEquals("AAAA11", codes.get(0));
+        assertEquals("CCCC33", codes.get(2));
+    }
+
+    @Test
+    void should_give_up_when_every_candidate_is_taken() {
+        List<String> codes = new ArrayList<>(List.of("AAAA11"));
+
+        assertThrows(IllegalStateException.class,
+                () -> AccessCodeGenerator.makeUnique(codes, (Collection<String> candidates) -> candidates));
+    }
+}
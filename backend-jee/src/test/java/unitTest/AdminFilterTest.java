@@ -0,0 +1,21 @@
+package unitTest;
+
+import com.tsix.apirest.security.AdminFilter;
+import com.tsix.apirest.security.UserPrincipal;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdminFilterTest {
+
+    @Test
+    void only_principals_of_an_enterprise_are_admins() {
+        assertTrue(AdminFilter.isAdmin(new UserPrincipal(1L, UUID.randomUUID())));
+        // Candidate tokens are issued for a test session, without an enterprise
+        assertFalse(AdminFilter.isAdmin(new UserPrincipal(3L, null)));
+        assertFalse(AdminFilter.isAdmin(null));
+    }
+}
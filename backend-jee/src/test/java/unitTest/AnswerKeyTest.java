@@ -0,0 +1,97 @@
+package unitTest;
+
+import com.tsix.apirest.entity.test.Answer;
+import com.tsix.apirest.entity.test.OpenAnswer;
+import com.tsix.apirest.entity.test.Question;
+import com.tsix.apirest.entity.test.QuestionType;
+import com.tsix.apirest.service.AnswerKey;
+import com.tsix.apirest.service.AnswerKeyCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnswerKeyTest {
+
+    @Test
+    void choices_are_graded_against_their_own_question() {
+        AnswerKey key = AnswerKey.of(test());
+
+        assertEquals(7, key.testId());
+        assertEquals(3, key.questionCount());
+        assertTrue(key.isCorrect(5, 50));
+        assertFalse(key.isCorrect(5, 51));
+        assertTrue(key.isCorrect(2, 22));
+        // A correct choice of another question does not count
+        assertFalse(key.isCorrect(2, 50));
+        assertFalse(key.isCorrect(5, 999));
+    }
+
+    @Test
+    void points_labels_and_expected_answers_are_looked_up_by_question() {
+        AnswerKey key = AnswerKey.of(test());
+
+        assertEquals(3.0, key.points(5));
+        assertEquals(1.0, key.points(2));
+        assertEquals("Answer 0", key.correctLabel(5));
+        assertEquals("Answer 2", key.correctLabel(2));
+        assertNull(key.correctLabel(9));
+        assertEquals("Dependency injection", key.expectedAnswer(9));
+        assertNull(key.expectedAnswer(5));
+    }
+
+    @Test
+    void unknown_questions_have_no_points() {
+        AnswerKey key = AnswerKey.of(test());
+
+        assertFalse(key.hasQuestion(4));
+        assertEquals(0.0, key.points(4));
+        assertNull(key.correctLabel(4));
+    }
+
+    @Test
+    void key_is_built_once_until_invalidated() {
+        AnswerKeyCache cache = new AnswerKeyCache();
+        AtomicInteger loads = new AtomicInteger();
+
+        AnswerKey first = cache.get(7, id -> { loads.incrementAndGet(); return AnswerKey.of(test()); });
+        assertSame(first, cache.get(7, id -> { loads.incrementAndGet(); return AnswerKey.of(test()); }));
+        cache.invalidate(7);
+        cache.get(7, id -> { loads.incrementAndGet(); return AnswerKey.of(test()); });
+
+        assertEquals(2, loads.get());
+    }
+
+    private static com.tsix.apirest.entity.test.Test test() {
+        com.tsix.apirest.entity.test.Test test = new com.tsix.apirest.entity.test.Test(7);
+        test.setTestQuestions(new HashSet<>());
+        test.addQuestions(choiceQuestion(5, 3, 0), 1);
+        test.addQuestions(choiceQuestion(2, 3, 2), 2);
+        Question open = new Question();
+        open.setId(9);
+        open.setQuestionType(QuestionType.OPEN_QUESTION);
+        open.setPoints(4);
+        open.setAnswers(new HashSet<>());
+        OpenAnswer openAnswer = new OpenAnswer();
+        openAnswer.setExpectedAnswer("Dependency injection");
+        open.setOpenAnswers(openAnswer);
+        test.addQuestions(open, 3);
+        return test;
+    }
+
+    private static Question choiceQuestion(int id, int answerCount, int correct) {
+        Question question = new Question();
+        question.setId(id);
+        question.setQuestionType(QuestionType.QCM);
+        question.setPoints(id == 5 ? 3 : 1);
+        Set<Answer> answers = new HashSet<>();
+        for (int i = 0; i < answerCount; i++) {
+            answers.add(new Answer(id * 10 + i, question, "Answer " + i, i == correct));
+        }
+        question.setAnswers(answers);
+        return question;
+    }
+}
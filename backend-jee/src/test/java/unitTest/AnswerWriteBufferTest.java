@@ -0,0 +1,129 @@
+package unitTest;
+
+import com.tsix.apirest.dto.req.SubmitAnswerRequest;
+import com.tsix.apirest.dto.res.AnswerBufferStatsResponse;
+import com.tsix.apirest.service.AnswerWriteBuffer;
+import com.tsix.apirest.service.AnswerWriteBuffer.Pending;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnswerWriteBufferTest {
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void should_keep_only_the_latest_answer_of_a_question() {
+        AnswerWriteBuffer buffer = new AnswerWriteBuffer(10, clock::get);
+
+        buffer.offer(1L, new SubmitAnswerRequest(5, null, "J"));
+        buffer.offer(1L, new SubmitAnswerRequest(5, null, "Ja"));
+        buffer.offer(1L, new SubmitAnswerRequest(5, null, "Java"));
+
+        List<Pending> drained = buffer.peek(1L);
+        assertEquals(1, drained.size());
+        assertEquals("Java", drained.get(0).answer().getOpenAnswerText());
+        assertEquals(2, buffer.stats().coalesced());
+        assertEquals(1, buffer.size());
+    }
+
+    @Test
+    void should_refuse_new_questions_when_full_but_still_coalesce() {
+        AnswerWriteBuffer buffer = new AnswerWriteBuffer(2, clock::get);
+
+        assertTrue(buffer.offer(1L, new SubmitAnswerRequest(1, 10, null)));
+        assertTrue(buffer.offer(2L, new SubmitAnswerRequest(1, 10, null)));
+        assertFalse(buffer.offer(3L, new SubmitAnswerRequest(1, 10, null)));
+        assertTrue(buffer.offer(2L, new SubmitAnswerRequest(1, 11, null)));
+
+        assertEquals(2, buffer.size());
+        assertEquals(1, buffer.stats().rejected());
+    }
+
+    @Test
+    void should_report_flush_lag_from_the_first_buffered_version() {
+        AnswerWriteBuffer buffer = new AnswerWriteBuffer(10, clock::get);
+        buffer.offer(1L, new SubmitAnswerRequest(1, null, "a"));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(300));
+        buffer.offer(1L, new SubmitAnswerRequest(1, null, "ab"));
+        buffer.offer(2L, new SubmitAnswerRequest(1, null, "x"));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+
+        Map<Long, List<Pending>> drained = buffer.drain(100);
+        buffer.recordFlush(drained, 1);
+
+        AnswerBufferStatsResponse stats = buffer.stats();
+        assertEquals(500, stats.lastFlushLagMillis());
+        assertEquals(1, stats.flushedRows());
+        assertEquals(1, stats.discardedRows());
+        assertEquals(0, stats.buffered());
+    }
+
+    @Test
+    void should_put_back_a_failed_flush_without_overwriting_newer_answers() {
+        AnswerWriteBuffer buffer = new AnswerWriteBuffer(10, clock::get);
+        buffer.offer(1L, new SubmitAnswerRequest(1, null, "old"));
+        buffer.offer(1L, new SubmitAnswerRequest(2, null, "kept"));
+        Map<Long, List<Pending>> drained = buffer.drain(100);
+        buffer.offer(1L, new SubmitAnswerRequest(1, null, "new"));
+
+        buffer.requeue(drained);
+
+        List<Pending> answers = buffer.peek(1L);
+        assertEquals(2, answers.size());
+        assertTrue(answers.stream().anyMatch(p -> "new".equals(p.answer().getOpenAnswerText())));
+        assertTrue(answers.stream().anyMatch(p -> "kept".equals(p.answer().getOpenAnswerText())));
+        assertEquals(1, buffer.stats().failedFlushes());
+    }
+
+    @Test
+    void submit_sees_answers_of_a_flush_still_running() {
+        AnswerWriteBuffer buffer = new AnswerWriteBuffer(10, clock::get);
+        buffer.offer(1L, new SubmitAnswerRequest(1, null, "flushing"));
+        Map<Long, List<Pending>> drained = buffer.drain(100);
+        buffer.offer(1L, new SubmitAnswerRequest(1, null, "newer"));
+
+        List<Pending> answers = buffer.peek(1L);
+
+        assertEquals(List.of("flushing", "newer"), answers.stream().map(p -> p.answer().getOpenAnswerText()).toList());
+        buffer.recordFlush(drained, 0);
+        buffer.discard(1L);
+        assertTrue(buffer.peek(1L).isEmpty());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void submit_racing_a_flush_never_misses_an_answer() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 2_000; round++) {
+                AnswerWriteBuffer buffer = new AnswerWriteBuffer(10, clock::get);
+                buffer.offer(1L, new SubmitAnswerRequest(1, null, "last"));
+                CountDownLatch start = new CountDownLatch(1);
+                Future<?> flush = executor.submit(() -> {
+                    start.await();
+                    return buffer.drain(100);
+                });
+                Future<List<Pending>> submit = executor.submit(() -> {
+                    start.await();
+                    return buffer.peek(1L);
+                });
+                start.countDown();
+                flush.get();
+
+                // Taken by the flush or not, the submit sees it
+                assertEquals(1, submit.get().size(), "round " + round);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package unitTest;
+
+import com.tsix.apirest.dto.req.SubmitAnswerRequest;
+import com.tsix.apirest.entity.test.ScoringStatus;
+import com.tsix.apirest.repository.CandidateAnswerRepo;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CandidateAnswerRepoTest {
+    private final QueryRecorder recorder = new QueryRecorder();
+    private final CandidateAnswerRepo repo = new CandidateAnswerRepo(recorder.entityManager());
+
+    @Test
+    void upsert_returns_only_the_questions_the_database_wrote() {
+        // Question 2 is not part of the session's test, no row comes back for it
+        recorder.willReturn(List.<Object[]>of(new Object[]{3L, 1}));
+
+        List<Integer> saved = repo.upsertDrafts(3L, List.of(
+                new SubmitAnswerRequest(1, 10, null),
+                new SubmitAnswerRequest(2, null, "draft")));
+
+        assertEquals(List.of(1), saved);
+    }
+
+    @Test
+    void upsert_keeps_the_last_answer_of_a_question_and_shares_one_statement_between_sessions() {
+        recorder.willReturn(List.<Object[]>of(new Object[]{3L, 1}, new Object[]{4L, 1}));
+        Map<Long, List<SubmitAnswerRequest>> answers = new LinkedHashMap<>();
+        answers.put(3L, List.of(new SubmitAnswerRequest(1, 10, null), new SubmitAnswerRequest(1, 11, null)));
+        answers.put(4L, List.of(new SubmitAnswerRequest(1, null, "draft")));
+
+        List<Object[]> saved = repo.upsertDrafts(answers);
+
+        assertEquals(2, saved.size());
+        assertEquals(1, recorder.statements().size());
+    }
+
+    @Test
+    void large_upserts_are_split_and_their_results_combined() {
+        List<SubmitAnswerRequest> answers = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            answers.add(new SubmitAnswerRequest(i, null, "answer " + i));
+        }
+        for (int from = 0; from < 250; from += 100) {
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = from; i < Math.min(from + 100, 250); i++) {
+                rows.add(new Object[]{3L, i});
+            }
+            recorder.willReturn(rows);
+        }
+
+        List<Integer> saved = repo.upsertDrafts(3L, answers);
+
+        assertEquals(250, saved.size());
+        assertEquals(249, saved.get(249));
+        assertEquals(3, recorder.statements().size());
+    }
+
+    @Test
+    void grades_are_written_one_hundred_answers_per_statement() {
+        List<CandidateAnswerRepo.Grade> grades = new ArrayList<>();
+        for (long id = 1; id <= 250; id++) {
+            grades.add(id == 101
+                    ? new CandidateAnswerRepo.Grade(id, 0.0, null, ScoringStatus.PENDING_SCORING)
+                    : new CandidateAnswerRepo.Grade(id, 2.0, true, ScoringStatus.SCORED));
+        }
+        LocalDateTime submittedAt = LocalDateTime.now();
+
+        repo.saveGrades(grades, submittedAt);
+
+        assertEquals(3, recorder.statements().size());
+    }
+}
@@ -0,0 +1,225 @@
+package unitTest;
+
+import com.tsix.apirest.dto.req.SubmitAnswerRequest;
+import com.tsix.apirest.dto.req.SubmitTestRequest;
+import com.tsix.apirest.dto.res.AnswerAutosaveResponse;
+import com.tsix.apirest.dto.res.QuestionResultResponse;
+import com.tsix.apirest.dto.res.SubmitTestResponse;
+import com.tsix.apirest.entity.TestSessionStatus;
+import com.tsix.apirest.entity.test.*;
+import com.tsix.apirest.exceptions.userExceptions.BadRequestException;
+import com.tsix.apirest.repository.CandidateAnswerRepo;
+import com.tsix.apirest.repository.ScoringJobRepo;
+import com.tsix.apirest.repository.TestRepo;
+import com.tsix.apirest.repository.TestSessionRepo;
+import com.tsix.apirest.service.AnswerKey;
+import com.tsix.apirest.service.AnswerKeyCache;
+import com.tsix.apirest.service.AnswerWriteBuffer;
+import com.tsix.apirest.service.CandidateTestService;
+import com.tsix.apirest.service.ScoringQueueService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CandidateTestServiceTest {
+    private final QueryRecorder recorder = new QueryRecorder();
+    private final FakeTransaction transaction = new FakeTransaction();
+
+    @Test
+    void autosave_buffers_the_answers_until_the_next_flush() {
+        AnswerWriteBuffer buffer = new AnswerWriteBuffer(10, System::nanoTime);
+        recorder.willReturn(new TestSession());
+
+        AnswerAutosaveResponse response = service(buffer).autosave(3L, List.of(
+                new SubmitAnswerRequest(1, 10, null),
+                new SubmitAnswerRequest(2, null, "draft")));
+
+        assertEquals(List.of(1, 2), response.savedQuestionIds());
+        // Only the session was read, nothing written yet
+        assertEquals(List.of("find TestSession"), recorder.statements().stream().map(QueryRecorder.Statement::text).toList());
+        Map<Long, List<AnswerWriteBuffer.Pending>> flushed = buffer.drain(100);
+        assertEquals(List.of(1, 2), flushed.get(3L).stream().map(pending -> pending.answer().getQuestionId()).sorted().toList());
+    }
+
+    @Test
+    void autosave_writes_through_the_answers_the_full_buffer_refuses() {
+        AnswerWriteBuffer buffer = new AnswerWriteBuffer(1, System::nanoTime);
+        recorder.willReturn(new TestSession()).willReturn(List.<Object[]>of(new Object[]{3L, 2}));
+
+        AnswerAutosaveResponse response = service(buffer).autosave(3L, List.of(
+                new SubmitAnswerRequest(1, 10, null),
+                new SubmitAnswerRequest(2, null, "draft")));
+
+        assertEquals(List.of(1, 2), response.savedQuestionIds());
+        assertEquals(1, buffer.size());
+        // The session read, then one statement for the refused answer
+        assertEquals(2, recorder.statements().size());
+    }
+
+    @Test
+    void autosave_is_refused_once_the_test_is_submitted() {
+        AnswerWriteBuffer buffer = new AnswerWriteBuffer(10, System::nanoTime);
+        TestSession session = new TestSession();
+        session.setStatus(TestSessionStatus.FINISHED);
+        recorder.willReturn(session);
+
+        assertThrows(BadRequestException.class,
+                () -> service(buffer).autosave(3L, List.of(new SubmitAnswerRequest(1, 10, null))));
+
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void flush_writes_the_drained_answers_of_every_session_and_counts_the_rows_written() {
+        AnswerWriteBuffer buffer = new AnswerWriteBuffer(10, System::nanoTime);
+        buffer.offer(3L, new SubmitAnswerRequest(1, 10, null));
+        buffer.offer(3L, new SubmitAnswerRequest(1, 11, null));
+        buffer.offer(4L, new SubmitAnswerRequest(5, null, "draft"));
+        // The session 4 was closed meanwhile, its row is not written
+        recorder.willReturn(List.<Object[]>of(new Object[]{3L, 1}));
+
+        int written = service(buffer).writeBuffered(buffer.drain(100));
+
+        assertEquals(1, written);
+        // Both sessions in a single statement
+        assertEquals(1, recorder.statements().size());
+    }
+
+    @Test
+    void submit_grades_choices_from_the_answer_key_and_queues_open_answers() {
+        AnswerKeyCache answerKeyCache = new AnswerKeyCache();
+        com.tsix.apirest.entity.test.Test test = paper();
+        answerKeyCache.get(7, id -> AnswerKey.of(test));
+        TestSession session = new TestSession();
+        session.setId(3L);
+        session.setTest(test);
+        Question choice = question(test, 5);
+        Question wrongChoice = question(test, 2);
+        Question open = question(test, 9);
+        AnswerWriteBuffer buffer = new AnswerWriteBuffer(10, System::nanoTime);
+        buffer.offer(3L, new SubmitAnswerRequest(9, null, "Dependency injection"));
+        recorder.willReturn(session)
+                // The buffered open answer written with the submission
+                .willReturn(List.<Object[]>of(new Object[]{3L, 9}))
+                .willReturn(List.<Object[]>of(
+                        new Object[]{101L, 5, 50, false},
+                        new Object[]{102L, 2, 20, false},
+                        new Object[]{103L, 9, null, true},
+                        new Object[]{104L, 2, null, false}))
+                // Stored answers as the grades above left them
+                .willReturn(List.of(
+                        answer(choice, choice(choice, 50), null, 3.0, true, ScoringStatus.SCORED),
+                        answer(wrongChoice, choice(wrongChoice, 20), null, 0.0, false, ScoringStatus.SCORED),
+                        answer(open, null, "Dependency injection", 0.0, null, ScoringStatus.PENDING_SCORING)));
+        CandidateTestService service = service(buffer);
+        QueryRecorder.inject(service, "answerKeyCache", answerKeyCache);
+        ScoringQueueService scoringQueueService = new ScoringQueueService();
+        QueryRecorder.inject(scoringQueueService, "scoringJobRepo", new ScoringJobRepo(recorder.entityManager()));
+        QueryRecorder.inject(scoringQueueService, "candidateAnswerRepo", new CandidateAnswerRepo(recorder.entityManager()));
+        QueryRecorder.inject(service, "scoringQueueService", scoringQueueService);
+
+        SubmitTestResponse response = service.submitTest(new SubmitTestRequest(3L, null));
+        // Dropped from the buffer only once the submission is committed
+        assertEquals(1, buffer.size());
+        transaction.commit();
+        assertEquals(0, buffer.size());
+
+        // Every grade in one statement
+        assertEquals(1, recorder.statements().stream()
+                .filter(statement -> statement.text().startsWith("UPDATE candidate_answer")).count());
+        // One scoring job, for the open answer
+        assertEquals(1, recorder.persisted().stream().filter(ScoringJob.class::isInstance).count());
+
+        assertEquals(3.0, response.getTotalScore());
+        assertEquals(1, response.getPendingAnswers());
+        assertEquals(TestSessionStatus.FINISHED, session.getStatus());
+        QuestionResultResponse wrong = response.getQuestionResults().get(1);
+        assertEquals("Answer 0", wrong.getCandidateAnswer());
+        assertEquals("Answer 2", wrong.getCorrectAnswer());
+        assertEquals("Dependency injection", response.getQuestionResults().get(2).getCorrectAnswer());
+    }
+
+    @Test
+    void buffered_answers_are_kept_when_the_submission_rolls_back() {
+        AnswerWriteBuffer buffer = new AnswerWriteBuffer(10, System::nanoTime);
+        buffer.offer(3L, new SubmitAnswerRequest(1, null, "buffered"));
+        TestSession session = new TestSession();
+        session.setId(3L);
+        session.setTest(new com.tsix.apirest.entity.test.Test(7));
+        // The session, then the buffered answer written; the test itself is not found
+        recorder.willReturn(session).willReturn(List.<Object[]>of(new Object[]{3L, 1}));
+        CandidateTestService service = service(buffer);
+        QueryRecorder.inject(service, "answerKeyCache", new AnswerKeyCache());
+        QueryRecorder.inject(service, "testRepo", new TestRepo(recorder.entityManager()));
+
+        assertThrows(BadRequestException.class, () -> service.submitTest(new SubmitTestRequest(3L, null)));
+        transaction.rollback();
+
+        // Still there for the candidate's retry
+        assertEquals(List.of("buffered"), buffer.peek(3L).stream().map(p -> p.answer().getOpenAnswerText()).toList());
+        assertEquals(1, buffer.size());
+    }
+
+    private static com.tsix.apirest.entity.test.Test paper() {
+        com.tsix.apirest.entity.test.Test test = new com.tsix.apirest.entity.test.Test(7);
+        test.setQuestionCount(3);
+        test.setTotalPoints(8);
+        test.addQuestions(choiceQuestion(5, 3, 0), 1);
+        test.addQuestions(choiceQuestion(2, 1, 2), 2);
+        Question open = new Question();
+        open.setId(9);
+        open.setLabel("Question 9");
+        open.setQuestionType(QuestionType.OPEN_QUESTION);
+        open.setPoints(4);
+        OpenAnswer openAnswer = new OpenAnswer();
+        openAnswer.setExpectedAnswer("Dependency injection");
+        open.setOpenAnswers(openAnswer);
+        test.addQuestions(open, 3);
+        return test;
+    }
+
+    private static Question choiceQuestion(int id, double points, int correct) {
+        Question question = new Question();
+        question.setId(id);
+        question.setLabel("Question " + id);
+        question.setQuestionType(QuestionType.QCM);
+        question.setPoints(points);
+        for (int i = 0; i < 3; i++) {
+            question.getAnswers().add(new Answer(id * 10 + i, question, "Answer " + i, i == correct));
+        }
+        return question;
+    }
+
+    private static Question question(com.tsix.apirest.entity.test.Test test, int id) {
+        return test.getTestQuestions().stream().map(TestQuestions::getQuestion)
+                .filter(question -> question.getId() == id).findFirst().orElseThrow();
+    }
+
+    private static Answer choice(Question question, int id) {
+        return question.getAnswers().stream().filter(answer -> answer.getId() == id).findFirst().orElseThrow();
+    }
+
+    private static CandidateAnswer answer(Question question, Answer selected, String text, double points,
+                                          Boolean correct, ScoringStatus status) {
+        CandidateAnswer answer = new CandidateAnswer();
+        answer.setQuestion(question);
+        answer.setSelectedAnswer(selected);
+        answer.setOpenAnswerText(text);
+        answer.setPointsEarned(points);
+        answer.setIsCorrect(correct);
+        answer.setScoringStatus(status);
+        return answer;
+    }
+
+    private CandidateTestService service(AnswerWriteBuffer answerWriteBuffer) {
+        CandidateTestService service = new CandidateTestService();
+        QueryRecorder.inject(service, "answerWriteBuffer", answerWriteBuffer);
+        QueryRecorder.inject(service, "testSessionRepo", new TestSessionRepo(recorder.entityManager()));
+        QueryRecorder.inject(service, "candidateAnswerRepo", new CandidateAnswerRepo(recorder.entityManager()));
+        QueryRecorder.inject(service, "transactionRegistry", transaction);
+        return service;
+    }
+}
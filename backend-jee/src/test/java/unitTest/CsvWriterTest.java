@@ -0,0 +1,30 @@
+package unitTest;
+
+import com.tsix.apirest.utils.CsvWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CsvWriterTest {
+
+    @Test
+    void should_quote_only_fields_that_need_it() throws IOException {
+        StringWriter out = new StringWriter();
+
+        new CsvWriter(out).writeRow(1, "plain", "a,b", "say \"hi\"", "two\nlines", null, true);
+
+        assertEquals("1,plain,\"a,b\",\"say \"\"hi\"\"\",\"two\nlines\",,true\r\n", out.toString());
+    }
+
+    @Test
+    void should_neutralize_text_a_spreadsheet_would_run_as_a_formula() throws IOException {
+        StringWriter out = new StringWriter();
+
+        new CsvWriter(out).writeRow("=1+1", "+cmd", "-2", "@SUM(A1)", "=HYPERLINK(\"x\",\"y\")", -2.5, "a=b");
+
+        assertEquals("'=1+1,'+cmd,'-2,'@SUM(A1),\"'=HYPERLINK(\"\"x\"\",\"\"y\"\")\",-2.5,a=b\r\n", out.toString());
+    }
+}
@@ -0,0 +1,64 @@
+package unitTest;
+
+import com.tsix.apirest.dto.res.LoginAndResponse;
+import com.tsix.apirest.entity.enterprise.AdminAccount;
+import com.tsix.apirest.entity.enterprise.Enterprise;
+import com.tsix.apirest.exceptions.userExceptions.PasswordHashingBusyException;
+import com.tsix.apirest.repository.AdminAccountRepo;
+import com.tsix.apirest.repository.EnterpriseRepo;
+import com.tsix.apirest.service.EnterpriseService;
+import com.tsix.apirest.service.PasswordHasher;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EnterpriseServiceTest {
+    private final QueryRecorder recorder = new QueryRecorder();
+
+    @Test
+    void nothing_is_saved_when_the_hashing_pool_is_busy() {
+        // One thread, one queue slot, and no patience: the hash is refused outright
+        PasswordHasher busy = new PasswordHasher(12, 1, 1, Duration.ofMillis(1));
+        recorder.willReturn(List.of());
+
+        try {
+            assertThrows(PasswordHashingBusyException.class, () -> service(busy).insertEnterprise(new Enterprise("Acme", null)));
+        } finally {
+            busy.shutdown();
+        }
+
+        assertTrue(recorder.persisted().isEmpty());
+    }
+
+    @Test
+    void enterprise_is_saved_with_its_admin_account() {
+        PasswordHasher hasher = new PasswordHasher(4, 1, 4, Duration.ofSeconds(10));
+        recorder.willReturn(List.of());
+        Enterprise enterprise = new Enterprise("Acme", null);
+
+        LoginAndResponse login;
+        try {
+            login = service(hasher).insertEnterprise(enterprise);
+        } finally {
+            hasher.shutdown();
+        }
+
+        assertEquals(2, recorder.persisted().size());
+        assertSame(enterprise, recorder.persisted().get(0));
+        AdminAccount account = (AdminAccount) recorder.persisted().get(1);
+        assertSame(enterprise, account.getEnterprise());
+        assertNotEquals(login.password(), account.getPassword());
+        assertEquals(login.username(), account.getUsername());
+    }
+
+    private EnterpriseService service(PasswordHasher passwordHasher) {
+        EnterpriseService service = new EnterpriseService();
+        QueryRecorder.inject(service, "repo", new EnterpriseRepo(recorder.entityManager()));
+        QueryRecorder.inject(service, "adminAccountRepo", new AdminAccountRepo(recorder.entityManager()));
+        QueryRecorder.inject(service, "passwordHasher", passwordHasher);
+        return service;
+    }
+}
@@ -0,0 +1,99 @@
+package unitTest;
+
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import jakarta.transaction.UserTransaction;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stand-in for the container's transaction registry and user transaction: the synchronizations
+ * registered by the code under test run when {@link #commit()} or {@link #rollback()} is called.
+ */
+public class FakeTransaction implements TransactionSynchronizationRegistry, UserTransaction {
+    private final List<Synchronization> synchronizations = new ArrayList<>();
+    private final Map<Object, Object> resources = new HashMap<>();
+    private boolean rollbackOnly;
+    private int status = Status.STATUS_NO_TRANSACTION;
+    private int timeout;
+    private int timeoutAtBegin;
+
+    @Override
+    public void begin() {
+        status = Status.STATUS_ACTIVE;
+        timeoutAtBegin = timeout;
+    }
+
+    @Override
+    public void commit() {
+        complete(Status.STATUS_COMMITTED);
+    }
+
+    @Override
+    public void rollback() {
+        complete(Status.STATUS_ROLLEDBACK);
+    }
+
+    @Override
+    public int getStatus() {
+        return status;
+    }
+
+    @Override
+    public void setTransactionTimeout(int seconds) {
+        timeout = seconds;
+    }
+
+    /**
+     * Timeout in force when the last transaction began, zero for the server default.
+     */
+    public int timeoutAtBegin() {
+        return timeoutAtBegin;
+    }
+
+    private void complete(int status) {
+        this.status = status;
+        synchronizations.forEach(Synchronization::beforeCompletion);
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+        synchronizations.clear();
+    }
+
+    @Override
+    public Object getTransactionKey() {
+        return this;
+    }
+
+    @Override
+    public void putResource(Object key, Object value) {
+        resources.put(key, value);
+    }
+
+    @Override
+    public Object getResource(Object key) {
+        return resources.get(key);
+    }
+
+    @Override
+    public void registerInterposedSynchronization(Synchronization sync) {
+        synchronizations.add(sync);
+    }
+
+    @Override
+    public int getTransactionStatus() {
+        return rollbackOnly ? Status.STATUS_MARKED_ROLLBACK : Status.STATUS_ACTIVE;
+    }
+
+    @Override
+    public void setRollbackOnly() {
+        rollbackOnly = true;
+    }
+
+    @Override
+    public boolean getRollbackOnly() {
+        return rollbackOnly;
+    }
+}
@@ -0,0 +1,88 @@
+package unitTest;
+
+import com.sun.net.httpserver.HttpServer;
+import com.tsix.apirest.service.GroqHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GroqHttpClientTest {
+    private final ExecutorService handlers = Executors.newCachedThreadPool();
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/complete", exchange -> {
+            byte[] body = "{\"ok\":true}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        // Sends the headers at once, then stalls in the middle of the body
+        server.createContext("/stalled", exchange -> {
+            exchange.sendResponseHeaders(200, 100);
+            OutputStream out = exchange.getResponseBody();
+            out.write("{\"ok\"".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+        });
+        server.setExecutor(handlers);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        handlers.shutdownNow();
+    }
+
+    @Test
+    void reads_the_whole_body_before_returning() throws Exception {
+        GroqHttpClient client = new GroqHttpClient();
+
+        HttpResponse<byte[]> response = client.send(request("/complete", Duration.ofSeconds(10)), HttpResponse.BodyHandlers.ofByteArray());
+
+        assertEquals("{\"ok\":true}", new String(response.body(), StandardCharsets.UTF_8));
+        assertEquals(0, client.stats().inFlight());
+    }
+
+    @Test
+    void body_that_stalls_after_the_headers_times_out() {
+        GroqHttpClient client = new GroqHttpClient();
+        long start = System.nanoTime();
+
+        assertThrows(HttpTimeoutException.class,
+                () -> client.send(request("/stalled", Duration.ofSeconds(1)), HttpResponse.BodyHandlers.ofByteArray()));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 5_000);
+        assertEquals(1, client.stats().timedOutRequests());
+        assertEquals(0, client.stats().inFlight());
+    }
+
+    private HttpRequest request(String path, Duration timeout) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + server.getAddress().getPort() + path))
+                .timeout(timeout)
+                .GET()
+                .build();
+    }
+}
@@ -0,0 +1,131 @@
+package unitTest;
+
+import com.tsix.apirest.exceptions.userExceptions.ScoringUnavailableException;
+import com.tsix.apirest.service.GroqHttpClient;
+import com.tsix.apirest.service.GroqResilience;
+import com.tsix.apirest.utils.CircuitBreaker;
+import org.junit.jupiter.api.Test;
+
+import javax.net.ssl.SSLSession;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class GroqResilienceTest {
+    private static final HttpRequest REQUEST = HttpRequest.newBuilder(URI.create("http://localhost/score")).build();
+
+    @Test
+    void retry_after_longer_than_the_retry_cap_is_handed_back_to_the_caller() {
+        StubClient client = new StubClient(429, "60");
+        GroqResilience resilience = resilience(client);
+
+        ScoringUnavailableException e = assertThrows(ScoringUnavailableException.class,
+                () -> resilience.send(REQUEST, HttpResponse.BodyHandlers.discarding()));
+
+        assertEquals(Duration.ofSeconds(60), e.getRetryAfter());
+        assertEquals(1, client.calls.get());
+        assertEquals(0, resilience.stats().retries());
+    }
+
+    @Test
+    void open_circuit_refuses_the_call_without_spending_a_rate_token() {
+        StubClient client = new StubClient(503, "0");
+        GroqResilience resilience = resilience(client);
+        QueryRecorder.inject(resilience, "circuitBreaker", new CircuitBreaker(1, Duration.ofMinutes(1)));
+
+        // The first failure opens the circuit, which refuses the retry
+        assertThrows(ScoringUnavailableException.class,
+                () -> resilience.send(REQUEST, HttpResponse.BodyHandlers.discarding()));
+        double tokens = resilience.stats().availableRateTokens();
+        assertThrows(ScoringUnavailableException.class,
+                () -> resilience.send(REQUEST, HttpResponse.BodyHandlers.discarding()));
+
+        assertEquals(1, client.calls.get());
+        assertEquals(tokens, resilience.stats().availableRateTokens(), 0.01);
+        assertEquals(2, resilience.stats().rejectedByCircuit());
+    }
+
+    @Test
+    void bulkhead_permit_is_released_after_each_attempt() {
+        StubClient client = new StubClient(503, "0");
+        GroqResilience resilience = resilience(client);
+        int permits = resilience.stats().bulkheadAvailable();
+
+        assertThrows(ScoringUnavailableException.class,
+                () -> resilience.send(REQUEST, HttpResponse.BodyHandlers.discarding()));
+
+        assertEquals(List.of(permits - 1, permits - 1, permits - 1), client.permitsDuringCalls);
+        assertEquals(permits, resilience.stats().bulkheadAvailable());
+    }
+
+    private static GroqResilience resilience(StubClient client) {
+        GroqResilience resilience = new GroqResilience();
+        QueryRecorder.inject(resilience, "groqHttpClient", client);
+        client.owner = resilience;
+        return resilience;
+    }
+
+    /**
+     * Answers every call with the same status and Retry-After header, noting the free
+     * bulkhead permits while each call is made.
+     */
+    private static class StubClient extends GroqHttpClient {
+        private final int status;
+        private final String retryAfter;
+        private final AtomicInteger calls = new AtomicInteger();
+        private final List<Integer> permitsDuringCalls = new ArrayList<>();
+        private GroqResilience owner;
+
+        StubClient(int status, String retryAfter) {
+            this.status = status;
+            this.retryAfter = retryAfter;
+        }
+
+        @Override
+        public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+            calls.incrementAndGet();
+            permitsDuringCalls.add(owner.stats().bulkheadAvailable());
+            HttpHeaders headers = HttpHeaders.of(Map.of("Retry-After", List.of(retryAfter)), (name, value) -> true);
+            return new StubResponse<>(status, headers, request);
+        }
+    }
+
+    private record StubResponse<T>(int statusCode, HttpHeaders headers, HttpRequest request)
+            implements HttpResponse<T> {
+        @Override
+        public Optional<HttpResponse<T>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public T body() {
+            return null;
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return request.uri();
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_1_1;
+        }
+    }
+}
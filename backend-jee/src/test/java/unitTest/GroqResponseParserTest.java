@@ -0,0 +1,45 @@
+package unitTest;
+
+import com.tsix.apirest.service.GroqResponseParser;
+import com.tsix.apirest.service.GroqResponseParser.ParsedScore;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class GroqResponseParserTest {
+
+    @Test
+    void should_read_score_and_feedback_surrounded_by_text() {
+        ParsedScore parsed = GroqResponseParser.parseScore(
+                "Here is the evaluation:\n```json\n{\"score\": 7, \"feedback\": \"Good answer\"}\n```");
+
+        assertEquals(7, parsed.score());
+        assertEquals("Good answer", parsed.feedback());
+    }
+
+    @Test
+    void should_unescape_feedback_and_accept_braces_inside_it() {
+        ParsedScore parsed = GroqResponseParser.parseScore(
+                "{\"feedback\": \"Mentions {JVM} and \\\"bytecode\\\"\\nbut \\u00e9lude GC\", \"score\": 4.5}");
+
+        assertEquals(4, parsed.score());
+        assertEquals("Mentions {JVM} and \"bytecode\"\nbut élude GC", parsed.feedback());
+    }
+
+    @Test
+    void should_ignore_unknown_members_and_default_feedback() {
+        ParsedScore parsed = GroqResponseParser.parseScore("{\"confidence\": \"high\", \"ok\": true, \"score\": 10}");
+
+        assertEquals(10, parsed.score());
+        assertEquals("", parsed.feedback());
+    }
+
+    @Test
+    void should_return_null_without_a_numeric_score() {
+        assertNull(GroqResponseParser.parseScore("I cannot evaluate this answer."));
+        assertNull(GroqResponseParser.parseScore("{\"score\": \"seven\", \"feedback\": \"x\"}"));
+        assertNull(GroqResponseParser.parseScore("{\"feedback\": \"missing score\"}"));
+        assertNull(GroqResponseParser.parseScore(null));
+    }
+}
@@ -0,0 +1,76 @@
+package unitTest;
+
+import com.tsix.apirest.dto.req.TestSessionReq;
+import com.tsix.apirest.entity.enterprise.Enterprise;
+import com.tsix.apirest.repository.EnterpriseRepo;
+import com.tsix.apirest.repository.MailOutboxRepo;
+import com.tsix.apirest.repository.TestRepo;
+import com.tsix.apirest.repository.TestSessionRepo;
+import com.tsix.apirest.service.InvitationService;
+import com.tsix.apirest.service.InvitationTemplates;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InvitationServiceTest {
+
+    @Test
+    void should_queue_one_mail_per_session_and_flush_in_chunks() {
+        // GIVEN
+        QueryRecorder recorder = new QueryRecorder()
+                .willReturn(List.of(new com.tsix.apirest.entity.test.Test("Java basics", null, null, 30)))
+                .willReturn(new Enterprise(UUID.randomUUID(), "Acme", null))
+                // No access code is taken yet, checked 1000 codes at a time
+                .willReturn(List.of())
+                .willReturn(List.of());
+        InvitationService service = service(recorder);
+        List<String> emails = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            emails.add("candidate" + i + "@test.com");
+        }
+
+        // WHEN
+        int invited = service.invite(request(emails), UUID.randomUUID());
+
+        // THEN
+        assertEquals(1200, invited);
+        List<String> operations = recorder.operations();
+        assertEquals(1200, operations.stream().filter("persist TestSession"::equals).count());
+        assertEquals(1200, operations.stream().filter("persist MailOutbox"::equals).count());
+        // 1200 sessions: two full chunks flushed early, the rest at commit
+        assertEquals(2, operations.stream().filter("flush"::equals).count());
+        assertEquals(2, operations.stream().filter("clear"::equals).count());
+        // Only the lookups reach the database before the flushes
+        assertEquals(4, recorder.statements().size());
+    }
+
+    @Test
+    void should_reject_an_invitation_without_candidates() {
+        InvitationService service = service(new QueryRecorder());
+
+        assertThrows(RuntimeException.class, () -> service.invite(request(List.of()), UUID.randomUUID()));
+    }
+
+    private static InvitationService service(QueryRecorder recorder) {
+        InvitationService service = new InvitationService();
+        QueryRecorder.inject(service, "testSessionRepo", new TestSessionRepo(recorder.entityManager()));
+        QueryRecorder.inject(service, "mailOutboxRepo", new MailOutboxRepo(recorder.entityManager()));
+        QueryRecorder.inject(service, "enterpriseRepo", new EnterpriseRepo(recorder.entityManager()));
+        QueryRecorder.inject(service, "testRepo", new TestRepo(recorder.entityManager()));
+        QueryRecorder.inject(service, "invitationTemplates", new InvitationTemplates());
+        return service;
+    }
+
+    private static TestSessionReq request(List<String> emails) {
+        TestSessionReq req = new TestSessionReq();
+        req.setTestId(7);
+        req.setEmailCandidate(emails);
+        req.setDateExpiration(LocalDateTime.now().plusDays(3));
+        return req;
+    }
+}
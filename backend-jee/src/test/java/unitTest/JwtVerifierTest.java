@@ -0,0 +1,91 @@
+package unitTest;
+
+import com.tsix.apirest.security.JwtVerifier;
+import com.tsix.apirest.security.UserPrincipal;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtVerifierTest {
+    private static final SecretKey KEY =
+            Keys.hmacShaKeyFor("a-test-secret-that-is-long-enough-for-hs256".getBytes(StandardCharsets.UTF_8));
+
+    private long millis = 1_800_000_000_000L;
+    private long nanos = 0;
+
+    @Test
+    void should_verify_once_and_serve_the_principal_from_cache() {
+        JwtVerifier verifier = verifier(Duration.ofMinutes(5));
+        UUID enterpriseId = UUID.randomUUID();
+        String token = token(KEY, 42L, enterpriseId.toString(), Duration.ofDays(1));
+
+        UserPrincipal first = verifier.verify(token);
+        UserPrincipal second = verifier.verify(token);
+
+        assertEquals(42L, first.getUserId());
+        assertEquals(enterpriseId, first.getEnterpriseId());
+        assertSame(first, second);
+        assertEquals(1, verifier.hits());
+    }
+
+    @Test
+    void should_not_serve_a_cached_principal_past_the_token_expiration() {
+        JwtVerifier verifier = verifier(Duration.ofMinutes(5));
+        String token = token(KEY, 7L, "null", Duration.ofSeconds(30));
+
+        assertNotNull(verifier.verify(token));
+        advance(Duration.ofSeconds(31));
+
+        assertNull(verifier.verify(token));
+    }
+
+    @Test
+    void should_reject_tampered_or_foreign_tokens_without_caching_them() {
+        JwtVerifier verifier = verifier(Duration.ofMinutes(5));
+        SecretKey otherKey = Keys.hmacShaKeyFor("another-secret-that-is-long-enough-for-hs256".getBytes(StandardCharsets.UTF_8));
+        String token = token(KEY, 7L, "null", Duration.ofDays(1));
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertNull(verifier.verify(token(otherKey, 7L, "null", Duration.ofDays(1))));
+        assertNull(verifier.verify(tampered));
+        assertNull(verifier.verify("not-a-token"));
+        assertNull(verifier.verify(null));
+        assertEquals(0, verifier.hits());
+    }
+
+    @Test
+    void should_map_the_null_enterprise_claim_of_candidate_tokens() {
+        UserPrincipal principal = verifier(Duration.ofMinutes(5)).verify(token(KEY, 9L, "null", Duration.ofHours(2)));
+
+        assertEquals(9L, principal.getUserId());
+        assertNull(principal.getEnterpriseId());
+    }
+
+    private JwtVerifier verifier(Duration maxTtl) {
+        return new JwtVerifier(KEY, 100, maxTtl, () -> millis, () -> nanos);
+    }
+
+    private void advance(Duration duration) {
+        millis += duration.toMillis();
+        nanos += TimeUnit.MILLISECONDS.toNanos(duration.toMillis());
+    }
+
+    private String token(SecretKey key, Long userId, String enterprise, Duration validity) {
+        return Jwts.builder()
+                .subject(userId.toString())
+                .claim("enterprise", enterprise)
+                .issuedAt(new Date(millis))
+                .expiration(new Date(millis + validity.toMillis()))
+                .signWith(key)
+                .compact();
+    }
+}
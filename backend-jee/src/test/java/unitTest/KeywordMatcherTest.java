@@ -0,0 +1,71 @@
+package unitTest;
+
+import com.tsix.apirest.dto.req.OpenQuestionScoreRequest;
+import com.tsix.apirest.dto.res.OpenQuestionScoreResponse;
+import com.tsix.apirest.service.KeywordMatcher;
+import com.tsix.apirest.service.KeywordScoringService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class KeywordMatcherTest {
+
+    @Test
+    void should_match_keywords_regardless_of_case_accents_and_inflection() {
+        KeywordMatcher matcher = KeywordMatcher.compile(List.of("Héritage", "interface", "compile"));
+
+        KeywordMatcher.Match match = matcher.match("L'HERITAGE et les Interfaces sont compilées");
+
+        assertEquals(3, match.matched());
+        assertEquals(1.0, match.coverage());
+    }
+
+    @Test
+    void should_match_multi_word_keywords_only_as_a_phrase() {
+        KeywordMatcher matcher = KeywordMatcher.compile(List.of("virtual machine", "garbage collector"));
+
+        KeywordMatcher.Match match = matcher.match("The Java virtual machine frees memory; the collector is a garbage truck");
+
+        assertEquals(List.of("virtual machine"), match.matchedKeywords());
+    }
+
+    @Test
+    void should_tolerate_small_typos_in_long_keywords_only() {
+        KeywordMatcher matcher = KeywordMatcher.compile(List.of("polymorphism", "heap", "stack"));
+
+        KeywordMatcher.Match match = matcher.match("polymorfism lets a hep hold objects");
+
+        assertEquals(List.of("polymorphism"), match.matchedKeywords());
+    }
+
+    @Test
+    void should_report_no_match_for_empty_answer() {
+        KeywordMatcher matcher = KeywordMatcher.compile(List.of("thread", "lock"));
+
+        KeywordMatcher.Match match = matcher.match("");
+
+        assertEquals(0, match.matched());
+        assertEquals(2, match.total());
+    }
+
+    @Test
+    void gate_should_zero_empty_answers() {
+        OpenQuestionScoreRequest request = new OpenQuestionScoreRequest(1, "  ... ", "Dependency injection", 4);
+
+        Optional<OpenQuestionScoreResponse> score = new KeywordScoringService().gate(request);
+
+        assertTrue(score.isPresent());
+        assertEquals(0, score.get().getScore());
+    }
+
+    @Test
+    void gate_should_leave_short_answers_to_the_ai() {
+        OpenQuestionScoreRequest request = new OpenQuestionScoreRequest(1, "Polymorphism", "Polymorphism", 4);
+
+        assertTrue(new KeywordScoringService().gate(request).isEmpty());
+    }
+}
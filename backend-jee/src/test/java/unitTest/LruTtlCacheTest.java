@@ -0,0 +1,53 @@
+package unitTest;
+
+import com.tsix.apirest.utils.LruTtlCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LruTtlCacheTest {
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void should_evict_least_recently_used_entry_when_full() {
+        LruTtlCache<String, Integer> cache = new LruTtlCache<>(2, 1, TimeUnit.MINUTES, now::get);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+
+        assertEquals(1, cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(3, cache.get("c"));
+        assertEquals(1, cache.evictions());
+    }
+
+    @Test
+    void should_expire_entries_after_their_ttl() {
+        LruTtlCache<String, Integer> cache = new LruTtlCache<>(10, 10, TimeUnit.SECONDS, now::get);
+        cache.put("default", 1);
+        cache.put("short", 2, 1, TimeUnit.SECONDS);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertEquals(1, cache.get("default"));
+        assertNull(cache.get("short"));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertNull(cache.get("default"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void should_count_hits_and_misses() {
+        LruTtlCache<String, Integer> cache = new LruTtlCache<>(10, 1, TimeUnit.MINUTES, now::get);
+        cache.put("a", 1);
+        cache.get("a");
+        cache.get("missing");
+
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+    }
+}
@@ -0,0 +1,109 @@
+package unitTest;
+
+import com.tsix.apirest.entity.mail.MailOutbox;
+import com.tsix.apirest.service.MailDispatcher;
+import com.tsix.apirest.service.MailOutboxService;
+import com.tsix.apirest.service.MailService;
+import com.tsix.apirest.utils.SmtpTransportPool;
+import jakarta.mail.MessagingException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MailDispatcherTest {
+
+    @Test
+    void rate_limited_mails_are_requeued_without_an_attempt() {
+        RecordingOutbox outbox = new RecordingOutbox(List.of(mail(1L), mail(2L), mail(3L)), List.of(mail(4L)));
+        MailService mailService = new MailService() {
+            @Override
+            public List<Exception> sendAll(List<MailOutbox> mails) {
+                return Arrays.asList(
+                        null,
+                        new SmtpTransportPool.RateLimitedException("SMTP send rate limit reached"),
+                        new MessagingException("550 mailbox unavailable"));
+            }
+        };
+
+        dispatcher(outbox, mailService).drain();
+
+        assertEquals(List.of(1L), outbox.sent);
+        assertEquals(List.of(2L), outbox.deferred);
+        // Only a real send failure uses an attempt and backs off
+        assertEquals(List.of(3L), outbox.failed);
+        // The rate limit is exhausted: the next batch is left for the next run
+        assertEquals(1, outbox.claims);
+    }
+
+    @Test
+    void batches_are_claimed_until_the_queue_is_empty() {
+        RecordingOutbox outbox = new RecordingOutbox(List.of(mail(1L)), List.of(mail(2L)));
+        MailService mailService = new MailService() {
+            @Override
+            public List<Exception> sendAll(List<MailOutbox> mails) {
+                return Arrays.asList(new Exception[mails.size()]);
+            }
+        };
+
+        dispatcher(outbox, mailService).drain();
+
+        assertEquals(List.of(1L, 2L), outbox.sent);
+        assertEquals(3, outbox.claims);
+    }
+
+    private static MailDispatcher dispatcher(MailOutboxService outbox, MailService mailService) {
+        MailDispatcher dispatcher = new MailDispatcher();
+        QueryRecorder.inject(dispatcher, "mailOutboxService", outbox);
+        QueryRecorder.inject(dispatcher, "mailService", mailService);
+        return dispatcher;
+    }
+
+    private static MailOutbox mail(Long id) {
+        MailOutbox mail = new MailOutbox();
+        mail.setId(id);
+        mail.setAttempts(1);
+        return mail;
+    }
+
+    /**
+     * Hands out the given batches in order and records what the dispatcher did with each mail.
+     */
+    private static class RecordingOutbox extends MailOutboxService {
+        private final List<List<MailOutbox>> batches;
+        private int claims;
+        private final List<Long> sent = new ArrayList<>();
+        private final List<Long> deferred = new ArrayList<>();
+        private final List<Long> failed = new ArrayList<>();
+
+        @SafeVarargs
+        RecordingOutbox(List<MailOutbox>... batches) {
+            this.batches = List.of(batches);
+        }
+
+        @Override
+        public List<MailOutbox> claimBatch(int limit) {
+            claims++;
+            return claims <= batches.size() ? batches.get(claims - 1) : List.of();
+        }
+
+        @Override
+        public void markSent(Collection<Long> ids) {
+            sent.addAll(ids);
+        }
+
+        @Override
+        public void defer(MailOutbox mail, String reason) {
+            deferred.add(mail.getId());
+        }
+
+        @Override
+        public void fail(MailOutbox mail, String error) {
+            failed.add(mail.getId());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package unitTest;
+
+import com.tsix.apirest.service.InvitationTemplates;
+import com.tsix.apirest.utils.MailTemplate;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MailTemplateTest {
+    private static final Set<String> VARIABLES = Set.of("accessCode", "testName");
+
+    @Test
+    void should_bind_compile_time_variables_and_render_the_rest() {
+        MailTemplate template = MailTemplate.compile("${enterpriseName}: code ${accessCode} for ${ testName }.",
+                Map.of("enterpriseName", "Acme"), VARIABLES, false);
+
+        assertEquals("Acme: code AB12 for Java.", template.render(Map.of("accessCode", "AB12", "testName", "Java")));
+        assertEquals("Acme: code X for Go.", template.render(Map.of("accessCode", "X", "testName", "Go")));
+    }
+
+    @Test
+    void should_escape_values_in_html_templates() {
+        MailTemplate template = MailTemplate.compile("<b>${enterpriseName}</b> ${testName}",
+                Map.of("enterpriseName", "A&B"), VARIABLES, true);
+
+        assertEquals("<b>A&amp;B</b> &lt;script&gt;", template.render(Map.of("testName", "<script>")));
+    }
+
+    @Test
+    void should_reject_unknown_or_unclosed_placeholders() {
+        assertThrows(IllegalArgumentException.class,
+                () -> MailTemplate.compile("Hello ${candidateName}", Map.of(), VARIABLES, false));
+        assertThrows(IllegalArgumentException.class,
+                () -> MailTemplate.compile("Hello ${accessCode", Map.of(), VARIABLES, false));
+    }
+
+    @Test
+    void should_render_invitations_per_locale_from_cached_templates() {
+        InvitationTemplates templates = new InvitationTemplates();
+        UUID enterpriseId = UUID.randomUUID();
+        LocalDateTime expiresAt = LocalDateTime.of(2026, 3, 1, 18, 30);
+
+        InvitationTemplates.Compiled english = templates.get(enterpriseId, "Acme", "en-US");
+        InvitationTemplates.Compiled french = templates.get(enterpriseId, "Acme", "fr");
+        InvitationTemplates.Rendered mail = english.render(english.renderSubject("Java"), "Java", "AB12CD", expiresAt);
+
+        assertSame(english, templates.get(enterpriseId, "Other name", "en"));
+        assertSame(english, templates.get(enterpriseId, "Acme", "de"));
+        assertEquals("Test invitation from Acme", mail.subject());
+        assertTrue(mail.text().contains("AB12CD"));
+        assertTrue(mail.text().contains("\"Java\""));
+        assertTrue(mail.html().contains("<strong>Acme</strong>"));
+        assertTrue(french.renderSubject("Java").startsWith("Invitation à un test de Acme"));
+    }
+}
@@ -0,0 +1,266 @@
+package unitTest;
+
+import com.tsix.apirest.dto.req.OpenQuestionScoreRequest;
+import com.tsix.apirest.dto.res.OpenQuestionScoreResponse;
+import com.tsix.apirest.exceptions.userExceptions.ManualReviewRequiredException;
+import com.tsix.apirest.exceptions.userExceptions.ScoringUnavailableException;
+import com.tsix.apirest.service.GroqResilience;
+import com.tsix.apirest.service.GroqScoringService;
+import com.tsix.apirest.service.GroqScoringService.ScoringOutcome;
+import com.tsix.apirest.service.KeywordScoringService;
+import com.tsix.apirest.service.OpenQuestionScoringWorker;
+import com.tsix.apirest.service.ScoringQueueService;
+import com.tsix.apirest.service.ScoringQueueService.ScoringTask;
+import jakarta.ejb.SessionContext;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OpenQuestionScoringWorkerTest {
+
+    @Test
+    void batch_reports_why_each_answer_was_not_scored() {
+        GroqScoringService scoringService = new GroqScoringService() {
+            @Override
+            public OpenQuestionScoreResponse scoreOpenQuestion(OpenQuestionScoreRequest request) {
+                if (request.getQuestionId() == 2) {
+                    throw new ScoringUnavailableException("Rate limit reached", Duration.ofSeconds(2));
+                }
+                if (request.getQuestionId() == 3) {
+                    throw new IllegalStateException("Failed to parse AI response");
+                }
+                return new OpenQuestionScoreResponse(request.getQuestionId(), 1, "ok", 2);
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        inContainer(scoringService, executor);
+
+        List<ScoringOutcome> outcomes;
+        try {
+            outcomes = scoringService.scoreOpenQuestions(List.of(request(1), request(2), request(3)), 2,
+                    Duration.ofSeconds(10));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(outcomes.get(0).isScored());
+        assertEquals(1, outcomes.get(0).response().getQuestionId());
+        assertTrue(outcomes.get(1).failure() instanceof ScoringUnavailableException);
+        assertTrue(outcomes.get(2).failure() instanceof IllegalStateException);
+    }
+
+    @Test
+    void answers_still_scoring_at_the_deadline_time_out() {
+        GroqScoringService scoringService = new GroqScoringService() {
+            @Override
+            public OpenQuestionScoreResponse scoreOpenQuestion(OpenQuestionScoreRequest request) {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        inContainer(scoringService, executor);
+
+        List<ScoringOutcome> outcomes;
+        try {
+            outcomes = scoringService.scoreOpenQuestions(List.of(request(1)), 1, Duration.ofMillis(50));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertFalse(outcomes.get(0).isScored());
+        assertTrue(outcomes.get(0).failure() instanceof TimeoutException);
+    }
+
+    @Test
+    void unavailable_backend_defers_the_job_and_other_errors_fail_it() {
+        List<ScoringTask> tasks = List.of(task(1), task(2), task(3));
+        RecordingQueue queue = new RecordingQueue(tasks);
+        GroqScoringService scoringService = new GroqScoringService() {
+            @Override
+            public List<ScoringOutcome> scoreOpenQuestions(List<OpenQuestionScoreRequest> requests,
+                                                           int maxConcurrency, Duration deadline) {
+                return List.of(
+                        ScoringOutcome.scored(new OpenQuestionScoreResponse(1, 2, "ok", 2)),
+                        ScoringOutcome.failed(new ScoringUnavailableException("Too many scoring calls in progress",
+                                Duration.ofSeconds(2))),
+                        ScoringOutcome.failed(new TimeoutException("Not scored before the deadline")));
+            }
+        };
+
+        worker(queue, scoringService).drain();
+
+        assertEquals(List.of(1L), queue.completed);
+        // The bulkhead refusal is retried after its own delay and costs no attempt
+        assertEquals(List.of(2L), queue.deferred);
+        assertEquals(List.of(Duration.ofSeconds(2)), queue.deferDelays);
+        assertEquals(List.of(3L), queue.failed);
+    }
+
+    @Test
+    void unavailable_backend_without_a_delay_defers_for_the_default_delay() {
+        RecordingQueue queue = new RecordingQueue(List.of(task(1)));
+        GroqScoringService scoringService = new GroqScoringService() {
+            @Override
+            public List<ScoringOutcome> scoreOpenQuestions(List<OpenQuestionScoreRequest> requests,
+                                                           int maxConcurrency, Duration deadline) {
+                return List.of(ScoringOutcome.failed(
+                        new ScoringUnavailableException("Failed to read scoring response", Duration.ZERO)));
+            }
+        };
+
+        worker(queue, scoringService).drain();
+
+        assertEquals(List.of(Duration.ofSeconds(30)), queue.deferDelays);
+        assertTrue(queue.failed.isEmpty());
+    }
+
+    @Test
+    void keywords_mode_sends_questions_without_keywords_to_manual_review_without_calling_the_ai() {
+        GroqScoringService scoringService = new GroqScoringService();
+        // No resilience or HTTP client: reaching the AI would fail the test
+        QueryRecorder.inject(scoringService, "keywordScoringService", new KeywordScoringService() {
+            @Override
+            public Mode mode() {
+                return Mode.KEYWORDS;
+            }
+        });
+
+        assertThrows(ManualReviewRequiredException.class, () -> scoringService.scoreOpenQuestion(request(1)));
+    }
+
+    @Test
+    void answers_needing_manual_review_are_not_retried() {
+        RecordingQueue queue = new RecordingQueue(List.of(task(1)));
+        GroqScoringService scoringService = new GroqScoringService() {
+            @Override
+            public List<ScoringOutcome> scoreOpenQuestions(List<OpenQuestionScoreRequest> requests,
+                                                           int maxConcurrency, Duration deadline) {
+                return List.of(ScoringOutcome.failed(new ManualReviewRequiredException("No keywords")));
+            }
+        };
+
+        worker(queue, scoringService).drain();
+
+        assertEquals(List.of(1L), queue.manualReviews);
+        assertTrue(queue.failed.isEmpty());
+    }
+
+    private static OpenQuestionScoringWorker worker(ScoringQueueService queue, GroqScoringService scoringService) {
+        OpenQuestionScoringWorker worker = new OpenQuestionScoringWorker();
+        QueryRecorder.inject(worker, "scoringQueueService", queue);
+        QueryRecorder.inject(worker, "groqScoringService", scoringService);
+        QueryRecorder.inject(worker, "groqResilience", new GroqResilience());
+        QueryRecorder.inject(worker, "keywordScoringService", new KeywordScoringService());
+        return worker;
+    }
+
+    private static OpenQuestionScoreRequest request(int questionId) {
+        return new OpenQuestionScoreRequest(questionId, "answer", "model answer", 2);
+    }
+
+    private static ScoringTask task(long jobId) {
+        return new ScoringTask(jobId, jobId, 1L, 1, request((int) jobId), 2);
+    }
+
+    /**
+     * Stands in for the container: a managed executor backed by {@code executor}, and a session
+     * context whose business object is the bean itself.
+     */
+    private static void inContainer(GroqScoringService scoringService, ExecutorService executor) {
+        setField(GroqScoringService.class, scoringService, "scoringExecutor",
+                proxy(ManagedExecutorService.class, (method, args) -> method.invoke(executor, args)));
+        setField(GroqScoringService.class, scoringService, "sessionContext",
+                proxy(SessionContext.class, (method, args) -> {
+                    if (method.getName().equals("getBusinessObject")) {
+                        return scoringService;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                }));
+    }
+
+    private interface Invocation {
+        Object invoke(Method method, Object[] args) throws ReflectiveOperationException;
+    }
+
+    private static <T> T proxy(Class<T> type, Invocation invocation) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (target, method, args) -> {
+                    try {
+                        return invocation.invoke(method, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }));
+    }
+
+    private static void setField(Class<?> owner, Object target, String fieldName, Object value) {
+        try {
+            Field field = owner.getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Hands out the given tasks once and records what the worker did with each of them.
+     */
+    private static class RecordingQueue extends ScoringQueueService {
+        private List<ScoringTask> pending;
+        private final List<Long> completed = new ArrayList<>();
+        private final List<Long> deferred = new ArrayList<>();
+        private final List<Duration> deferDelays = new ArrayList<>();
+        private final List<Long> failed = new ArrayList<>();
+        private final List<Long> manualReviews = new ArrayList<>();
+
+        RecordingQueue(List<ScoringTask> tasks) {
+            this.pending = tasks;
+        }
+
+        @Override
+        public List<ScoringTask> claimBatch(int limit) {
+            List<ScoringTask> batch = pending;
+            pending = List.of();
+            return batch;
+        }
+
+        @Override
+        public void complete(ScoringTask task, OpenQuestionScoreResponse scoreResponse) {
+            completed.add(task.jobId());
+        }
+
+        @Override
+        public void defer(ScoringTask task, Duration delay, String reason) {
+            deferred.add(task.jobId());
+            deferDelays.add(delay);
+        }
+
+        @Override
+        public void fail(ScoringTask task, String error) {
+            failed.add(task.jobId());
+        }
+
+        @Override
+        public void manualReview(ScoringTask task) {
+            manualReviews.add(task.jobId());
+        }
+    }
+}
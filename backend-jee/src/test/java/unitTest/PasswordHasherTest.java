@@ -0,0 +1,51 @@
+package unitTest;
+
+import com.tsix.apirest.exceptions.userExceptions.PasswordHashingBusyException;
+import com.tsix.apirest.service.PasswordHasher;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHasherTest {
+
+    @Test
+    void should_hash_and_verify_at_the_configured_cost() {
+        PasswordHasher hasher = new PasswordHasher(4, 2, 4, Duration.ofSeconds(10));
+
+        String hash = hasher.hash("s3cret!");
+
+        assertEquals(4, PasswordHasher.costOf(hash));
+        assertTrue(hasher.verify("s3cret!", hash));
+        assertFalse(hasher.verify("wrong", hash));
+        hasher.shutdown();
+    }
+
+    @Test
+    void should_ask_for_a_rehash_when_the_cost_policy_changed() {
+        PasswordHasher oldPolicy = new PasswordHasher(4, 1, 4, Duration.ofSeconds(10));
+        PasswordHasher newPolicy = new PasswordHasher(5, 1, 4, Duration.ofSeconds(10));
+        String hash = oldPolicy.hash("s3cret!");
+
+        assertFalse(oldPolicy.needsRehash(hash));
+        assertTrue(newPolicy.needsRehash(hash));
+        assertTrue(newPolicy.verify("s3cret!", hash));
+        assertTrue(newPolicy.needsRehash("not-a-bcrypt-hash"));
+        oldPolicy.shutdown();
+        newPolicy.shutdown();
+    }
+
+    @Test
+    void should_fail_fast_instead_of_queueing_without_bound() {
+        // One thread, one queue slot, and no patience: the third hash is refused outright
+        PasswordHasher hasher = new PasswordHasher(12, 1, 1, Duration.ofMillis(1));
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(PasswordHashingBusyException.class, () -> hasher.hash("s3cret!"));
+        }
+
+        assertEquals(3, hasher.rejected());
+        hasher.shutdown();
+    }
+}
@@ -0,0 +1,151 @@
+package unitTest;
+
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stand-in EntityManager for tests without a database. Results are served in order from the
+ * values queued with {@link #willReturn(Object)}, and the queries the code creates are kept
+ * with their hints. It only sees calls made on the EntityManager, not the SQL Hibernate would
+ * send (lazy loads, batching), so it does not count statements: see integrationTest.StatementCountTest.
+ */
+public class QueryRecorder {
+    public record Statement(String text, Map<String, Object> hints, Map<String, Object> parameters, Integer maxResults) {}
+
+    private final List<Statement> statements = new ArrayList<>();
+    private final List<String> operations = new ArrayList<>();
+    private final List<Object> persisted = new ArrayList<>();
+    private final Deque<Object> results = new ArrayDeque<>();
+    private final EntityManager entityManager = proxy(EntityManager.class, (method, args) -> switch (method) {
+        case "getEntityGraph" -> entityGraph((String) args[0]);
+        case "createQuery", "createNamedQuery", "createNativeQuery" -> query(String.valueOf(args[0]));
+        case "find" -> {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> hints = args.length > 2 && args[2] instanceof Map<?, ?> map
+                    ? (Map<String, Object>) map
+                    : Map.of();
+            statements.add(new Statement("find " + ((Class<?>) args[0]).getSimpleName(), hints, Map.of("id", args[1]), null));
+            yield results.poll();
+        }
+        case "merge" -> args[0];
+        case "persist" -> {
+            operations.add("persist " + args[0].getClass().getSimpleName());
+            persisted.add(args[0]);
+            yield null;
+        }
+        case "flush", "clear" -> {
+            operations.add(method);
+            yield null;
+        }
+        default -> null;
+    });
+
+    public QueryRecorder willReturn(Object result) {
+        results.add(result);
+        return this;
+    }
+
+    public EntityManager entityManager() {
+        return entityManager;
+    }
+
+    public List<Statement> statements() {
+        return statements;
+    }
+
+    /**
+     * Persist, flush and clear calls, in order.
+     */
+    public List<String> operations() {
+        return operations;
+    }
+
+    /**
+     * Entities passed to persist, in order.
+     */
+    public List<Object> persisted() {
+        return persisted;
+    }
+
+    public static void inject(Object target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Row of a tuple query, from alternating aliases and values.
+     */
+    public static Tuple tuple(Object... aliasesAndValues) {
+        Map<String, Object> values = new HashMap<>();
+        for (int i = 0; i < aliasesAndValues.length; i += 2) {
+            values.put((String) aliasesAndValues[i], aliasesAndValues[i + 1]);
+        }
+        return proxy(Tuple.class, (method, args) -> "get".equals(method) ? values.get((String) args[0]) : null);
+    }
+
+    private TypedQuery<?> query(String text) {
+        Map<String, Object> hints = new HashMap<>();
+        Map<String, Object> parameters = new HashMap<>();
+        Integer[] maxResults = new Integer[1];
+        TypedQuery<?>[] self = new TypedQuery<?>[1];
+        self[0] = proxy(TypedQuery.class, (method, args) -> switch (method) {
+            case "setHint" -> {
+                hints.put((String) args[0], args[1]);
+                yield self[0];
+            }
+            case "setParameter" -> {
+                // Null values are kept, a null grade is a value
+                parameters.put((String) args[0], args[1]);
+                yield self[0];
+            }
+            case "setMaxResults" -> {
+                maxResults[0] = (Integer) args[0];
+                yield self[0];
+            }
+            case "getResultList", "getSingleResult" -> {
+                statements.add(new Statement(text, hints, parameters, maxResults[0]));
+                yield results.poll();
+            }
+            case "getResultStream" -> {
+                statements.add(new Statement(text, hints, parameters, maxResults[0]));
+                yield ((List<?>) results.poll()).stream();
+            }
+            case "executeUpdate" -> {
+                statements.add(new Statement(text, hints, parameters, maxResults[0]));
+                yield 0;
+            }
+            default -> self[0];
+        });
+        return self[0];
+    }
+
+    private static EntityGraph<?> entityGraph(String name) {
+        return proxy(EntityGraph.class, (method, args) -> "getName".equals(method) || "toString".equals(method) ? name : null);
+    }
+
+    private interface Handler {
+        Object handle(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(QueryRecorder.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.handle(method.getName(), args == null ? new Object[0] : args));
+    }
+}
@@ -0,0 +1,37 @@
+package unitTest;
+
+import com.tsix.apirest.dto.res.CandidateAuthResponse;
+import com.tsix.apirest.repository.TestRepo;
+import com.tsix.apirest.service.RenderQuestions;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RenderQuestionsTest {
+    private final QueryRecorder recorder = new QueryRecorder();
+    private final RenderQuestions renderQuestions = new RenderQuestions();
+
+    RenderQuestionsTest() {
+        QueryRecorder.inject(renderQuestions, "testRepo", new TestRepo(recorder.entityManager()));
+    }
+
+    @Test
+    void login_response_takes_the_question_count_stored_on_the_test() {
+        com.tsix.apirest.entity.test.Test test = new com.tsix.apirest.entity.test.Test(7);
+        test.setName("Java");
+        test.setDurationMinute(45);
+        // No question is attached: the count is not derived from them
+        test.setQuestionCount(12);
+        recorder.willReturn(test);
+
+        CandidateAuthResponse response = renderQuestions.responseAfterAuth(7);
+
+        assertEquals(new CandidateAuthResponse("Java", 12L, 45, 7), response);
+    }
+
+    @Test
+    void login_response_for_an_unknown_test_is_empty() {
+        // Nothing queued: the test is not found
+        assertEquals(new CandidateAuthResponse("Unknown Test", 0L, 0, 7), renderQuestions.responseAfterAuth(7));
+    }
+}
@@ -0,0 +1,31 @@
+package unitTest;
+
+import com.tsix.apirest.dto.req.OpenQuestionScoreRequest;
+import com.tsix.apirest.service.ScoreCache;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class ScoreCacheKeyTest {
+    private static final String MODEL = "llama-3.3-70b-versatile/v1";
+
+    @Test
+    void should_give_same_key_to_answers_differing_only_in_case_and_spacing() {
+        OpenQuestionScoreRequest a = new OpenQuestionScoreRequest(1, "  The JVM   runs bytecode. ", "model", 10);
+        OpenQuestionScoreRequest b = new OpenQuestionScoreRequest(1, "the jvm runs bytecode", "model", 10);
+
+        assertEquals(ScoreCache.keyFor(a, MODEL), ScoreCache.keyFor(b, MODEL));
+    }
+
+    @Test
+    void should_give_different_keys_when_scale_model_answer_or_version_change() {
+        OpenQuestionScoreRequest base = new OpenQuestionScoreRequest(1, "answer", "model", 10);
+        String key = ScoreCache.keyFor(base, MODEL);
+
+        assertNotEquals(key, ScoreCache.keyFor(new OpenQuestionScoreRequest(1, "answer", "model", 5), MODEL));
+        assertNotEquals(key, ScoreCache.keyFor(new OpenQuestionScoreRequest(1, "answer", "other model", 10), MODEL));
+        assertNotEquals(key, ScoreCache.keyFor(new OpenQuestionScoreRequest(2, "answer", "model", 10), MODEL));
+        assertNotEquals(key, ScoreCache.keyFor(base, "llama-3.3-70b-versatile/v2"));
+    }
+}
@@ -0,0 +1,57 @@
+package unitTest;
+
+import com.tsix.apirest.dto.res.CacheRegionStatsResponse;
+import com.tsix.apirest.service.SecondLevelCacheStats;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SecondLevelCacheStatsTest {
+
+    public interface FakeCacheStatisticsMXBean {
+        long getCacheHits();
+        long getCacheMisses();
+        float getCacheHitPercentage();
+        long getCachePuts();
+        long getCacheRemovals();
+        long getCacheEvictions();
+        float getAverageGetTime();
+    }
+
+    public record FakeCacheStatistics(long getCacheHits, long getCacheMisses) implements FakeCacheStatisticsMXBean {
+        public float getCacheHitPercentage() { return 100f * getCacheHits / (getCacheHits + getCacheMisses); }
+        public long getCachePuts() { return getCacheMisses; }
+        public long getCacheRemovals() { return 0; }
+        public long getCacheEvictions() { return 0; }
+        public float getAverageGetTime() { return 3.5f; }
+    }
+
+    @Test
+    void should_report_only_the_application_regions() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName domain = new ObjectName("javax.cache:type=CacheStatistics,CacheManager=test,Cache=tsix.domain");
+        ObjectName question = new ObjectName("javax.cache:type=CacheStatistics,CacheManager=test,Cache=tsix.question.answers");
+        ObjectName foreign = new ObjectName("javax.cache:type=CacheStatistics,CacheManager=test,Cache=other");
+        server.registerMBean(new FakeCacheStatistics(90, 10), domain);
+        server.registerMBean(new FakeCacheStatistics(3, 1), question);
+        server.registerMBean(new FakeCacheStatistics(1, 1), foreign);
+        try {
+            List<CacheRegionStatsResponse> regions = new SecondLevelCacheStats().regions();
+
+            assertEquals(List.of("domain", "question.answers"),
+                    regions.stream().map(CacheRegionStatsResponse::region).toList());
+            assertEquals(90, regions.get(0).hits());
+            assertEquals(10, regions.get(0).misses());
+            assertEquals(90f, regions.get(0).hitPercentage());
+        } finally {
+            server.unregisterMBean(domain);
+            server.unregisterMBean(question);
+            server.unregisterMBean(foreign);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package unitTest;
+
+import com.tsix.apirest.repository.TestSessionRepo;
+import com.tsix.apirest.service.SessionExpiryService;
+import com.tsix.apirest.service.SessionExpiryService.Batch;
+import com.tsix.apirest.service.SessionExpiryService.Cursor;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionExpiryServiceTest {
+    private final QueryRecorder recorder = new QueryRecorder();
+
+    @Test
+    void should_skip_the_batch_when_another_node_holds_the_lock() {
+        recorder.willReturn(false);
+
+        Batch batch = service().expireBatch(Cursor.START, 500);
+
+        assertFalse(batch.locked());
+        assertEquals(0, batch.expired());
+        assertSame(Cursor.START, batch.next());
+        assertEquals(1, recorder.statements().size());
+    }
+
+    @Test
+    void should_advance_the_cursor_to_the_last_finished_session() {
+        LocalDateTime t1 = LocalDateTime.of(2026, 1, 1, 10, 0);
+        LocalDateTime t2 = LocalDateTime.of(2026, 1, 1, 11, 0);
+        recorder.willReturn(true)
+                .willReturn(List.of(
+                        new Object[]{Timestamp.valueOf(t2), 4L},
+                        new Object[]{Timestamp.valueOf(t1), 9L},
+                        new Object[]{Timestamp.valueOf(t2), 3L}));
+
+        Batch batch = service().expireBatch(Cursor.START, 3);
+
+        assertTrue(batch.locked());
+        assertEquals(3, batch.expired());
+        assertEquals(new Cursor(t2, 4L), batch.next());
+        assertEquals(2, recorder.statements().size());
+        assertTrue(recorder.statements().get(1).text().contains("FOR UPDATE SKIP LOCKED"));
+    }
+
+    private SessionExpiryService service() {
+        SessionExpiryService service = new SessionExpiryService();
+        QueryRecorder.inject(service, "testSessionRepo", new TestSessionRepo(recorder.entityManager()));
+        return service;
+    }
+}
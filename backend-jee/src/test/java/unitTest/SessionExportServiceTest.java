@@ -0,0 +1,93 @@
+package unitTest;
+
+import com.tsix.apirest.dto.res.CandidateAnswerExportRow;
+import com.tsix.apirest.entity.TestSessionStatus;
+import com.tsix.apirest.entity.test.ScoringStatus;
+import com.tsix.apirest.entity.test.TestSession;
+import com.tsix.apirest.repository.CandidateAnswerRepo;
+import com.tsix.apirest.repository.TestRepo;
+import com.tsix.apirest.repository.TestSessionRepo;
+import com.tsix.apirest.service.SessionExportService;
+import jakarta.transaction.Status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SessionExportServiceTest {
+    private final QueryRecorder recorder = new QueryRecorder();
+    private final FakeTransaction transaction = new FakeTransaction();
+    private SessionExportService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SessionExportService();
+        QueryRecorder.inject(service, "userTransaction", transaction);
+        QueryRecorder.inject(service, "testRepo", new TestRepo(recorder.entityManager()));
+        QueryRecorder.inject(service, "testSessionRepo", new TestSessionRepo(recorder.entityManager()));
+        QueryRecorder.inject(service, "candidateAnswerRepo", new CandidateAnswerRepo(recorder.entityManager()));
+        com.tsix.apirest.entity.test.Test test = new com.tsix.apirest.entity.test.Test(7);
+        test.setName("Java");
+        test.setDurationMinute(30);
+        recorder.willReturn(test);
+    }
+
+    @Test
+    void should_merge_answers_into_their_session_rows_from_two_streamed_queries() throws IOException {
+        recorder.willReturn(List.of(session(1L), session(2L), session(3L)))
+                .willReturn(List.of(
+                        new CandidateAnswerExportRow(1L, 10, "Q1", "Yes", null, 2.0, true, ScoringStatus.SCORED),
+                        new CandidateAnswerExportRow(3L, 11, "Q2", null, "text, with comma", null, null,
+                                ScoringStatus.PENDING_SCORING)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.export(7, SessionExportService.Format.CSV, true, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(4, lines.length);
+        assertEquals("1,c1@mail.com,CODE1,2024-01-01T10:00,,false,FINISHED,5.0,Java,7,30,10,Q1,Yes,,2.0,true,SCORED", lines[1]);
+        assertEquals("2,c2@mail.com,CODE2,2024-01-01T10:00,,false,FINISHED,5.0,Java,7,30,,,,,,,", lines[2]);
+        assertEquals("3,c3@mail.com,CODE3,2024-01-01T10:00,,false,FINISHED,5.0,Java,7,30,11,Q2,,\"text, with comma\",,,PENDING_SCORING", lines[3]);
+        assertEquals(3, recorder.statements().size());
+    }
+
+    @Test
+    void should_not_query_answers_when_they_are_not_requested() throws IOException {
+        recorder.willReturn(List.of(session(1L)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.export(7, SessionExportService.Format.CSV, false, out);
+
+        assertEquals(2, out.toString(StandardCharsets.UTF_8).split("\r\n").length);
+        assertEquals(2, recorder.statements().size());
+    }
+
+    @Test
+    void should_export_in_its_own_read_only_transaction_with_a_long_timeout() throws IOException {
+        recorder.willReturn(List.of(session(1L)));
+
+        service.export(7, SessionExportService.Format.CSV, false, new ByteArrayOutputStream());
+
+        assertTrue(transaction.timeoutAtBegin() > 0);
+        // Nothing is written, so the transaction is rolled back rather than committed
+        assertEquals(Status.STATUS_ROLLEDBACK, transaction.getStatus());
+    }
+
+    private static TestSession session(Long id) {
+        TestSession session = new TestSession();
+        session.setId(id);
+        session.setEmailCandidate("c" + id + "@mail.com");
+        session.setCodeSession("CODE" + id);
+        session.setDateCreation(LocalDateTime.of(2024, 1, 1, 10, 0));
+        session.setStatus(TestSessionStatus.FINISHED);
+        session.setScore(5.0);
+        return session;
+    }
+}
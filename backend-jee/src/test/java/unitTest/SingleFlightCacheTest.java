@@ -0,0 +1,95 @@
+package unitTest;
+
+import com.tsix.apirest.utils.SingleFlightCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightCacheTest {
+
+    @Test
+    void concurrent_misses_wait_for_a_single_load() throws Exception {
+        SingleFlightCache<Integer, Object> cache = new SingleFlightCache<>(10, 1, TimeUnit.MINUTES);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Object>> values = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                values.add(executor.submit(() -> cache.get(7, id -> {
+                    loads.incrementAndGet();
+                    loading.countDown();
+                    await(release);
+                    return new Object();
+                })));
+            }
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            // Give the other callers time to miss while the first load is running
+            Thread.sleep(100);
+            release.countDown();
+
+            Object first = values.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<Object> value : values) {
+                assertSame(first, value.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failed_load_is_not_kept() {
+        SingleFlightCache<Integer, String> cache = new SingleFlightCache<>(10, 1, TimeUnit.MINUTES);
+
+        assertThrows(IllegalStateException.class, () -> cache.get(7, id -> { throw new IllegalStateException("Test not found"); }));
+
+        assertEquals("loaded", cache.get(7, id -> "loaded"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void least_recently_used_keys_are_evicted_once_full() {
+        SingleFlightCache<Integer, String> cache = new SingleFlightCache<>(2, 1, TimeUnit.MINUTES);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int id = 1; id <= 3; id++) {
+            cache.get(id, key -> "test " + key + " #" + loads.incrementAndGet());
+        }
+
+        assertEquals(2, cache.size());
+        assertEquals("test 1 #4", cache.get(1, key -> "test " + key + " #" + loads.incrementAndGet()));
+    }
+
+    @Test
+    void load_racing_with_an_invalidation_is_returned_but_not_kept() {
+        SingleFlightCache<Integer, String> cache = new SingleFlightCache<>(10, 1, TimeUnit.MINUTES);
+
+        String stale = cache.get(7, id -> {
+            // The test is saved while it is being loaded
+            cache.invalidate(7);
+            return "before edit";
+        });
+
+        assertEquals("before edit", stale);
+        assertEquals("after edit", cache.get(7, id -> "after edit"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
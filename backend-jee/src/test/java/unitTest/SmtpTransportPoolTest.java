@@ -0,0 +1,150 @@
+package unitTest;
+
+import com.tsix.apirest.utils.SmtpTransportPool;
+import com.tsix.apirest.utils.TokenBucket;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SmtpTransportPoolTest {
+
+    @Test
+    void should_send_many_messages_per_connection() throws Exception {
+        try (FakeSmtpServer server = new FakeSmtpServer(0)) {
+            Session session = session(server);
+            SmtpTransportPool pool = pool(session, 2, 100);
+
+            for (int i = 0; i < 50; i++) {
+                pool.send(message(session, i));
+            }
+
+            assertEquals(50, server.messages());
+            assertEquals(1, server.connections());
+            assertEquals(50, pool.stats().sent());
+            pool.close();
+        }
+    }
+
+    @Test
+    void should_replace_connections_after_the_message_limit() throws Exception {
+        try (FakeSmtpServer server = new FakeSmtpServer(0)) {
+            Session session = session(server);
+            SmtpTransportPool pool = pool(session, 1, 10);
+
+            for (int i = 0; i < 25; i++) {
+                pool.send(message(session, i));
+            }
+
+            assertEquals(25, server.messages());
+            assertEquals(3, server.connections());
+            pool.close();
+        }
+    }
+
+    @Test
+    void should_reconnect_when_the_server_drops_the_connection() throws Exception {
+        try (FakeSmtpServer server = new FakeSmtpServer(5)) {
+            Session session = session(server);
+            SmtpTransportPool pool = pool(session, 1, 100);
+
+            for (int i = 0; i < 12; i++) {
+                pool.send(message(session, i));
+            }
+
+            assertEquals(12, server.messages());
+            assertEquals(0, pool.stats().failed());
+            assertTrue(pool.stats().reconnects() >= 2);
+            pool.close();
+        }
+    }
+
+    @Test
+    void should_fail_fast_when_the_rate_limit_is_exhausted() throws Exception {
+        try (FakeSmtpServer server = new FakeSmtpServer(0)) {
+            Session session = session(server);
+            SmtpTransportPool pool = new SmtpTransportPool(() -> connect(session), 1, 100,
+                    new TokenBucket(2, 0.001), Duration.ZERO);
+
+            pool.send(message(session, 1));
+            pool.send(message(session, 2));
+
+            assertThrows(SmtpTransportPool.RateLimitedException.class, () -> pool.send(message(session, 3)));
+            assertEquals(1, pool.stats().rateLimited());
+            pool.close();
+        }
+    }
+
+    @Test
+    void throughput_with_a_pool_of_connections() throws Exception {
+        int messages = 400;
+        int threads = 4;
+        try (FakeSmtpServer server = new FakeSmtpServer(0)) {
+            Session session = session(server);
+            SmtpTransportPool pool = pool(session, threads, 1000);
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < messages; i++) {
+                int n = i;
+                futures.add(executor.submit(() -> {
+                    pool.send(message(session, n));
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            executor.shutdown();
+
+            assertEquals(messages, server.messages());
+            assertTrue(server.connections() <= threads);
+            System.out.println("pooled SMTP: " + messages + " messages in " + millis + " ms ("
+                    + (messages * 1000L / millis) + " msg/s) over " + server.connections() + " connections");
+            pool.close();
+        }
+    }
+
+    private static SmtpTransportPool pool(Session session, int size, int maxMessagesPerConnection) {
+        return new SmtpTransportPool(() -> connect(session), size, maxMessagesPerConnection,
+                new TokenBucket(10_000, 10_000), Duration.ofSeconds(1));
+    }
+
+    private static Transport connect(Session session) throws MessagingException {
+        Transport transport = session.getTransport("smtp");
+        transport.connect();
+        return transport;
+    }
+
+    private static Session session(FakeSmtpServer server) {
+        Properties properties = new Properties();
+        properties.put("mail.smtp.host", "127.0.0.1");
+        properties.put("mail.smtp.port", String.valueOf(server.port()));
+        properties.put("mail.smtp.timeout", "5000");
+        properties.put("mail.smtp.connectiontimeout", "5000");
+        return Session.getInstance(properties);
+    }
+
+    private static Message message(Session session, int n) throws MessagingException {
+        MimeMessage message = new MimeMessage(session);
+        message.setFrom(new InternetAddress("noreply@test.com"));
+        message.setRecipients(Message.RecipientType.TO, InternetAddress.parse("candidate" + n + "@test.com"));
+        message.setSubject("test invitation " + n);
+        message.setText("your access code is : " + n);
+        return message;
+    }
+}
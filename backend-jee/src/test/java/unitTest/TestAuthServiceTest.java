@@ -0,0 +1,45 @@
+package unitTest;
+
+import com.tsix.apirest.dto.req.CandidateAuthReq;
+import com.tsix.apirest.exceptions.userExceptions.InvalidCredentialException;
+import com.tsix.apirest.repository.TestSessionRepo;
+import com.tsix.apirest.service.TestAuthService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestAuthServiceTest {
+    private final QueryRecorder recorder = new QueryRecorder();
+    private final TestAuthService service = new TestAuthService();
+
+    TestAuthServiceTest() {
+        QueryRecorder.inject(service, "testSessionRepo", new TestSessionRepo(recorder.entityManager()));
+    }
+
+    @Test
+    void login_is_refused_when_no_unused_session_matches_the_code_and_email() {
+        recorder.willReturn(List.of());
+
+        assertThrows(InvalidCredentialException.class,
+                () -> service.authManager(new CandidateAuthReq("candidate@test.com", "ABCD12")));
+
+        QueryRecorder.Statement claim = recorder.statements().get(0);
+        assertEquals("ABCD12", claim.parameters().get("code"));
+        assertEquals("candidate@test.com", claim.parameters().get("email"));
+        // Checked and marked used in the same statement, so two logins with one code cannot both win
+        assertTrue(claim.text().startsWith("UPDATE test_session SET tokenused = true"));
+        assertTrue(claim.text().contains("tokenused = false"));
+    }
+
+    @Test
+    void login_without_a_code_or_email_claims_nothing() {
+        assertThrows(InvalidCredentialException.class,
+                () -> service.authManager(new CandidateAuthReq("candidate@test.com", null)));
+        assertThrows(InvalidCredentialException.class,
+                () -> service.authManager(new CandidateAuthReq(null, "ABCD12")));
+
+        assertTrue(recorder.statements().isEmpty());
+    }
+}
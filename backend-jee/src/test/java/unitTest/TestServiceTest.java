@@ -1,16 +1,34 @@
 package unitTest;
 
+import com.tsix.apirest.dto.req.TestRequest;
+import com.tsix.apirest.dto.res.AnswerResponse;
+import com.tsix.apirest.dto.res.QuestionPageResponse;
+import com.tsix.apirest.dto.res.QuestionResponse;
+import com.tsix.apirest.dto.res.QuestionSummary;
 import com.tsix.apirest.entity.test.*;
+import com.tsix.apirest.exceptions.userExceptions.BadRequestException;
+import com.tsix.apirest.mapper.TestMapper;
+import com.tsix.apirest.repository.QuestionRepo;
+import com.tsix.apirest.repository.TestRepo;
+import com.tsix.apirest.service.AnswerKeyCache;
+import com.tsix.apirest.service.CandidatePaperCache;
 import com.tsix.apirest.service.TestService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
 import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestServiceTest {
+    private static final UUID ENTERPRISE = UUID.randomUUID();
 
     private TestService service;
 
@@ -97,4 +115,106 @@ public class TestServiceTest {
 
         assertFalse(service.checkOpenAnswer(q, QuestionType.OPEN_QUESTION));
     }
+
+    @Test
+    void question_bank_page_returns_the_page_with_its_choices_and_the_cursor_of_its_last_question() {
+        QueryRecorder recorder = new QueryRecorder()
+                .willReturn(List.of(
+                        new QuestionSummary(4, "Q_4", null, QuestionType.QCM, 1),
+                        new QuestionSummary(9, "Q_9", null, QuestionType.OPEN_QUESTION, 2),
+                        new QuestionSummary(12, "Q_12", null, QuestionType.QCM, 1)))
+                .willReturn(List.of(
+                        QueryRecorder.tuple("questionId", 4, "id", 40, "label", "A", "correct", true),
+                        QueryRecorder.tuple("questionId", 4, "id", 41, "label", "B", "correct", false)))
+                .willReturn(List.of(
+                        QueryRecorder.tuple("questionId", 9, "id", 90, "expectedAnswer", "Injection",
+                                "keywordId", 1, "keyword", "inject"),
+                        QueryRecorder.tuple("questionId", 9, "id", 90, "expectedAnswer", "Injection",
+                                "keywordId", 2, "keyword", "container")));
+        QueryRecorder.inject(service, "questionRepo", new QuestionRepo(recorder.entityManager()));
+
+        QuestionPageResponse page = service.questionBankPage(ENTERPRISE, 3, "qcm", " Q_ ", 2);
+
+        assertEquals(List.of(4, 9), page.items().stream().map(QuestionResponse::getId).toList());
+        assertEquals(Set.of("A", "B"), page.items().get(0).getAnswers().stream().map(AnswerResponse::getLabel).collect(Collectors.toSet()));
+        assertTrue(page.items().get(1).getAnswers().isEmpty());
+        assertEquals("Injection", page.items().get(1).getOpenAnswers().getExpectedAnswer());
+        assertEquals(2, page.items().get(1).getOpenAnswers().getKeywords().size());
+        assertEquals(9, page.nextCursor());
+        assertTrue(page.hasMore());
+
+        QueryRecorder.Statement rows = recorder.statements().get(0);
+        assertEquals(3, rows.parameters().get("afterId"));
+        assertEquals(QuestionType.QCM, rows.parameters().get("type"));
+        // Lowercased, trimmed and with LIKE wildcards escaped
+        assertEquals("q\\_%", rows.parameters().get("labelPrefix"));
+        // One extra row tells whether another page follows
+        assertEquals(3, rows.maxResults());
+        // Choices are looked up for the page only
+        assertEquals(List.of(4, 9), recorder.statements().get(1).parameters().get("ids"));
+    }
+
+    @Test
+    void last_question_bank_page_has_no_cursor() {
+        QueryRecorder recorder = new QueryRecorder()
+                .willReturn(List.of(new QuestionSummary(4, "Q4", null, QuestionType.QCM, 1)))
+                .willReturn(List.of())
+                .willReturn(List.of());
+        QueryRecorder.inject(service, "questionRepo", new QuestionRepo(recorder.entityManager()));
+
+        QuestionPageResponse page = service.questionBankPage(ENTERPRISE, null, null, null, 2);
+
+        assertEquals(1, page.items().size());
+        assertNull(page.nextCursor());
+        assertFalse(page.hasMore());
+        assertEquals(0, recorder.statements().get(0).parameters().get("afterId"));
+        assertFalse(recorder.statements().get(0).parameters().containsKey("type"));
+    }
+
+    @Test
+    void empty_question_bank_page_looks_up_no_choices() {
+        QueryRecorder recorder = new QueryRecorder().willReturn(List.of());
+        QueryRecorder.inject(service, "questionRepo", new QuestionRepo(recorder.entityManager()));
+
+        QuestionPageResponse page = service.questionBankPage(ENTERPRISE, 100, null, null, 500);
+
+        assertTrue(page.items().isEmpty());
+        assertNull(page.nextCursor());
+        assertFalse(page.hasMore());
+        assertEquals(1, recorder.statements().size());
+        // The page size is capped
+        assertEquals(201, recorder.statements().get(0).maxResults());
+    }
+
+    @Test
+    void question_bank_page_rejects_an_unknown_type() {
+        assertThrows(BadRequestException.class,
+                () -> service.questionBankPage(ENTERPRISE, null, "essay", null, null));
+    }
+
+    @Test
+    void saving_a_test_stores_its_question_count_and_total_points() {
+        QueryRecorder recorder = new QueryRecorder()
+                .willReturn(List.<Object[]>of(new Object[]{1, 2.0}, new Object[]{2, 3.5}));
+        QueryRecorder.inject(service, "questionRepo", new QuestionRepo(recorder.entityManager()));
+        QueryRecorder.inject(service, "testRepo", new TestRepo(recorder.entityManager()));
+        QueryRecorder.inject(service, "testMapper", new TestMapper());
+        QueryRecorder.inject(service, "candidatePaperCache", new CandidatePaperCache());
+        QueryRecorder.inject(service, "answerKeyCache", new AnswerKeyCache());
+
+        // Question 3 is not in the bank, it adds no points
+        service.insertTest(new TestRequest("Java", ENTERPRISE, 1L, 30,
+                List.of(questionRef(1), questionRef(2), questionRef(3))));
+
+        com.tsix.apirest.entity.test.Test saved = (com.tsix.apirest.entity.test.Test) recorder.persisted().get(0);
+        assertEquals(3, saved.getQuestionCount());
+        assertEquals(5.5, saved.getTotalPoints());
+        assertEquals(Set.of(1, 2, 3), recorder.statements().get(0).parameters().get("ids"));
+    }
+
+    private static Question questionRef(int id) {
+        Question question = new Question();
+        question.setId(id);
+        return question;
+    }
 }
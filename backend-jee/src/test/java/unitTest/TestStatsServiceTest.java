@@ -0,0 +1,76 @@
+package unitTest;
+
+import com.tsix.apirest.dto.res.TestStatisticsResponse;
+import com.tsix.apirest.entity.test.TestQuestionStats;
+import com.tsix.apirest.entity.test.TestScoreBucket;
+import com.tsix.apirest.entity.test.TestScoreStats;
+import com.tsix.apirest.repository.TestRepo;
+import com.tsix.apirest.repository.TestStatsRepo;
+import com.tsix.apirest.service.TestStatsService;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestStatsServiceTest {
+    private final QueryRecorder recorder = new QueryRecorder();
+    private final TestStatsService service = new TestStatsService();
+
+    TestStatsServiceTest() {
+        QueryRecorder.inject(service, "testStatsRepo", new TestStatsRepo(recorder.entityManager()));
+        QueryRecorder.inject(service, "testRepo", new TestRepo(recorder.entityManager()));
+    }
+
+    @Test
+    void graded_session_is_added_with_a_fixed_number_of_statements() {
+        recorder.willReturn(List.of(7));
+
+        service.recordGraded(3L, 12.5);
+
+        assertEquals(List.of("flush"), recorder.operations());
+        assertEquals(4, recorder.statements().size());
+        assertTrue(recorder.statements().get(0).text().contains("stats_recorded_at IS NULL"));
+    }
+
+    @Test
+    void session_already_counted_is_not_added_again() {
+        recorder.willReturn(List.of());
+
+        service.recordGraded(3L, 12.5);
+
+        assertEquals(1, recorder.statements().size());
+    }
+
+    @Test
+    void statistics_are_read_from_the_aggregates() {
+        recorder.willReturn(List.of(new com.tsix.apirest.entity.test.Test(7)))
+                .willReturn(new TestScoreStats(7, 4, 20.0, 120.0, 2.0, 8.0, LocalDateTime.now()))
+                .willReturn(List.of(new TestScoreBucket(7, 2, 2), new TestScoreBucket(7, 8, 2)))
+                .willReturn(List.<Object[]>of(new Object[]{new TestQuestionStats(7, 1, 4, 3, 6.0, 12.0), "Question 1"}));
+
+        TestStatisticsResponse stats = service.statistics(7, UUID.randomUUID());
+
+        assertEquals(4, recorder.statements().size());
+        assertEquals(4, stats.gradedSessions());
+        assertEquals(5.0, stats.meanScore(), 1e-9);
+        assertEquals(Math.sqrt(5.0), stats.scoreStandardDeviation(), 1e-9);
+        assertEquals(10, stats.histogram().size());
+        assertEquals(2, stats.histogram().get(8).sessions());
+        assertEquals(30.0, stats.medianPercent(), 1e-9);
+        assertEquals(0.75, stats.questions().get(0).successRate(), 1e-9);
+        assertEquals(1.5, stats.questions().get(0).meanPoints(), 1e-9);
+    }
+
+    @Test
+    void percentile_is_interpolated_inside_its_bucket() {
+        long[] counts = new long[10];
+        counts[5] = 10;
+
+        assertEquals(55.0, TestStatsService.percentile(counts, 0.5), 1e-9);
+        assertEquals(59.0, TestStatsService.percentile(counts, 0.9), 1e-9);
+        assertNull(TestStatsService.percentile(new long[10], 0.5));
+    }
+}
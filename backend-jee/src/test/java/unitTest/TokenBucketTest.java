@@ -0,0 +1,35 @@
+package unitTest;
+
+import com.tsix.apirest.utils.TokenBucket;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TokenBucketTest {
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void should_allow_a_burst_up_to_capacity_then_refill_over_time() {
+        TokenBucket bucket = new TokenBucket(2, 1, now::get);
+
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    void should_not_wait_when_the_next_token_comes_after_the_timeout() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, 0.1, now::get);
+        assertTrue(bucket.tryAcquire());
+
+        assertFalse(bucket.tryAcquire(1, TimeUnit.SECONDS));
+    }
+}